@@ -0,0 +1,82 @@
+package com.api.bard.benchmarks;
+
+import com.api.bard.model.Answer;
+import com.api.bard.parser.TreeBardResultParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer.getMarkdownAnswer on the recorded answer with a picture, and on generated answers with many images:
+ * rendering into a buffer, and the memoized string.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownBenchmark {
+
+    // 0 for the recorded answer
+    @Param({"0", "10", "50"})
+    public int images;
+
+    private Answer answer;
+
+    @Setup
+    public void setup() {
+        if (images == 0) {
+            String rawResult = Recordings.read(Recordings.WITH_1_PICTURE).split("\n")[3];
+            TreeBardResultParser parser = new TreeBardResultParser();
+            answer = parser.parsePayload(parser.extractPayload(rawResult));
+            // Parses the images outside of the measurement
+            answer.getImages();
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        List<Answer.Image> imageList = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            String marker = "[Image of landmark " + i + "]";
+            text.append("Paragraph ").append(i).append(" describes a famous landmark and its history. ")
+                .append("It is one of the most visited places of its country.\n\n")
+                .append(marker).append("\n\n");
+            imageList.add(Answer.Image.builder()
+                .imageMarker(marker)
+                .imageUrl("https://example.com/images/" + i + ".jpg")
+                .detailsLink("https://example.com/landmarks/" + i)
+                .build());
+        }
+        answer = Answer.builder()
+            .answer(text.toString())
+            .images(imageList)
+            .build();
+    }
+
+    @Benchmark
+    public String getMarkdownAnswer() {
+        return answer.getMarkdownAnswer();
+    }
+
+    @Benchmark
+    public int writeMarkdownAnswer() throws IOException {
+        // Each benchmark runs in its own fork, the markdown of the answer is not memoized here
+        StringBuilder markdown = new StringBuilder();
+        answer.writeMarkdownAnswer(markdown);
+        return markdown.length();
+    }
+}
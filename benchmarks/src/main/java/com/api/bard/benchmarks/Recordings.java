@@ -0,0 +1,29 @@
+package com.api.bard.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recorded bard responses, shared with the tests of the library.
+ */
+final class Recordings {
+    static final String WITHOUT_IMAGE = "bard_response_without_image.json";
+    static final String WITH_1_PICTURE = "bard_response_with_1_picture.json";
+    static final String MULTI_SOURCES = "bard_response_multi_sources.json";
+
+    private Recordings() {
+    }
+
+    static String read(String name) {
+        try (InputStream inputStream = Recordings.class.getResourceAsStream("/" + name)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("No recorded response " + name);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.api.bard.benchmarks;
+
+import com.api.bard.BardClient;
+import com.api.bard.cache.SNlM0eCache;
+import com.api.bard.model.Answer;
+import com.api.bard.model.Question;
+import com.api.bard.transport.BardHttpRequest;
+import com.api.bard.transport.BardHttpResponse;
+import com.api.bard.transport.BardTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request path of getAnswer: building f.req, form encoding the body and sending it, against a transport
+ * answering at once with the smallest recorded response. Its parsing is included, compare with
+ * {@link ResponseParserBenchmark} on the same response to get the share of the request encoding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestEncodingBenchmark {
+    private static final String HOME_PAGE = "<script>WIZ_global_data = {\"SNlM0e\":\"benchmark_snlm0e\"};</script>";
+
+    @Param({"short", "long", "unicode"})
+    public String question;
+
+    private BardClient bardClient;
+    private Question input;
+
+    @Setup
+    public void setup() {
+        bardClient = BardClient.builder("benchmark_token.")
+            .transport(new FixedResponseTransport(Recordings.read(Recordings.WITHOUT_IMAGE)))
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .build();
+        input = Question.builder().question(questionText(question)).build();
+    }
+
+    @Benchmark
+    public Answer getAnswer() {
+        return bardClient.getAnswer(input);
+    }
+
+    private static String questionText(String kind) {
+        switch (kind) {
+            case "short":
+                return "What is the capital of France?";
+            case "long":
+                StringBuilder text = new StringBuilder();
+                while (text.length() < 4000) {
+                    text.append("Explain, step by step and with examples, how a \"B-tree\" keeps itself balanced. ");
+                }
+                return text.toString();
+            default:
+                return "日本の首都はどこですか？ Où est la tour Eiffel ? Ελλάδα & Россия: «¿qué?» 😀";
+        }
+    }
+
+    /**
+     * Answers the home page and every StreamGenerate request without any network, nor recording requests.
+     */
+    private static class FixedResponseTransport implements BardTransport {
+        private final byte[] homePage = HOME_PAGE.getBytes(StandardCharsets.UTF_8);
+        private final byte[] streamGenerate;
+
+        private FixedResponseTransport(String streamGenerate) {
+            this.streamGenerate = streamGenerate.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public BardHttpResponse execute(BardHttpRequest request) {
+            byte[] body = BardHttpRequest.GET.equals(request.getMethod()) ? homePage : streamGenerate;
+            return BardHttpResponse.builder()
+                .code(200)
+                .body(new ByteArrayInputStream(body))
+                .build();
+        }
+
+        @Override
+        public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+            return CompletableFuture.completedFuture(execute(request));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.api.bard.benchmarks;
+
+import com.api.bard.model.Answer;
+import com.api.bard.parser.BardResultParser;
+import com.api.bard.parser.StreamingBardResultParser;
+import com.api.bard.parser.TreeBardResultParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of recorded StreamGenerate responses: small (no image), with a picture, and large (many sources).
+ * parse takes the same steps as BardClient.parseBardResult, parseWithDetails also reads the lazily parsed fields.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParserBenchmark {
+
+    @Param({Recordings.WITHOUT_IMAGE, Recordings.WITH_1_PICTURE, Recordings.MULTI_SOURCES})
+    public String response;
+
+    @Param({"tree", "streaming"})
+    public String parser;
+
+    private String rawResponse;
+    private BardResultParser resultParser;
+
+    @Setup
+    public void setup() {
+        rawResponse = Recordings.read(response);
+        resultParser = "tree".equals(parser) ? new TreeBardResultParser() : new StreamingBardResultParser();
+    }
+
+    @Benchmark
+    public Answer parse() {
+        String rawResult = rawResponse.split("\n")[3];
+        return resultParser.parsePayload(resultParser.extractPayload(rawResult));
+    }
+
+    @Benchmark
+    public void parseWithDetails(Blackhole blackhole) {
+        Answer answer = parse();
+        blackhole.consume(answer.getChoices());
+        blackhole.consume(answer.getImages());
+        blackhole.consume(answer.getSources());
+        blackhole.consume(answer.getRelatedTopics());
+    }
+}
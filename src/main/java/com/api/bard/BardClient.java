@@ -1,67 +1,137 @@
 package com.api.bard;
 
+import com.api.bard.cache.AnswerCache;
+import com.api.bard.cache.AnswerCacheKey;
+import com.api.bard.cache.LruAnswerCache;
+import com.api.bard.cache.SNlM0eCache;
 import com.api.bard.exception.BardApiException;
+import com.api.bard.exception.BardCircuitOpenException;
+import com.api.bard.exception.BardHttpException;
+import com.api.bard.exception.BardInvalidTokenException;
+import com.api.bard.exception.BardTimeoutException;
+import com.api.bard.metrics.BardMetricsListener;
+import com.api.bard.metrics.BardPhase;
+import com.api.bard.metrics.BardPhaseEvent;
 import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.ConversationState;
 import com.api.bard.model.Question;
+import com.api.bard.model.RawResponseRetention;
+import com.api.bard.parser.BardResultParser;
+import com.api.bard.parser.StreamingBardResultParser;
+import com.api.bard.parser.TreeBardResultParser;
+import com.api.bard.resilience.CircuitBreaker;
+import com.api.bard.resilience.HedgingPolicy;
+import com.api.bard.resilience.RateLimiter;
+import com.api.bard.resilience.RetryPolicy;
+import com.api.bard.store.ConversationStore;
 import com.api.bard.translator.IBardTranslator;
+import com.api.bard.translator.ParallelAnswerTranslator;
+import com.api.bard.transport.BardHttpRequest;
+import com.api.bard.transport.BardHttpResponse;
+import com.api.bard.transport.BardTransport;
+import com.api.bard.transport.CircuitBreakerBardTransport;
+import com.api.bard.transport.HedgingBardTransport;
+import com.api.bard.transport.PooledBardTransport;
+import com.api.bard.transport.ThrottlingBardTransport;
+import com.api.bard.transport.UrlConnectionBardTransport;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
-import java.net.URL;
-import java.net.URLEncoder;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 public class BardClient implements IBardClient {
-    private static final String HOST = "bard.google.com";
     private static final String BARD_URL = "https://bard.google.com";
-    private static final String STREAM_GENERATE_URL =
-        BARD_URL + "/_/BardChatUi/data/assistant.lamda.BardFrontendService/StreamGenerate";
+    private static final String STREAM_GENERATE_PATH =
+        "/_/BardChatUi/data/assistant.lamda.BardFrontendService/StreamGenerate";
     private static final String X_SAME_DOMAIN = "1";
     private static final String USER_AGENT =
         "Mozilla/5.0 (Windows NT 10.0; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.114 Safari/537.36";
     private static final String CONTENT_TYPE = "application/x-www-form-urlencoded;charset=UTF-8";
 
+    // Shared by all clients which were not given an executor, threads are daemon so they never block JVM exit
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bard-client-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Proxy to use when making requests
      */
     private Proxy proxy = Proxy.NO_PROXY;
+    private Authenticator authenticator;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration readTimeout = Duration.ofMinutes(2);
+    // deadline of questions without a timeout of their own, null for none
+    private Duration answerTimeout;
 
     private String token;
-    private String snim0e = "";
-    private String conversationId = "";
-    private String responseId = "";
-    private String choiceId = "";
+    // Conversation of the getAnswer/reset methods of the client itself
+    private final BardSession defaultSession = new BardSession(this, ConversationState.EMPTY);
 
     private IBardTranslator translator;
+    private ParallelAnswerTranslator answerTranslator;
     private Consumer<HttpURLConnection> connectionConfigurator;
 
-    private int reqid = Integer.parseInt(String.format("%04d", new Random().nextInt(10000)));
+    // Used by getAnswerAsync, both for http callbacks and the (blocking) translator calls
+    private Executor executor = DEFAULT_EXECUTOR;
+    private BardTransport transport;
+    private RateLimiter rateLimiter;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private HedgingPolicy hedgingPolicy;
+    // bard.google.com, or a stub server
+    private String bardUrl = BARD_URL;
+    private StreamGenerateRequestEncoder requestEncoder;
+    private BardMetricsListener metricsListener = BardMetricsListener.NOOP;
+    private SNlM0eCache snlm0eCache = SNlM0eCache.shared();
+    private AnswerCache answerCache;
+    // account of the token in answer cache keys
+    private String cacheAccount;
+    private ConversationStore conversationStore;
+    private RawResponseRetention rawResponseRetention = RawResponseRetention.KEEP;
+    private boolean compressResponses = true;
+    private Map<String, String> headers;
+
     private Gson gson = new Gson();
+    private BardResultParser resultParser;
 
     private BardClient(String token) {
         this.token = token;
@@ -96,14 +166,14 @@ public class BardClient implements IBardClient {
          */
         public BardClientBuilder auth(String authUser, String authPassword) {
             System.setProperty("jdk.http.auth.tunneling.disabledSchemes", "");
-            Authenticator.setDefault(
-                new Authenticator() {
-                    @Override
-                    public PasswordAuthentication getPasswordAuthentication() {
-                        return new PasswordAuthentication(authUser, authPassword.toCharArray());
-                    }
+            Authenticator authenticator = new Authenticator() {
+                @Override
+                public PasswordAuthentication getPasswordAuthentication() {
+                    return new PasswordAuthentication(authUser, authPassword.toCharArray());
                 }
-            );
+            };
+            Authenticator.setDefault(authenticator);
+            bardClient.authenticator = authenticator;
             return this;
         }
 
@@ -112,12 +182,248 @@ public class BardClient implements IBardClient {
             return this;
         }
 
+        /**
+         * Longest wait for a connection to bard, 10s by default. Only configures the default transport.
+         *
+         * @param connectTimeout connect timeout of the requests
+         */
+        public BardClientBuilder connectTimeout(@NonNull Duration connectTimeout) {
+            bardClient.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Longest wait for a response to start, and with a SOCKS proxy or a connectionConfigurator for its next bytes,
+         * 2 minutes by default. Only configures the default transport.
+         *
+         * @param readTimeout read timeout of the requests
+         */
+        public BardClientBuilder readTimeout(@NonNull Duration readTimeout) {
+            bardClient.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Deadline of the questions without {@link Question#getTimeout()}, covering every phase: SNlM0e value,
+         * translations and the StreamGenerate request. Requests in flight are aborted when it passes and the call
+         * fails with a {@link BardTimeoutException} cause. No deadline by default.
+         *
+         * @param answerTimeout time allowed to answer a question
+         */
+        public BardClientBuilder answerTimeout(@NonNull Duration answerTimeout) {
+            bardClient.answerTimeout = answerTimeout;
+            return this;
+        }
+
         public BardClientBuilder translator(IBardTranslator translator) {
             bardClient.translator = translator;
             return this;
         }
 
+        /**
+         * Translates answers in chunks, in parallel, keeping markdown and image markers.
+         * By default an answer is translated in a single call to the translator.
+         *
+         * @param answerTranslator chunked translation of answers
+         */
+        public BardClientBuilder answerTranslator(@NonNull ParallelAnswerTranslator answerTranslator) {
+            bardClient.answerTranslator = answerTranslator;
+            return this;
+        }
+
+        /**
+         * Executor used by getAnswerAsync to run http callbacks and translator calls.
+         * Defaults to a shared cached pool of daemon threads.
+         *
+         * @param executor executor for async work
+         */
+        public BardClientBuilder executor(@NonNull Executor executor) {
+            bardClient.executor = executor;
+            return this;
+        }
+
+        /**
+         * Transport to use when making requests, it can be shared by many clients.
+         * <p>
+         * Defaults to a {@link PooledBardTransport}, or to a {@link UrlConnectionBardTransport}
+         * when a SOCKS proxy or a connectionConfigurator is set. proxy, auth and connectionConfigurator
+         * only configure the default transport, they are ignored when a transport is given.
+         *
+         * @param transport transport to use when making requests
+         */
+        public BardClientBuilder transport(@NonNull BardTransport transport) {
+            bardClient.transport = transport;
+            return this;
+        }
+
+        /**
+         * Limits the rate of requests to bard. Share one rate limiter between the clients of a token
+         * (or account) to limit them together. No limit by default.
+         *
+         * @param rateLimiter rate limiter of the requests
+         */
+        public BardClientBuilder rateLimiter(@NonNull RateLimiter rateLimiter) {
+            bardClient.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Retries requests throttled (429) or failed (5xx, IOException) by bard, with jittered exponential backoff.
+         * Requests are not retried by default.
+         *
+         * @param retryPolicy when and after how long requests are retried
+         */
+        public BardClientBuilder retryPolicy(@NonNull RetryPolicy retryPolicy) {
+            bardClient.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Fails requests at once, with {@link BardCircuitOpenException} as cause, while bard is failing or slow,
+         * instead of waiting on it. Every attempt of a retried request is one call of the breaker. No breaker by default.
+         *
+         * @param circuitBreaker circuit breaker of the requests
+         */
+        public BardClientBuilder circuitBreaker(@NonNull CircuitBreaker circuitBreaker) {
+            bardClient.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Sends a StreamGenerate request a second time when it has no response after a percentile of the recent
+         * latencies, and uses whichever response comes first, so a few slow requests do not make slow answers.
+         * The hedges are bounded by the budget of the policy. Not hedged by default.
+         *
+         * @param hedgingPolicy when slow requests are sent again
+         */
+        public BardClientBuilder hedgingPolicy(@NonNull HedgingPolicy hedgingPolicy) {
+            bardClient.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Receives the timing of every phase of answering questions, e.g. a
+         * {@link com.api.bard.metrics.MicrometerMetricsListener}.
+         * Nothing is measured by default.
+         *
+         * @param metricsListener listener of the phase timings
+         */
+        public BardClientBuilder metricsListener(@NonNull BardMetricsListener metricsListener) {
+            bardClient.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * Sends the requests to another server than https://bard.google.com, e.g. a local stub server for tests.
+         *
+         * @param baseUrl scheme, host and port of the server, e.g. http://localhost:8080
+         */
+        public BardClientBuilder baseUrl(@NonNull String baseUrl) {
+            URI uri = URI.create(baseUrl);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                throw new IllegalArgumentException("baseUrl must be an absolute http(s) url: " + baseUrl);
+            }
+            bardClient.bardUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+            return this;
+        }
+
+        /**
+         * Cache of SNlM0e values, defaults to the process-wide {@link SNlM0eCache#shared()} one,
+         * so clients of the same token and base url fetch the bard home page only once.
+         *
+         * @param snlm0eCache cache of SNlM0e values
+         */
+        public BardClientBuilder snlm0eCache(@NonNull SNlM0eCache snlm0eCache) {
+            bardClient.snlm0eCache = snlm0eCache;
+            return this;
+        }
+
+        /**
+         * Cache of answers, e.g. a {@link LruAnswerCache}. Questions asked again in the same conversation
+         * (most often a new one) of the same account get the cached answer without any request to bard,
+         * and the conversation of the session does not move. No cache by default.
+         *
+         * @param answerCache cache of answers
+         */
+        public BardClientBuilder answerCache(@NonNull AnswerCache answerCache) {
+            bardClient.answerCache = answerCache;
+            return this;
+        }
+
+        /**
+         * Store of the conversations of sessions resumed with {@link BardClient#resumeSession(String)},
+         * e.g. a {@link com.api.bard.store.MappedFileConversationStore}. No store by default.
+         *
+         * @param conversationStore store of conversations by session id
+         */
+        public BardClientBuilder conversationStore(@NonNull ConversationStore conversationStore) {
+            bardClient.conversationStore = conversationStore;
+            return this;
+        }
+
+        /**
+         * Whether responses are asked gzip or deflate compressed, true by default. They are decompressed
+         * while being read, the response bytes of the metrics are the compressed ones.
+         *
+         * @param compressResponses whether responses are asked compressed
+         */
+        public BardClientBuilder compressResponses(boolean compressResponses) {
+            bardClient.compressResponses = compressResponses;
+            return this;
+        }
+
+        /**
+         * How the raw response is kept on answers, {@link RawResponseRetention#KEEP} by default.
+         * Drop or compress it to reduce the heap used by answers held in memory.
+         *
+         * @param rawResponseRetention how the raw response is kept
+         */
+        public BardClientBuilder rawResponseRetention(@NonNull RawResponseRetention rawResponseRetention) {
+            bardClient.rawResponseRetention = rawResponseRetention;
+            return this;
+        }
+
+        /**
+         * Parser of bard responses, defaults to {@link TreeBardResultParser}.
+         * {@link StreamingBardResultParser} reads only the needed positions, without building json trees.
+         *
+         * @param resultParser parser of bard responses
+         */
+        public BardClientBuilder resultParser(@NonNull BardResultParser resultParser) {
+            bardClient.resultParser = resultParser;
+            return this;
+        }
+
         public BardClient build() {
+            bardClient.requestEncoder = new StreamGenerateRequestEncoder(bardClient.bardUrl + STREAM_GENERATE_PATH);
+            if (bardClient.resultParser == null) {
+                bardClient.resultParser = new TreeBardResultParser(bardClient.gson);
+            }
+            if (bardClient.transport == null) {
+                bardClient.transport = bardClient.createDefaultTransport();
+            }
+            if (bardClient.hedgingPolicy != null) {
+                bardClient.transport = HedgingBardTransport.builder(bardClient.transport, bardClient.hedgingPolicy)
+                    .executor(bardClient.executor)
+                    .metricsListener(bardClient.metricsListener)
+                    .build();
+            }
+            if (bardClient.circuitBreaker != null) {
+                bardClient.transport = new CircuitBreakerBardTransport(bardClient.transport, bardClient.circuitBreaker);
+            }
+            if (bardClient.rateLimiter != null || bardClient.retryPolicy != null) {
+                ThrottlingBardTransport.Builder throttling = ThrottlingBardTransport.builder(bardClient.transport)
+                    .retryPolicy(bardClient.retryPolicy == null ? RetryPolicy.NONE : bardClient.retryPolicy)
+                    .metricsListener(bardClient.metricsListener);
+                if (bardClient.rateLimiter != null) {
+                    throttling.rateLimiter(bardClient.rateLimiter);
+                }
+                bardClient.transport = throttling.build();
+            }
+            if (bardClient.answerCache != null) {
+                bardClient.cacheAccount = AnswerCacheKey.account(bardClient.token);
+            }
+            bardClient.headers = bardClient.buildHeaders();
             return bardClient;
         }
     }
@@ -129,338 +435,721 @@ public class BardClient implements IBardClient {
         private String content;
     }
 
+    /**
+     * Result of translating the question before it is sent to bard, if a translator is set.
+     */
+    @Data
+    @Builder
+    private static class PreparedQuestion {
+        private String questionInput;
+        private String sourceLang;
+        private boolean needTranslate;
+        private String snim0e;
+        private BardSession session;
+        // conversation the question continues, as it was when the question was asked
+        private ConversationState state;
+        // null when there is no answer cache
+        private AnswerCacheKey cacheKey;
+        private Deadline deadline;
+    }
+
+    /**
+     * Starts a new conversation, which shares the transport, SNlM0e cache, translator and executor of this client.
+     * Sessions are independent of each other and of the client's own conversation.
+     */
+    public BardSession newSession() {
+        return new BardSession(this, ConversationState.EMPTY);
+    }
+
+    /**
+     * Continues a conversation from its state, e.g. one taken from {@link BardSession#getState()}.
+     */
+    public BardSession newSession(@NonNull ConversationState state) {
+        return new BardSession(this, state);
+    }
+
+    /**
+     * Continues the conversation saved under the session id in the {@link ConversationStore}, or starts it
+     * if there is none. The conversation is saved again after each answer, so it can be resumed after a restart
+     * or on another node sharing the store.
+     *
+     * @throws IllegalStateException if the client has no conversation store
+     */
+    public BardSession resumeSession(@NonNull String sessionId) {
+        if (conversationStore == null) {
+            throw new IllegalStateException("No conversation store, set one with BardClientBuilder.conversationStore");
+        }
+        return new BardSession(this, sessionId, conversationStore, conversationStore.load(sessionId));
+    }
+
     @Override
     public Answer getAnswer(Question question) throws BardApiException {
-        if (question == null || question.getQuestion().isEmpty()) {
-            log.error("Question is null or empty");
-            throw new IllegalArgumentException("Question is null or empty");
+        return defaultSession.getAnswer(question);
+    }
+
+    @Override
+    public Answer getAnswer(Question question, @NonNull Consumer<AnswerChunk> listener) throws BardApiException {
+        return defaultSession.getAnswer(question, listener);
+    }
+
+    @Override
+    public CompletableFuture<Answer> getAnswerAsync(Question question) {
+        return defaultSession.getAnswerAsync(question);
+    }
+
+    /**
+     * Every question is asked in a new conversation of its own, the client's conversation is left untouched.
+     */
+    @Override
+    public CompletableFuture<List<BulkResult>> getAnswersAsync(@NonNull Collection<Question> questions,
+                                                               @NonNull BulkOptions options) {
+        return new BulkQuestionRunner(new ArrayList<>(questions), options,
+            question -> newSession().getAnswerAsync(question)).run();
+    }
+
+    /**
+     * Starts a new conversation. The SNlM0e value is kept, it is shared through the {@link SNlM0eCache}.
+     */
+    @Override
+    public void reset() throws BardApiException {
+        defaultSession.reset();
+    }
+
+    Answer getAnswer(BardSession session, Question question) throws BardApiException {
+        validateQuestion(question);
+
+        long startedAt = System.nanoTime();
+        Answer cachedAnswer = getCachedAnswer(session, question);
+        if (cachedAnswer != null) {
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER).cacheHit(true), startedAt, null);
+            return cachedAnswer;
         }
 
+        Deadline deadline = Deadline.after(timeoutOf(question));
         try {
-            if (snim0e == null || snim0e.isEmpty()) {
-                this.snim0e = fetchSNlM0e();
-            }
+            PreparedQuestion preparedQuestion = prepareQuestion(session, question, getSNlM0e(deadline), deadline);
+
+            BardResponse bardResponse = sendPostRequest(buildStreamGenerateRequest(preparedQuestion), deadline);
+
+            Answer answer = completeAnswer(preparedQuestion, bardResponse);
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, null);
+            return answer;
+        } catch (Exception e) {
+            Throwable cause = deadline.failure(e);
+            log.error("Response Error, exception thrown. question: {}", question, cause);
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, cause);
+            throw new BardApiException("Response Error, exception thrown. question: " + question, cause);
+        } finally {
+            deadline.finish();
+        }
+    }
+
+    /**
+     * Reads the StreamGenerate response chunk by chunk, so the listener gets the first partial answer
+     * as soon as bard sends it instead of after the whole generation.
+     * <p>
+     * When the question needs translation, partial answers are in the middle language and are not passed on,
+     * the listener then only receives the final translated chunk.
+     * The rawResponse of the returned answer holds the chunk it was parsed from, not the whole response body.
+     */
+    Answer getAnswer(BardSession session, Question question, Consumer<AnswerChunk> listener) throws BardApiException {
+        validateQuestion(question);
 
-            String questionInput = question.getQuestion();
+        long startedAt = System.nanoTime();
+        Answer cachedAnswer = getCachedAnswer(session, question);
+        if (cachedAnswer != null) {
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER).cacheHit(true), startedAt, null);
+            listener.accept(toAnswerChunk(0, cachedAnswer, true));
+            return cachedAnswer;
+        }
+
+        Deadline deadline = Deadline.after(timeoutOf(question));
+        try {
+            PreparedQuestion preparedQuestion = prepareQuestion(session, question, getSNlM0e(deadline), deadline);
 
-            boolean needTranslate = false;
-            String sourceLang = null;
-            if (translator != null) {
-                sourceLang = translator.detectLanguage(questionInput);
-                if (!IBardTranslator.SUPPORTED_LANGUAGES.contains(sourceLang)) {
-                    needTranslate = true;
-                    questionInput = translator.translate(sourceLang, translator.middleLanguage(), questionInput);
+            BardHttpRequest request = buildStreamGenerateRequest(preparedQuestion);
+            BardPhaseEvent.BardPhaseEventBuilder sendEvent = BardPhaseEvent.builder()
+                .phase(BardPhase.SEND_REQUEST)
+                .requestBytes(request.getBody().length);
+            long sentAt = System.nanoTime();
+            BardHttpResponse response;
+            try {
+                response = transport.execute(request);
+            } catch (IOException | RuntimeException e) {
+                emit(sendEvent, sentAt, e);
+                throw e;
+            }
+            deadline.onAbort(response::abort);
+            sendEvent.statusCode(response.getCode());
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                response.close();
+                BardHttpException error = streamGenerateError(response.getCode());
+                emit(sendEvent, sentAt, error);
+                throw error;
+            }
+            emit(sendEvent, sentAt, null);
+
+            Answer answer = null;
+            int index = 0;
+            BardPhaseEvent.BardPhaseEventBuilder parseEvent = BardPhaseEvent.builder().phase(BardPhase.PARSE_RESPONSE);
+            long parseStartedAt = System.nanoTime();
+            CountingInputStream body = new CountingInputStream(response.getBody());
+            try (StreamGenerateChunkReader chunkReader = new StreamGenerateChunkReader(
+                new InputStreamReader(ContentDecoding.decode(response, body), StandardCharsets.UTF_8))) {
+                String chunk;
+                while ((chunk = chunkReader.nextChunk()) != null) {
+                    deadline.check();
+                    String usefulResult = resultParser.extractPayload(chunk);
+                    if (usefulResult == null) {
+                        continue;
+                    }
+                    answer = parseUsefulResult(chunk, usefulResult);
+                    if (!preparedQuestion.isNeedTranslate()) {
+                        listener.accept(toAnswerChunk(index++, answer, false));
+                    }
                 }
+                if (answer == null) {
+                    throw new BardApiException("Response Error, no answer found in bard response");
+                }
+            } catch (IOException | RuntimeException e) {
+                emit(parseEvent.responseBytes(body.getCount()), parseStartedAt, e);
+                throw e;
             }
+            emit(parseEvent.responseBytes(body.getCount()), parseStartedAt, null);
 
-            Map<String, String> params = new LinkedHashMap<>();
-            params.put("bl", "boq_assistant-bard-web-server_20230419.00_p1");
-            params.put("_reqid", String.valueOf(reqid));
-            params.put("rt", "c");
+            answer = completeAnswer(preparedQuestion, answer);
+            listener.accept(toAnswerChunk(index, answer, true));
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, null);
+            return answer;
+        } catch (Exception e) {
+            Throwable cause = deadline.failure(e);
+            log.error("Response Error, exception thrown. question: {}", question, cause);
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, cause);
+            throw new BardApiException("Response Error, exception thrown. question: " + question, cause);
+        } finally {
+            deadline.finish();
+        }
+    }
 
-            String fReq = String.format(
-                "[null,\"[[\\\"%s\\\"],null,[\\\"%s\\\",\\\"%s\\\",\\\"%s\\\"]]\"]",
-                questionInput, conversationId, responseId, choiceId);
+    /**
+     * Same flow as {@link #getAnswer(Question)}, but no thread is held while waiting on bard.google.com
+     * (with the default {@link PooledBardTransport}), only translator calls occupy the executor.
+     * <p>
+     * The returned future fails as soon as the deadline passes, even while a translator call is still running.
+     * Cancelling it aborts the requests in flight.
+     */
+    CompletableFuture<Answer> getAnswerAsync(BardSession session, Question question) {
+        try {
+            validateQuestion(question);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-            Map<String, String> data = new LinkedHashMap<>();
-            data.put("f.req", fReq);
-            data.put("at", snim0e);
+        long startedAt = System.nanoTime();
+        Answer cachedAnswer = getCachedAnswer(session, question);
+        if (cachedAnswer != null) {
+            emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER).cacheHit(true), startedAt, null);
+            return CompletableFuture.completedFuture(cachedAnswer);
+        }
 
-            BardResponse bardResponse = sendPostRequest(STREAM_GENERATE_URL, params, data);
+        Deadline deadline = Deadline.after(timeoutOf(question));
+        // Completed by the answer, or when the deadline passes. Registered first, so it fails only once
+        // the requests in flight were aborted
+        CompletableFuture<Answer> result = new CompletableFuture<>();
+        deadline.onAbort(() -> result.completeExceptionally(
+            new BardApiException("Response Error, exception thrown. question: " + question, deadline.abortCause())));
 
-            if (bardResponse == null) {
-                log.error("Response Error, bard response is null");
-                throw new BardApiException("Response Error, bard response is null");
+        CompletableFuture<Answer> answer = getSNlM0eAsync()
+            .thenApplyAsync(snim0e -> prepareQuestion(session, question, snim0e, deadline), executor)
+            .thenCompose(preparedQuestion -> sendPostRequestAsync(buildStreamGenerateRequest(preparedQuestion), deadline)
+                .thenApplyAsync(bardResponse -> completeAnswer(preparedQuestion, bardResponse), executor))
+            .handle((completed, e) -> {
+                deadline.finish();
+                if (e == null) {
+                    emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, null);
+                    return completed;
+                }
+                Throwable cause = deadline.failure(unwrap(e));
+                log.error("Response Error, exception thrown. question: {}", question, cause);
+                emit(BardPhaseEvent.builder().phase(BardPhase.ANSWER), startedAt, cause);
+                throw new BardApiException("Response Error, exception thrown. question: " + question, cause);
+            });
+        answer.whenComplete((completed, e) -> {
+            // Once aborted, the abort action fails the result, after the requests in flight were cancelled
+            if (deadline.abortCause() != null) {
+                return;
+            }
+            if (e == null) {
+                result.complete(completed);
+            } else {
+                result.completeExceptionally(unwrap(e));
             }
-            if (bardResponse.getCode() / 100 != 2) {
-                throw new BardApiException("Response Error, bard response code: " + bardResponse.getCode());
+        });
+        result.whenComplete((completed, e) -> {
+            if (e instanceof CancellationException) {
+                deadline.cancel();
             }
+        });
+        return result;
+    }
 
-            Answer answer = parseBardResult(bardResponse.getContent());
-            String answerOutput = answer.getAnswer();
-            if (needTranslate) {
-                answerOutput = translator.translate(translator.middleLanguage(), sourceLang, answerOutput);
-                answer.setAnswer(answerOutput);
-                answer.setUsedTranslator(true);
+    private Duration timeoutOf(Question question) {
+        return question.getTimeout() == null ? answerTimeout : question.getTimeout();
+    }
+
+    private void validateQuestion(Question question) {
+        if (question == null || question.getQuestion().isEmpty()) {
+            log.error("Question is null or empty");
+            throw new IllegalArgumentException("Question is null or empty");
+        }
+    }
+
+    /**
+     * @return the cached answer of the question in the session's conversation, or null. The session does not
+     * continue the conversation of a cached answer, which may be the one of another session.
+     */
+    private Answer getCachedAnswer(BardSession session, Question question) {
+        if (answerCache == null) {
+            return null;
+        }
+        return answerCache.get(AnswerCacheKey.of(cacheAccount, question.getQuestion(), session.getState()));
+    }
+
+    private PreparedQuestion prepareQuestion(BardSession session, Question question, String snim0e,
+                                             Deadline deadline) {
+        String questionInput = question.getQuestion();
+        // Taken before translating, the conversation may move on meanwhile
+        ConversationState state = session.getState();
+
+        boolean needTranslate = false;
+        String sourceLang = null;
+        if (translator != null) {
+            String input = questionInput;
+            deadline.check();
+            sourceLang = timed(BardPhase.DETECT_LANGUAGE, () -> translator.detectLanguage(input));
+            if (!IBardTranslator.SUPPORTED_LANGUAGES.contains(sourceLang)) {
+                needTranslate = true;
+                String lang = sourceLang;
+                deadline.check();
+                questionInput = timed(BardPhase.TRANSLATE_QUESTION,
+                    () -> translator.translate(lang, translator.middleLanguage(), input));
             }
+        }
 
-            this.conversationId = answer.getConversationId();
-            this.responseId = answer.getResponseId();
-            this.choiceId = answer.getChoices().get(0).getId();
+        return PreparedQuestion.builder()
+            .questionInput(questionInput)
+            .sourceLang(sourceLang)
+            .needTranslate(needTranslate)
+            .snim0e(snim0e)
+            .session(session)
+            .state(state)
+            .cacheKey(answerCache == null ? null : AnswerCacheKey.of(cacheAccount, question.getQuestion(), state))
+            .deadline(deadline)
+            .build();
+    }
 
-            return answer;
-        } catch (Exception e) {
-            log.error("Response Error, exception thrown. question: {}", question, e);
-            throw new BardApiException("Response Error, exception thrown. question: " + question, e);
+    private BardHttpRequest buildStreamGenerateRequest(PreparedQuestion preparedQuestion) {
+        preparedQuestion.getDeadline().check();
+        return BardHttpRequest.builder()
+            .method(BardHttpRequest.POST)
+            .url(requestEncoder.encodeUrl(preparedQuestion.getSession().getReqid()))
+            .headers(headers)
+            .body(requestEncoder.encodeBody(
+                preparedQuestion.getQuestionInput(), preparedQuestion.getState(), preparedQuestion.getSnim0e()))
+            .timeout(preparedQuestion.getDeadline().requestTimeout())
+            .build();
+    }
+
+    private Answer completeAnswer(PreparedQuestion preparedQuestion, BardResponse bardResponse) {
+        if (bardResponse == null) {
+            log.error("Response Error, bard response is null");
+            throw new BardApiException("Response Error, bard response is null");
+        }
+        if (bardResponse.getCode() / 100 != 2) {
+            throw new BardApiException("Response Error, bard response code: " + bardResponse.getCode());
         }
+
+        return completeAnswer(preparedQuestion,
+            timed(BardPhase.PARSE_RESPONSE, () -> parseBardResult(bardResponse.getContent())));
     }
 
-    @Override
-    public void reset() throws BardApiException {
-        snim0e = "";
-        conversationId = "";
-        responseId = "";
-        choiceId = "";
+    private Answer completeAnswer(PreparedQuestion preparedQuestion, Answer answer) {
+        if (preparedQuestion.isNeedTranslate()) {
+            preparedQuestion.getDeadline().check();
+            String answerOutput = timed(BardPhase.TRANSLATE_ANSWER, () -> {
+                if (answerTranslator != null) {
+                    List<String> imageMarkers = answer.getImages() == null ? Collections.emptyList()
+                        : answer.getImages().stream().map(Answer.Image::getImageMarker).collect(Collectors.toList());
+                    return answerTranslator.translate(translator, translator.middleLanguage(),
+                        preparedQuestion.getSourceLang(), answer.getAnswer(), imageMarkers);
+                }
+                return translator.translate(translator.middleLanguage(), preparedQuestion.getSourceLang(),
+                    answer.getAnswer());
+            });
+            answer.setAnswer(answerOutput);
+            answer.setUsedTranslator(true);
+        }
+
+        preparedQuestion.getSession().update(answer);
+        if (preparedQuestion.getCacheKey() != null) {
+            answerCache.put(preparedQuestion.getCacheKey(), answer);
+        }
+
+        return answer;
     }
 
-    private String fetchSNlM0e() {
+    private AnswerChunk toAnswerChunk(int index, Answer answer, boolean last) {
+        return AnswerChunk.builder()
+            .index(index)
+            .answer(answer.getAnswer())
+            .conversationId(answer.getConversationId())
+            .responseId(answer.getResponseId())
+            .last(last)
+            .build();
+    }
+
+    private void checkToken() {
         if (token == null || !token.endsWith(".")) {
             throw new IllegalArgumentException("token must end with a single dot. Enter correct __Secure-1PSID value.");
         }
+    }
 
-        try {
-            URL url = new URL(BARD_URL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection(proxy);
-            connection.setRequestMethod("GET");
-            addHeaders(connection);
-            if (connectionConfigurator != null) {
-                connectionConfigurator.accept(connection);
+    private String getSNlM0e(Deadline deadline) {
+        long startedAt = System.nanoTime();
+        AtomicBoolean fetched = new AtomicBoolean();
+        // The loader is kept by the cache for background refresh, so it must not capture the deadline.
+        // With a deadline the fetch runs on the executor, and only this question's wait gives up when it passes.
+        boolean bounded = deadline.requestTimeout() != null;
+        String snlm0e = deadline.await(snlm0eCache.get(bardUrl, token, () -> {
+            fetched.set(true);
+            if (bounded) {
+                return CompletableFuture.supplyAsync(this::fetchSNlM0e, executor);
+            }
+            try {
+                return CompletableFuture.completedFuture(fetchSNlM0e());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+        if (!fetched.get()) {
+            emit(BardPhaseEvent.builder().phase(BardPhase.SNLM0E).cacheHit(true), startedAt, null);
+        }
+        return snlm0e;
+    }
+
+    private CompletableFuture<String> getSNlM0eAsync() {
+        long startedAt = System.nanoTime();
+        AtomicBoolean fetched = new AtomicBoolean();
+        // Not bound to the deadline, the result of the question fails on its own when it passes
+        return snlm0eCache.get(bardUrl, token, () -> {
+            fetched.set(true);
+            return fetchSNlM0eAsync();
+        }).whenComplete((snlm0e, e) -> {
+            if (e == null && !fetched.get()) {
+                emit(BardPhaseEvent.builder().phase(BardPhase.SNLM0E).cacheHit(true), startedAt, null);
             }
+        });
+    }
+
+    /**
+     * Builds the error of a failed StreamGenerate call. The SNlM0e value is dropped when bard rejected the request,
+     * as it may have expired.
+     */
+    private BardHttpException streamGenerateError(int responseCode) {
+        if (responseCode == HttpURLConnection.HTTP_BAD_REQUEST || responseCode == HttpURLConnection.HTTP_UNAUTHORIZED
+            || responseCode == HttpURLConnection.HTTP_FORBIDDEN) {
+            snlm0eCache.invalidate(bardUrl, token);
+        }
+        return new BardHttpException("Response code: " + responseCode, responseCode);
+    }
+
+    private String fetchSNlM0e() {
+        checkToken();
 
-            int responseCode = connection.getResponseCode();
+        BardPhaseEvent.BardPhaseEventBuilder event = BardPhaseEvent.builder().phase(BardPhase.SNLM0E);
+        long startedAt = System.nanoTime();
+        Throwable error = null;
+        try (BardHttpResponse response = transport.execute(buildGetRequest(bardUrl))) {
+            int responseCode = response.getCode();
+            event.statusCode(responseCode);
             if (responseCode != 200) {
-                throw new BardApiException("Response code not 200. Response Status is " + responseCode);
+                throw new BardHttpException(
+                    "Response code not 200. Response Status is " + responseCode, responseCode);
             }
 
-            InputStream inputStream = connection.getInputStream();
-            String responseBody = convertStreamToString(inputStream);
+            CountingInputStream body = new CountingInputStream(response.getBody());
+            String responseBody = readBody(response, body);
+            event.responseBytes(body.getCount());
 
             return extractSNlM0e(responseBody);
         } catch (IOException e) {
             log.error("fetchSNlM0e error", e);
+            error = e;
             throw new BardApiException("fetchSNlM0e error", e);
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            emit(event, startedAt, error);
         }
     }
 
-    private void addHeaders(HttpURLConnection connection) {
-        // Set headers
-        connection.setRequestProperty("Host", HOST);
-        connection.setRequestProperty("User-Agent", USER_AGENT);
-        connection.setRequestProperty("Referer", BARD_URL);
-        connection.setRequestProperty("X-Same-Domain", X_SAME_DOMAIN);
-        connection.setRequestProperty("Content-Type", CONTENT_TYPE);
-        connection.setRequestProperty("Origin", BARD_URL);
-        connection.setRequestProperty("Cookie", "__Secure-1PSID=" + token);
+    private CompletableFuture<String> fetchSNlM0eAsync() {
+        try {
+            checkToken();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        BardPhaseEvent.BardPhaseEventBuilder event = BardPhaseEvent.builder().phase(BardPhase.SNLM0E);
+        long startedAt = System.nanoTime();
+        return transport.executeAsync(buildGetRequest(bardUrl))
+            .thenApply(response -> {
+                event.statusCode(response.getCode());
+                if (response.getCode() != 200) {
+                    throw new BardHttpException(
+                        "Response code not 200. Response Status is " + response.getCode(), response.getCode());
+                }
+                try {
+                    CountingInputStream body = new CountingInputStream(response.getBody());
+                    String responseBody = readBody(response, body);
+                    event.responseBytes(body.getCount());
+                    return extractSNlM0e(responseBody);
+                } catch (IOException e) {
+                    throw new BardApiException("fetchSNlM0e error", e);
+                }
+            })
+            .whenComplete((snlm0e, e) -> emit(event, startedAt, e == null ? null : unwrap(e)));
     }
 
-    private String convertStreamToString(InputStream inputStream) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-        StringBuilder stringBuilder = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            stringBuilder.append(line).append("\n");
+    private Map<String, String> buildHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        URI uri = URI.create(bardUrl);
+        headers.put("Host", uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        headers.put("User-Agent", USER_AGENT);
+        headers.put("Referer", bardUrl);
+        headers.put("X-Same-Domain", X_SAME_DOMAIN);
+        headers.put("Content-Type", CONTENT_TYPE);
+        headers.put("Origin", bardUrl);
+        headers.put("Cookie", "__Secure-1PSID=" + token);
+        if (compressResponses) {
+            headers.put("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING);
         }
-        reader.close();
-        return stringBuilder.toString();
+        return Collections.unmodifiableMap(headers);
     }
 
-    private String extractSNlM0e(String response) {
-        String pattern = "SNlM0e\":\"(.*?)\"";
-        Pattern regex = Pattern.compile(pattern);
-        Matcher matcher = regex.matcher(response);
-        if (matcher.find()) {
-            return matcher.group(1);
+    private BardTransport createDefaultTransport() {
+        if (connectionConfigurator != null || proxy.type() == Proxy.Type.SOCKS) {
+            return UrlConnectionBardTransport.builder(executor)
+                .proxy(proxy)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .connectionConfigurator(connectionConfigurator)
+                .build();
         }
-        throw new BardApiException("SNlM0e value not found in response. Check __Secure-1PSID value.");
-    }
 
-    private BardResponse sendPostRequest(String url, Map<String, String> params, Map<String, String> data)
-        throws IOException {
-        // Build query parameters
-        StringBuilder queryParameters = new StringBuilder();
-        for (Map.Entry<String, String> entry : params.entrySet()) {
-            queryParameters.append(URLEncoder.encode(entry.getKey(), "UTF-8"))
-                .append("=")
-                .append(URLEncoder.encode(entry.getValue(), "UTF-8"))
-                .append("&");
+        PooledBardTransport.Builder builder = PooledBardTransport.builder()
+            .executor(executor)
+            .proxy(proxy)
+            .connectTimeout(connectTimeout)
+            .requestTimeout(readTimeout);
+        if (authenticator != null) {
+            builder.authenticator(authenticator);
         }
+        return builder.build();
+    }
 
-        // Create the URL
-        URL postUrl = new URL(url + "?" + queryParameters);
+    private BardHttpRequest buildGetRequest(String url) {
+        return BardHttpRequest.builder()
+            .method(BardHttpRequest.GET)
+            .url(url)
+            .headers(headers)
+            .build();
+    }
 
-        // Open a connection
-        HttpURLConnection connection = (HttpURLConnection) postUrl.openConnection(proxy);
-        connection.setRequestMethod("POST");
-        connection.setDoOutput(true);
-        addHeaders(connection);
-        if (connectionConfigurator != null) {
-            connectionConfigurator.accept(connection);
+    /**
+     * Reads the whole body as UTF-8, decompressed if it was compressed.
+     *
+     * @param body body of the response, as received
+     */
+    private static String readBody(BardHttpResponse response, InputStream body) throws IOException {
+        try (InputStream decoded = ContentDecoding.decode(response, body)) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
         }
+    }
 
-        // Set request body
-        StringBuilder requestBody = new StringBuilder();
-        for (Map.Entry<String, String> entry : data.entrySet()) {
-            requestBody.append(URLEncoder.encode(entry.getKey(), "UTF-8"))
-                .append("=")
-                .append(URLEncoder.encode(entry.getValue(), "UTF-8"))
-                .append("&");
+    private String extractSNlM0e(String response) {
+        String pattern = "SNlM0e\":\"(.*?)\"";
+        Pattern regex = Pattern.compile(pattern);
+        Matcher matcher = regex.matcher(response);
+        if (matcher.find()) {
+            return matcher.group(1);
         }
+        throw new BardInvalidTokenException("SNlM0e value not found in response. Check __Secure-1PSID value.");
+    }
 
-        // Send the request
-        try (OutputStream outputStream = connection.getOutputStream()) {
-            byte[] requestBodyBytes = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-            outputStream.write(requestBodyBytes);
-        }
+    private BardResponse sendPostRequest(BardHttpRequest request, Deadline deadline) throws IOException {
+        BardPhaseEvent.BardPhaseEventBuilder event = BardPhaseEvent.builder()
+            .phase(BardPhase.SEND_REQUEST)
+            .requestBytes(request.getBody().length);
+        long startedAt = System.nanoTime();
+        Throwable error = null;
+        try (BardHttpResponse response = transport.execute(request)) {
+            deadline.onAbort(response::abort);
+            // Process the response
+            int responseCode = response.getCode();
+            event.statusCode(responseCode);
+            if (responseCode == HttpURLConnection.HTTP_OK) {
+                CountingInputStream body = new CountingInputStream(response.getBody());
+                String responseBody = readBody(response, body);
+                event.responseBytes(body.getCount());
 
-        // Process the response
-        int responseCode = connection.getResponseCode();
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-            InputStream inputStream = connection.getInputStream();
-            String responseBody = convertStreamToString(inputStream);
+                return BardResponse.builder()
+                    .code(responseCode)
+                    .content(responseBody)
+                    .build();
+            }
 
-            return BardResponse.builder()
-                .code(responseCode)
-                .content(responseBody)
-                .build();
+            throw streamGenerateError(responseCode);
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            emit(event, startedAt, error);
         }
+    }
 
-        throw new BardApiException("Response code: " + responseCode);
+    private CompletableFuture<BardResponse> sendPostRequestAsync(BardHttpRequest request, Deadline deadline) {
+        BardPhaseEvent.BardPhaseEventBuilder event = BardPhaseEvent.builder()
+            .phase(BardPhase.SEND_REQUEST)
+            .requestBytes(request.getBody().length);
+        long startedAt = System.nanoTime();
+        CompletableFuture<BardHttpResponse> sent = transport.executeAsync(request);
+        deadline.onAbort(() -> sent.cancel(true));
+        return sent
+            .thenApply(response -> {
+                event.statusCode(response.getCode());
+                if (response.getCode() == HttpURLConnection.HTTP_OK) {
+                    try {
+                        CountingInputStream body = new CountingInputStream(response.getBody());
+                        String content = readBody(response, body);
+                        event.responseBytes(body.getCount());
+                        return BardResponse.builder()
+                            .code(response.getCode())
+                            .content(content)
+                            .build();
+                    } catch (IOException e) {
+                        throw new BardApiException("Read response error", e);
+                    }
+                }
+                throw streamGenerateError(response.getCode());
+            })
+            .whenComplete((bardResponse, e) -> emit(event, startedAt, e == null ? null : unwrap(e)));
     }
 
     private Answer parseBardResult(String rawResponse) {
         String[] responseLines = rawResponse.split("\n");
         String rawResult = responseLines[3];
 
-        String usefulResult =
-            gson.fromJson(rawResult, JsonArray.class).get(0).getAsJsonArray().get(2).getAsString();
-        JsonArray jsonElements = gson.fromJson(usefulResult, JsonArray.class);
-
-        String content = jsonElements.get(0).getAsJsonArray().get(0).getAsString();
-        String conversationId = jsonElements.get(1).getAsJsonArray().get(0).getAsString();
-        String responseId = jsonElements.get(1).getAsJsonArray().get(1).getAsString();
-
-        List<Answer.Choice> choices = parseChoices(jsonElements);
-        return Answer.builder()
-            .rawResponse(rawResponse)
-            .answer(content)
-            .conversationId(conversationId)
-            .responseId(responseId)
-            .factualityQueries(parseFactualityQueries(jsonElements))
-            .textQuery(parseTextQuery(jsonElements))
-            .choices(choices)
-            .choiceId(Optional.ofNullable(choices)
-                .map(x -> x.get(0))
-                .map(Answer.Choice::getId)
-                .orElse(""))
-            .images(parseImages(jsonElements))
-            .sources(parseSources(jsonElements, content))
-            .relatedTopics(parseRelationTopics(jsonElements))
-            .build();
+        String usefulResult = resultParser.extractPayload(rawResult);
+        if (usefulResult == null) {
+            throw new BardApiException("Response Error, no answer found in bard response");
+        }
+        return parseUsefulResult(rawResponse, usefulResult);
     }
 
-    private List<String> parseFactualityQueries (JsonArray jsonElements) {
-        List<String> factualityQueries = null;
-        try {
-            factualityQueries = jsonElements.get(3)
-                .getAsJsonArray().asList().stream()
-                .map(JsonElement::getAsString)
-                .collect(Collectors.toList());
-        } catch (Exception e) {
-            // pass
+    private Answer parseUsefulResult(String rawResponse, String usefulResult) {
+        Answer answer = resultParser.parsePayload(usefulResult);
+        switch (rawResponseRetention) {
+            case KEEP:
+                answer.setRawResponse(rawResponse);
+                break;
+            case COMPRESS:
+                answer.setCompressedRawResponse(compress(rawResponse));
+                break;
+            default:
+                break;
         }
-        return factualityQueries;
+        return answer;
     }
 
-    private String parseTextQuery(JsonArray jsonElements) {
-        String textQuery = null;
+    /**
+     * Runs one phase of answering a question and reports its timing.
+     */
+    private <T> T timed(BardPhase phase, Supplier<T> call) {
+        long startedAt = System.nanoTime();
         try {
-            textQuery = jsonElements.get(2).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
-        } catch (Exception e) {
-            // pass
+            T result = call.get();
+            emit(BardPhaseEvent.builder().phase(phase), startedAt, null);
+            return result;
+        } catch (RuntimeException e) {
+            emit(BardPhaseEvent.builder().phase(phase), startedAt, e);
+            throw e;
         }
-        return textQuery;
     }
 
-    private List<Answer.Choice> parseChoices(JsonArray jsonElements) {
-        List<Answer.Choice> choices = null;
+    private void emit(BardPhaseEvent.BardPhaseEventBuilder event, long startedAt, Throwable error) {
+        if (metricsListener == BardMetricsListener.NOOP) {
+            return;
+        }
         try {
-            choices = jsonElements.get(4).getAsJsonArray().asList().stream()
-                .map(x -> {
-                    JsonArray jsonArray = x.getAsJsonArray();
-                    return Answer.Choice.builder()
-                        .id(jsonArray.get(0).getAsString())
-                        .content(jsonArray.get(1).getAsString())
-                        .build();
-                })
-                .collect(Collectors.toList());
-        } catch (Exception e) {
-            // pass
+            metricsListener.onPhase(event.durationNanos(System.nanoTime() - startedAt).error(error).build());
+        } catch (RuntimeException e) {
+            log.warn("Metrics listener failed", e);
         }
-        return choices;
     }
 
-    private List<Answer.Image> parseImages(JsonArray jsonElements) {
-        List<Answer.Image> images = null;
-        try {
-            images = new ArrayList<>();
-            JsonArray imagesJson = jsonElements.get(4).getAsJsonArray().get(0).getAsJsonArray().get(4).getAsJsonArray();
-
-            for (int i = 0; i < imagesJson.size(); i++) {
-                JsonArray imageJson = imagesJson.get(i).getAsJsonArray();
-                String url = imageJson.get(0).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
-                String markdownLabel = imageJson.get(2).getAsString();
-                String articleURL = imageJson.get(1).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
-
-                Answer.Image image = Answer.Image.builder()
-                    .imageUrl(url)
-                    .imageMarker(markdownLabel)
-                    .detailsLink(articleURL)
-                    .build();
-                images.add(image);
-            }
-        } catch (Exception e) {
-            //pass
-        }
-        return images;
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
-    private List<Answer.Source> parseSources(JsonArray jsonElements, String content) {
-        List<Answer.Source> sources = null;
-        try {
-            sources = new ArrayList<>();
-            JsonArray sourceArray = jsonElements.get(3).getAsJsonArray().get(0).getAsJsonArray();
-
-            for (int i = 0; i < sourceArray.size(); i++) {
-                JsonArray imageJson = sourceArray.get(i).getAsJsonArray();
-                int startIndexInAnswer = imageJson.get(0).getAsInt();
-                int endIndexInAnswer = imageJson.get(1).getAsInt();
-                String source = imageJson.get(2).getAsJsonArray().get(0).getAsString();
-
-                Answer.Source sourceObj = Answer.Source.builder()
-                    .startIndexInAnswer(startIndexInAnswer)
-                    .endIndexInAnswer(endIndexInAnswer)
-                    .rawContentInAnswer(content.substring(startIndexInAnswer, endIndexInAnswer))
-                    .sourceLink(source)
-                    .build();
-                sources.add(sourceObj);
+    /**
+     * Counts the bytes of a response body as they are read.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
             }
-        } catch (Exception e) {
-            //pass
+            return b;
         }
-        return sources;
-    }
 
-    private List<Answer.RelatedTopic> parseRelationTopics(JsonArray jsonElements) {
-        List<Answer.RelatedTopic> relatedTopics = null;
-        try {
-            relatedTopics = new ArrayList<>();
-            JsonArray imagesJson = jsonElements.get(2).getAsJsonArray();
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
 
-            for (int i = 0; i < imagesJson.size(); i++) {
-                JsonArray imageJson = imagesJson.get(i).getAsJsonArray();
-                String topic = imageJson.get(0).getAsString();
-                int num = imageJson.get(1).getAsInt();
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
 
-                Answer.RelatedTopic relatedTopic = Answer.RelatedTopic.builder()
-                    .topic(topic)
-                    .num(num)
-                    .build();
+        private long getCount() {
+            return count;
+        }
+    }
 
-                relatedTopics.add(relatedTopic);
-            }
-        } catch (Exception e) {
-            //pass
+    private byte[] compress(String rawResponse) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(rawResponse.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compress raw response failed", e);
         }
-        return relatedTopics;
+        return outputStream.toByteArray();
     }
 }
@@ -0,0 +1,306 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.exception.BardHttpException;
+import com.api.bard.exception.BardInvalidTokenException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.Question;
+import com.api.bard.resilience.RateLimiter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Clients of many accounts (__Secure-1PSID tokens), so the throughput grows with the accounts.
+ * <p>
+ * Every account has its own client, thus its own SNlM0e value and rate limiter. New sessions go to the healthiest,
+ * least loaded account, scored on requests in flight, recent latency, error rate and throttling.
+ * Accounts whose token is rejected are ejected for a while, then tried again.
+ * <p>
+ * Questions asked on the pool itself are independent, each one is asked in a new session.
+ */
+@Slf4j
+public class BardClientPool implements IBardClient {
+    // Weight of the newest sample in the latency and error averages
+    private static final double ALPHA = 0.2;
+    private static final long THROTTLED_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // Added to the latencies, so accounts without any answer yet are tried first without being flooded
+    private static final long BASE_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Account> accounts;
+    private final long ejectionNanos;
+    private final long maxEjectionNanos;
+
+    private BardClientPool(List<Account> accounts, Builder builder) {
+        this.accounts = accounts;
+        this.ejectionNanos = builder.ejectionDuration.toNanos();
+        this.maxEjectionNanos = Math.max(ejectionNanos, builder.maxEjectionDuration.toNanos());
+    }
+
+    public static Builder builder(@NonNull Collection<String> tokens) {
+        return new Builder(tokens);
+    }
+
+    public static class Builder {
+        private final List<String> tokens;
+        private Consumer<BardClient.BardClientBuilder> clientConfigurator = builder -> {
+        };
+        private Supplier<RateLimiter> rateLimiterFactory;
+        private Duration ejectionDuration = Duration.ofMinutes(5);
+        private Duration maxEjectionDuration = Duration.ofHours(1);
+
+        private Builder(Collection<String> tokens) {
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("tokens must not be empty");
+            }
+            this.tokens = new ArrayList<>(tokens);
+        }
+
+        /**
+         * Configures the client of every account, e.g. with a shared transport, translator or executor.
+         */
+        public Builder clientConfigurator(@NonNull Consumer<BardClient.BardClientBuilder> clientConfigurator) {
+            this.clientConfigurator = clientConfigurator;
+            return this;
+        }
+
+        /**
+         * Creates the rate limiter of each account, so every account gets its own rate budget.
+         * No limit by default.
+         */
+        public Builder rateLimiter(@NonNull Supplier<RateLimiter> rateLimiterFactory) {
+            this.rateLimiterFactory = rateLimiterFactory;
+            return this;
+        }
+
+        /**
+         * How long an account with a rejected token is left out at first, 5 minutes by default.
+         * The duration doubles every time the token is rejected again, up to maxEjectionDuration.
+         */
+        public Builder ejectionDuration(@NonNull Duration ejectionDuration) {
+            this.ejectionDuration = ejectionDuration;
+            return this;
+        }
+
+        /**
+         * Longest time an account is left out, 1 hour by default.
+         */
+        public Builder maxEjectionDuration(@NonNull Duration maxEjectionDuration) {
+            this.maxEjectionDuration = maxEjectionDuration;
+            return this;
+        }
+
+        public BardClientPool build() {
+            List<Account> accounts = new ArrayList<>();
+            for (String token : tokens) {
+                BardClient.BardClientBuilder clientBuilder = BardClient.builder(token);
+                clientConfigurator.accept(clientBuilder);
+                if (rateLimiterFactory != null) {
+                    clientBuilder.rateLimiter(rateLimiterFactory.get());
+                }
+                accounts.add(new Account(mask(token), clientBuilder.build()));
+            }
+            return new BardClientPool(Collections.unmodifiableList(accounts), this);
+        }
+
+        private static String mask(String token) {
+            return token.length() <= 6 ? "***" : "***" + token.substring(token.length() - 6);
+        }
+    }
+
+    /**
+     * Health of an account, as used to pick accounts for new sessions.
+     */
+    @Value
+    public static class AccountHealth {
+        // last chars of the token
+        String name;
+        int inFlight;
+        double latencyMillis;
+        // recent share of failed requests, from 0 to 1
+        double errorRate;
+        boolean throttled;
+        boolean ejected;
+    }
+
+    static class Account {
+        private final String name;
+        private final BardClient client;
+
+        private int inFlight;
+        private double latencyNanos;
+        private double errorRate;
+        private long throttledAt;
+        private boolean throttled;
+        private long ejectedUntil;
+        private int ejections;
+
+        private Account(String name, BardClient client) {
+            this.name = name;
+            this.client = client;
+        }
+
+        BardClient getClient() {
+            return client;
+        }
+
+        private synchronized double score(long now) {
+            double score = (inFlight + 1) * (latencyNanos + BASE_LATENCY_NANOS) * (1 + 10 * errorRate);
+            if (throttled && now - throttledAt < THROTTLED_PENALTY_NANOS) {
+                score *= 4;
+            }
+            return score;
+        }
+
+        private synchronized boolean isEjected(long now) {
+            return ejectedUntil != 0 && now - ejectedUntil < 0;
+        }
+
+        private synchronized AccountHealth health(long now) {
+            return new AccountHealth(name, inFlight, latencyNanos / TimeUnit.MILLISECONDS.toNanos(1), errorRate,
+                throttled && now - throttledAt < THROTTLED_PENALTY_NANOS, isEjected(now));
+        }
+    }
+
+    /**
+     * Starts a new conversation on the healthiest account.
+     *
+     * @throws BardApiException when every account is ejected
+     */
+    public BardPoolSession newSession() {
+        return new BardPoolSession(this, pickAccount());
+    }
+
+    @Override
+    public Answer getAnswer(Question question) throws BardApiException {
+        return newSession().getAnswer(question);
+    }
+
+    @Override
+    public Answer getAnswer(Question question, @NonNull Consumer<AnswerChunk> listener) throws BardApiException {
+        return newSession().getAnswer(question, listener);
+    }
+
+    @Override
+    public CompletableFuture<Answer> getAnswerAsync(Question question) {
+        try {
+            return newSession().getAnswerAsync(question);
+        } catch (BardApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Does nothing, questions asked on the pool do not share any conversation.
+     */
+    @Override
+    public void reset() {
+    }
+
+    /**
+     * @return health of every account, in the order of the tokens
+     */
+    public List<AccountHealth> getAccountHealth() {
+        long now = System.nanoTime();
+        List<AccountHealth> health = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            health.add(account.health(now));
+        }
+        return health;
+    }
+
+    Account pickAccount() {
+        long now = System.nanoTime();
+        Account best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (Account account : accounts) {
+            if (account.isEjected(now)) {
+                continue;
+            }
+            double score = account.score(now);
+            if (best == null || score < bestScore) {
+                best = account;
+                bestScore = score;
+            }
+        }
+        if (best == null) {
+            throw new BardApiException("No account available, every token was rejected");
+        }
+        return best;
+    }
+
+    /**
+     * @return start time of the request, to be passed to {@link #completed}
+     */
+    long started(Account account) {
+        synchronized (account) {
+            account.inFlight++;
+        }
+        return System.nanoTime();
+    }
+
+    void completed(Account account, long startedAt, Throwable error) {
+        long now = System.nanoTime();
+        synchronized (account) {
+            account.inFlight--;
+            account.errorRate = (1 - ALPHA) * account.errorRate + ALPHA * (error == null ? 0 : 1);
+            if (error == null) {
+                long latency = now - startedAt;
+                account.latencyNanos = account.latencyNanos == 0
+                    ? latency : (1 - ALPHA) * account.latencyNanos + ALPHA * latency;
+                account.ejections = 0;
+                return;
+            }
+
+            if (hasCause(error, BardInvalidTokenException.class)) {
+                long ejection = ejectionNanos;
+                for (int i = 0; i < account.ejections && ejection < maxEjectionNanos; i++) {
+                    ejection *= 2;
+                }
+                ejection = Math.min(ejection, maxEjectionNanos);
+                account.ejections++;
+                account.ejectedUntil = now + ejection;
+                log.warn("Token {} was rejected, account ejected for {}s", account.name,
+                    TimeUnit.NANOSECONDS.toSeconds(ejection));
+            } else {
+                BardHttpException httpException = findCause(error, BardHttpException.class);
+                if (httpException != null && httpException.isThrottled()) {
+                    account.throttled = true;
+                    account.throttledAt = now;
+                }
+            }
+        }
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        return findCause(error, type) != null;
+    }
+
+    private static <T extends Throwable> T findCause(Throwable error, Class<T> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,110 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.ConversationState;
+import com.api.bard.model.Question;
+import lombok.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * One conversation of a {@link BardClientPool}. A conversation only exists for the account which started it,
+ * so the session stays on its account until it is reset, and then moves to the healthiest account.
+ */
+public class BardPoolSession implements IBardClient {
+    private final BardClientPool pool;
+    private volatile BardClientPool.Account account;
+    private volatile BardSession session;
+
+    BardPoolSession(BardClientPool pool, BardClientPool.Account account) {
+        this.pool = pool;
+        this.account = account;
+        this.session = account.getClient().newSession();
+    }
+
+    @Override
+    public Answer getAnswer(Question question) throws BardApiException {
+        BardClientPool.Account account = this.account;
+        long startedAt = pool.started(account);
+        try {
+            Answer answer = session.getAnswer(question);
+            pool.completed(account, startedAt, null);
+            return answer;
+        } catch (RuntimeException e) {
+            pool.completed(account, startedAt, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Answer getAnswer(Question question, @NonNull Consumer<AnswerChunk> listener) throws BardApiException {
+        BardClientPool.Account account = this.account;
+        long startedAt = pool.started(account);
+        try {
+            Answer answer = session.getAnswer(question, listener);
+            pool.completed(account, startedAt, null);
+            return answer;
+        } catch (RuntimeException e) {
+            pool.completed(account, startedAt, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Answer> getAnswerAsync(Question question) {
+        BardClientPool.Account account = this.account;
+        long startedAt = pool.started(account);
+        CompletableFuture<Answer> answer;
+        try {
+            answer = session.getAnswerAsync(question);
+        } catch (RuntimeException e) {
+            answer = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Answer> asked = answer;
+        CompletableFuture<Answer> result = answer.whenComplete(
+            (completed, e) -> pool.completed(account, startedAt, e == null ? null : BardClientPool.unwrap(e)));
+        // Cancelling the result aborts the question
+        result.whenComplete((completed, e) -> {
+            if (e instanceof CancellationException) {
+                asked.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Questions are independent, each one is asked in a new conversation of the pool, not in this session.
+     */
+    @Override
+    public CompletableFuture<List<BulkResult>> getAnswersAsync(@NonNull Collection<Question> questions,
+                                                               @NonNull BulkOptions options) {
+        return pool.getAnswersAsync(questions, options);
+    }
+
+    /**
+     * Starts a new conversation, on the healthiest account.
+     *
+     * @throws BardApiException when every account is ejected
+     */
+    @Override
+    public void reset() throws BardApiException {
+        BardClientPool.Account next = pool.pickAccount();
+        session = next.getClient().newSession();
+        account = next;
+    }
+
+    /**
+     * @return ids of the conversation so far, empty before the first answer
+     */
+    public ConversationState getState() {
+        return session.getState();
+    }
+}
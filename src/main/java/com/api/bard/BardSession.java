@@ -0,0 +1,138 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.ConversationState;
+import com.api.bard.model.Question;
+import com.api.bard.store.ConversationStore;
+import com.api.bard.store.StoredConversation;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One conversation with bard. Sessions only hold the conversation ids, the transport, SNlM0e cache, translator
+ * and parser are shared with the {@link BardClient} which created them.
+ * <p>
+ * Different sessions are independent and can be used from different threads at the same time.
+ * Questions of one session follow each other, so they should be asked one after another.
+ * <p>
+ * Sessions resumed from a {@link ConversationStore} save their state to it after each answer.
+ */
+@Slf4j
+public class BardSession implements IBardClient {
+    private final BardClient client;
+    private final AtomicReference<ConversationState> state;
+    private final int reqid = Integer.parseInt(String.format("%04d", new Random().nextInt(10000)));
+    // null when the conversation is not saved
+    private final String sessionId;
+    private final ConversationStore store;
+    private final AtomicInteger turns;
+
+    BardSession(BardClient client, ConversationState state) {
+        this.client = client;
+        this.state = new AtomicReference<>(state);
+        this.sessionId = null;
+        this.store = null;
+        this.turns = new AtomicInteger();
+    }
+
+    BardSession(BardClient client, String sessionId, ConversationStore store, StoredConversation conversation) {
+        this.client = client;
+        this.state = new AtomicReference<>(conversation == null ? ConversationState.EMPTY : conversation.getState());
+        this.sessionId = sessionId;
+        this.store = store;
+        this.turns = new AtomicInteger(conversation == null ? 0 : conversation.getTurns());
+    }
+
+    @Override
+    public Answer getAnswer(Question question) throws BardApiException {
+        return client.getAnswer(this, question);
+    }
+
+    @Override
+    public Answer getAnswer(Question question, @NonNull Consumer<AnswerChunk> listener) throws BardApiException {
+        return client.getAnswer(this, question, listener);
+    }
+
+    @Override
+    public CompletableFuture<Answer> getAnswerAsync(Question question) {
+        return client.getAnswerAsync(this, question);
+    }
+
+    /**
+     * Questions are independent, each one is asked in a new conversation of its own, not in this session.
+     */
+    @Override
+    public CompletableFuture<List<BulkResult>> getAnswersAsync(@NonNull Collection<Question> questions,
+                                                               @NonNull BulkOptions options) {
+        return client.getAnswersAsync(questions, options);
+    }
+
+    /**
+     * Starts a new conversation in this session, the saved one is deleted from the store.
+     */
+    @Override
+    public void reset() throws BardApiException {
+        state.set(ConversationState.EMPTY);
+        turns.set(0);
+        if (store != null) {
+            try {
+                store.delete(sessionId);
+            } catch (RuntimeException e) {
+                throw new BardApiException("Delete conversation of session " + sessionId + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return ids of the conversation so far, empty before the first answer
+     */
+    public ConversationState getState() {
+        return state.get();
+    }
+
+    /**
+     * @return id the conversation is saved under, null when it is not saved
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    int getReqid() {
+        return reqid;
+    }
+
+    void update(Answer answer) {
+        ConversationState newState = ConversationState.builder()
+            .conversationId(answer.getConversationId())
+            .responseId(answer.getResponseId())
+            .choiceId(answer.getChoiceId())
+            .build();
+        state.set(newState);
+        if (store == null) {
+            return;
+        }
+        // The answer is not lost when the store fails, only the ability to resume the conversation elsewhere
+        try {
+            store.save(sessionId, StoredConversation.builder()
+                .state(newState)
+                .lastAnswerAt(System.currentTimeMillis())
+                .turns(turns.incrementAndGet())
+                .usedTranslator(answer.isUsedTranslator())
+                .build());
+        } catch (RuntimeException e) {
+            log.warn("Save conversation of session {} failed", sessionId, e);
+        }
+    }
+}
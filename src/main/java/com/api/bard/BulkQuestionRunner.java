@@ -0,0 +1,130 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkProgress;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.Question;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Asks many questions with at most parallelism of them in flight. No thread waits for bard meanwhile:
+ * each of the parallelism workers asks its next question when the previous one completed.
+ */
+@Slf4j
+class BulkQuestionRunner {
+    private final List<Question> questions;
+    private final BulkOptions options;
+    private final Function<Question, CompletableFuture<Answer>> asker;
+
+    private final BulkResult[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final CompletableFuture<List<BulkResult>> done = new CompletableFuture<>();
+
+    BulkQuestionRunner(List<Question> questions, BulkOptions options,
+                       Function<Question, CompletableFuture<Answer>> asker) {
+        if (options.getParallelism() <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.questions = questions;
+        this.options = options;
+        this.asker = asker;
+        this.results = new BulkResult[questions.size()];
+    }
+
+    /**
+     * @return results in the order of the questions, once all of them completed
+     */
+    CompletableFuture<List<BulkResult>> run() {
+        if (questions.isEmpty()) {
+            done.complete(new ArrayList<>());
+            return done;
+        }
+        int workers = Math.min(options.getParallelism(), questions.size());
+        for (int i = 0; i < workers; i++) {
+            askNext();
+        }
+        return done;
+    }
+
+    private void askNext() {
+        // Answers completed right away (e.g. cached ones) are handled in this loop rather than recursively
+        while (true) {
+            int index = next.getAndIncrement();
+            if (index >= questions.size()) {
+                return;
+            }
+            Question question = questions.get(index);
+
+            CompletableFuture<Answer> answer;
+            try {
+                answer = asker.apply(question);
+            } catch (RuntimeException e) {
+                answer = CompletableFuture.failedFuture(e);
+            }
+            if (!answer.isDone()) {
+                answer.whenComplete((result, e) -> {
+                    complete(index, question, result, e);
+                    askNext();
+                });
+                return;
+            }
+            answer.handle((result, e) -> {
+                complete(index, question, result, e);
+                return null;
+            });
+        }
+    }
+
+    private void complete(int index, Question question, Answer answer, Throwable e) {
+        BulkResult result = BulkResult.builder()
+            .index(index)
+            .question(question)
+            .answer(e == null ? answer : null)
+            .error(e == null ? null : toBardApiException(question, e))
+            .build();
+        results[index] = result;
+
+        int failedCount = e == null ? failed.get() : failed.incrementAndGet();
+        int completedCount = completed.incrementAndGet();
+
+        notify(options.getResultListener() == null ? null : () -> options.getResultListener().accept(result));
+        BulkProgress progress = new BulkProgress(completedCount, failedCount, questions.size());
+        notify(options.getProgressListener() == null ? null : () -> options.getProgressListener().accept(progress));
+
+        if (completedCount == questions.size()) {
+            done.complete(Arrays.asList(results));
+        }
+    }
+
+    private static BardApiException toBardApiException(Question question, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof BardApiException) {
+            return (BardApiException) cause;
+        }
+        return new BardApiException("Response Error, exception thrown. question: " + question, cause);
+    }
+
+    // A failing listener must not stop the remaining questions
+    private static void notify(Runnable listener) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            log.warn("getAnswers listener failed", e);
+        }
+    }
+}
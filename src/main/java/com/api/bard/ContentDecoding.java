@@ -0,0 +1,71 @@
+package com.api.bard;
+
+import com.api.bard.transport.BardHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses response bodies according to their Content-Encoding, while they are read.
+ */
+final class ContentDecoding {
+    // Brotli has no decoder in the JDK
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentDecoding() {
+    }
+
+    /**
+     * @param body body of the response as received, e.g. wrapped to count the bytes on the wire
+     * @return the decompressed body
+     * @throws IOException if the encoding is not supported, or the compressed header is malformed
+     */
+    static InputStream decode(BardHttpResponse response, InputStream body) throws IOException {
+        String encoding = response.getHeader("Content-Encoding");
+        if (encoding == null) {
+            return body;
+        }
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                return inflate(body);
+            default:
+                throw new IOException("Unsupported response Content-Encoding " + encoding);
+        }
+    }
+
+    /**
+     * Deflate bodies should be zlib wrapped, some servers send them raw: the zlib header is checked.
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(body, 2);
+        byte[] header = in.readNBytes(2);
+        in.unread(header);
+        boolean zlib = header.length == 2 && (header[0] & 0x0F) == 8
+            && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // Only the default inflater is ended by InflaterInputStream
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
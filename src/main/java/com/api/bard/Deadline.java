@@ -0,0 +1,195 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Time left to answer one question, passed down to every phase, and the work in flight to abort
+ * (responses being read, pending futures) when it runs out or when the caller cancels.
+ * <p>
+ * Abort actions run on the timer thread (or the cancelling one), they must be short and must not block.
+ * They run in reverse order of registration, so the work in flight is aborted before the result of the question
+ * (registered first) fails.
+ */
+@Slf4j
+final class Deadline {
+    // Threads are daemon so they never block JVM exit. Cancelled timers are removed at once, so answered questions
+    // are not kept reachable until their timeout
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "bard-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Duration timeout;
+    private final long expiresAt;
+    private final ScheduledFuture<?> timer;
+    private final List<Runnable> abortActions = new ArrayList<>();
+    // set once aborted, BardTimeoutException or CancellationException
+    private RuntimeException abortCause;
+
+    private Deadline(Duration timeout) {
+        this.timeout = timeout;
+        if (timeout == null) {
+            this.expiresAt = 0;
+            this.timer = null;
+        } else {
+            this.expiresAt = System.nanoTime() + timeout.toNanos();
+            this.timer = TIMER.schedule(this::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @param timeout time allowed from now, null for no deadline (the question can still be cancelled)
+     */
+    static Deadline after(Duration timeout) {
+        return new Deadline(timeout);
+    }
+
+    /**
+     * @return timeout to give a request sent now, or null when there is no deadline
+     */
+    Duration requestTimeout() {
+        if (timeout == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(1, expiresAt - System.nanoTime()));
+    }
+
+    /**
+     * Called between phases, so no new work starts once the deadline passed or the question was cancelled.
+     *
+     * @throws BardTimeoutException  if the deadline passed
+     * @throws CancellationException if the question was cancelled
+     */
+    void check() {
+        if (timeout != null && System.nanoTime() - expiresAt >= 0) {
+            expire();
+        }
+        RuntimeException cause;
+        synchronized (this) {
+            cause = abortCause;
+        }
+        if (cause != null) {
+            throw cause;
+        }
+    }
+
+    /**
+     * Registers work in flight, the action runs at once if the question is already aborted.
+     */
+    void onAbort(Runnable action) {
+        synchronized (this) {
+            if (abortCause == null) {
+                abortActions.add(action);
+                return;
+            }
+        }
+        run(action);
+    }
+
+    /**
+     * Waits for the future until the deadline.
+     */
+    <T> T await(CompletableFuture<T> future) {
+        try {
+            if (timeout == null) {
+                return future.get();
+            }
+            return future.get(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            expire();
+            throw abortCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw abortCause();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Aborts the work in flight, the question fails with a CancellationException.
+     */
+    void cancel() {
+        abort(new CancellationException("Question cancelled"));
+    }
+
+    /**
+     * Stops the timer once the question is answered or failed, and drops the work registered to abort.
+     */
+    void finish() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        synchronized (this) {
+            abortActions.clear();
+        }
+    }
+
+    /**
+     * @return the reason the question was aborted, or null
+     */
+    synchronized RuntimeException abortCause() {
+        return abortCause;
+    }
+
+    /**
+     * @param error error of a phase, maybe caused by aborting its work
+     * @return the reason the question was aborted if it was, else the error
+     */
+    Throwable failure(Throwable error) {
+        RuntimeException cause = abortCause();
+        if (cause == null || cause == error) {
+            return error;
+        }
+        return cause;
+    }
+
+    private void expire() {
+        abort(new BardTimeoutException("No answer within " + timeout.toMillis() + "ms"));
+    }
+
+    private void abort(RuntimeException cause) {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (abortCause != null) {
+                return;
+            }
+            abortCause = cause;
+            actions = new ArrayList<>(abortActions);
+            abortActions.clear();
+        }
+        finish();
+        Collections.reverse(actions);
+        actions.forEach(Deadline::run);
+    }
+
+    private static void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("Aborting a request failed", e);
+        }
+    }
+}
@@ -2,8 +2,20 @@ package com.api.bard;
 
 import com.api.bard.exception.BardApiException;
 import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
 import com.api.bard.model.Question;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
 public interface IBardClient {
 
     default Answer getAnswer(String question) {
@@ -12,5 +24,73 @@ public interface IBardClient {
 
     Answer getAnswer(Question question) throws BardApiException;
 
+    /**
+     * Streaming variant of {@link #getAnswer(Question)}: the listener is called with every partial answer
+     * as soon as bard sends it, and finally with the complete answer (marked as last).
+     * The default implementation waits for {@link #getAnswer(Question)} and only sends the last chunk.
+     */
+    default Answer getAnswer(Question question, Consumer<AnswerChunk> listener) throws BardApiException {
+        Answer answer = getAnswer(question);
+        listener.accept(AnswerChunk.builder()
+            .index(0)
+            .answer(answer.getAnswer())
+            .conversationId(answer.getConversationId())
+            .responseId(answer.getResponseId())
+            .last(true)
+            .build());
+        return answer;
+    }
+
+    /**
+     * Publisher of the chunks passed to {@link #getAnswer(Question, Consumer)}.
+     * Every subscription sends the question again, chunks are published on the given executor
+     * and buffered up to {@link Flow#defaultBufferSize()} for slow subscribers.
+     */
+    default Flow.Publisher<AnswerChunk> getAnswerPublisher(Question question, Executor executor) {
+        return subscriber -> {
+            SubmissionPublisher<AnswerChunk> publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+            publisher.subscribe(subscriber);
+            executor.execute(() -> {
+                try {
+                    getAnswer(question, publisher::submit);
+                    publisher.close();
+                } catch (Exception e) {
+                    publisher.closeExceptionally(e);
+                }
+            });
+        };
+    }
+
+    default CompletableFuture<Answer> getAnswerAsync(String question) {
+        return getAnswerAsync(Question.builder().question(question).build());
+    }
+
+    /**
+     * Non-blocking variant of {@link #getAnswer(Question)}.
+     * The returned future completes exceptionally with {@link BardApiException} on failure.
+     * The default implementation calls {@link #getAnswer(Question)} on the common pool.
+     */
+    default CompletableFuture<Answer> getAnswerAsync(Question question) {
+        return CompletableFuture.supplyAsync(() -> getAnswer(question));
+    }
+
+    /**
+     * Asks many independent questions, at most {@link BulkOptions#getParallelism()} at the same time.
+     * A failed question does not fail the others, its result holds the error instead of an answer.
+     *
+     * @return results in the order of the questions
+     */
+    default List<BulkResult> getAnswers(Collection<Question> questions, BulkOptions options) {
+        return getAnswersAsync(questions, options).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getAnswers(Collection, BulkOptions)}.
+     * The default implementation asks the questions through {@link #getAnswerAsync(Question)}.
+     */
+    default CompletableFuture<List<BulkResult>> getAnswersAsync(Collection<Question> questions, BulkOptions options) {
+        return new BulkQuestionRunner(new ArrayList<>(questions), options, this::getAnswerAsync).run();
+    }
+
     void reset() throws BardApiException;
 }
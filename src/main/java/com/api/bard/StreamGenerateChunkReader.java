@@ -0,0 +1,88 @@
+package com.api.bard;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the length-prefixed chunks of a StreamGenerate (rt=c) response as they arrive.
+ * <p>
+ * The body looks like:
+ * <pre>
+ * )]}'
+ *
+ * 10567
+ * [["wrb.fr",null,"..."]]
+ * 60
+ * [["di",3656],...]
+ * </pre>
+ * Every length counts the characters following the length digits, i.e. the line break, the chunk and its trailing
+ * line break.
+ */
+class StreamGenerateChunkReader implements Closeable {
+    private static final String XSSI_PREFIX = ")]}'";
+
+    private final Reader reader;
+    private boolean prefixSkipped;
+
+    StreamGenerateChunkReader(Reader reader) {
+        this.reader = reader.markSupported() ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @return json of the next chunk, or null at the end of the stream
+     */
+    String nextChunk() throws IOException {
+        if (!prefixSkipped) {
+            skipPrefix();
+            prefixSkipped = true;
+        }
+
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+
+        // The line break right after the digits was consumed by readLength
+        char[] buffer = new char[Math.max(length - 1, 0)];
+        int read = 0;
+        while (read < buffer.length) {
+            int n = reader.read(buffer, read, buffer.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return new String(buffer, 0, read).trim();
+    }
+
+    private void skipPrefix() throws IOException {
+        reader.mark(XSSI_PREFIX.length());
+        char[] prefix = new char[XSSI_PREFIX.length()];
+        int read = reader.read(prefix);
+        if (read != prefix.length || !XSSI_PREFIX.equals(new String(prefix))) {
+            reader.reset();
+        }
+    }
+
+    private int readLength() throws IOException {
+        int length = -1;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c >= '0' && c <= '9') {
+                length = (length < 0 ? 0 : length * 10) + (c - '0');
+            } else if (c == '\n' && length >= 0) {
+                return length;
+            } else if (!Character.isWhitespace(c)) {
+                throw new IOException("Unexpected character in chunk length: " + (char) c);
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
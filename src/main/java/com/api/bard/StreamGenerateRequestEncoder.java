@@ -0,0 +1,201 @@
+package com.api.bard;
+
+import com.api.bard.model.ConversationState;
+
+import java.util.Arrays;
+
+/**
+ * Encodes StreamGenerate requests: the query string, and the form body holding f.req and the SNlM0e value.
+ * <p>
+ * f.req is a json array whose second item is itself json text, the question inside it is thus escaped twice:
+ * <pre>
+ * [null,"[[\"question\"],null,[\"conversationId\",\"responseId\",\"choiceId\"]]"]
+ * </pre>
+ * The question is escaped and form encoded char by char straight into a per-thread buffer, which is copied once
+ * into the body, instead of going through intermediate strings.
+ */
+class StreamGenerateRequestEncoder {
+    private static final String BL = "boq_assistant-bard-web-server_20230419.00_p1";
+    private static final byte[] F_REQ = "f.req=".getBytes();
+    private static final byte[] AT = "&at=".getBytes();
+    private static final byte[] END = "&".getBytes();
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+    // Larger buffers are not kept between requests
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    // Nesting levels of the chars written to the body
+    private static final int FORM = 0;
+    private static final int F_REQ_TEXT = 1;
+    private static final int INNER_TEXT = 2;
+
+    private final String urlPrefix;
+
+    /**
+     * @param streamGenerateUrl url of the StreamGenerate endpoint, without query string
+     */
+    StreamGenerateRequestEncoder(String streamGenerateUrl) {
+        // bl is static, only _reqid changes between requests
+        this.urlPrefix = streamGenerateUrl + "?bl=" + BL + "&_reqid=";
+    }
+
+    String encodeUrl(int reqid) {
+        return urlPrefix + reqid + "&rt=c&";
+    }
+
+    byte[] encodeBody(String question, ConversationState state, String snlm0e) {
+        Buffer buffer = BUFFERS.get();
+        buffer.length = 0;
+        buffer.pendingHighSurrogate = 0;
+
+        buffer.write(F_REQ);
+        buffer.writeString("[null,\"", FORM);
+        buffer.writeString("[[\"", F_REQ_TEXT);
+        buffer.writeString(question, INNER_TEXT);
+        buffer.writeString("\"],null,[\"", F_REQ_TEXT);
+        buffer.writeString(state.getConversationId(), INNER_TEXT);
+        buffer.writeString("\",\"", F_REQ_TEXT);
+        buffer.writeString(state.getResponseId(), INNER_TEXT);
+        buffer.writeString("\",\"", F_REQ_TEXT);
+        buffer.writeString(state.getChoiceId(), INNER_TEXT);
+        buffer.writeString("\"]]", F_REQ_TEXT);
+        buffer.writeString("\"]", FORM);
+        buffer.write(AT);
+        buffer.writeString(snlm0e, FORM);
+        buffer.write(END);
+
+        byte[] body = Arrays.copyOf(buffer.bytes, buffer.length);
+        if (buffer.bytes.length > MAX_RETAINED_BUFFER) {
+            BUFFERS.remove();
+        }
+        return body;
+    }
+
+    private static class Buffer {
+        private byte[] bytes = new byte[4096];
+        private int length;
+        private char pendingHighSurrogate;
+
+        /**
+         * Writes the chars of a json text or string value at the given level.
+         */
+        private void writeString(String value, int level) {
+            if (value == null) {
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                write(value.charAt(i), level);
+            }
+        }
+
+        /**
+         * Writes a char of the json text at the given level, escaped for every enclosing json string,
+         * then form encoded.
+         */
+        private void write(char c, int level) {
+            if (level == FORM) {
+                writeForm(c);
+                return;
+            }
+            int outer = level - 1;
+            switch (c) {
+                case '"':
+                case '\\':
+                    write('\\', outer);
+                    write(c, outer);
+                    break;
+                case '\n':
+                    write('\\', outer);
+                    write('n', outer);
+                    break;
+                case '\r':
+                    write('\\', outer);
+                    write('r', outer);
+                    break;
+                case '\t':
+                    write('\\', outer);
+                    write('t', outer);
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        write('\\', outer);
+                        write('u', outer);
+                        for (int shift = 12; shift >= 0; shift -= 4) {
+                            write((char) HEX[(c >> shift) & 0xF], outer);
+                        }
+                    } else {
+                        write(c, outer);
+                    }
+            }
+        }
+
+        /**
+         * Form encodes a char like URLEncoder with UTF-8: unreserved chars as they are, space as '+',
+         * and the UTF-8 bytes of the others as %XX.
+         */
+        private void writeForm(char c) {
+            if (pendingHighSurrogate != 0) {
+                char high = pendingHighSurrogate;
+                pendingHighSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    writeUtf8(Character.toCodePoint(high, c));
+                    return;
+                }
+                // Unpaired surrogate
+                writeUtf8('?');
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '*' || c == '_') {
+                ensureCapacity(1);
+                bytes[length++] = (byte) c;
+            } else if (c == ' ') {
+                ensureCapacity(1);
+                bytes[length++] = '+';
+            } else if (Character.isHighSurrogate(c)) {
+                pendingHighSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                writeUtf8('?');
+            } else {
+                writeUtf8(c);
+            }
+        }
+
+        private void writeUtf8(int codePoint) {
+            if (codePoint < 0x80) {
+                writeEscapedByte(codePoint);
+            } else if (codePoint < 0x800) {
+                writeEscapedByte(0xC0 | (codePoint >> 6));
+                writeEscapedByte(0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                writeEscapedByte(0xE0 | (codePoint >> 12));
+                writeEscapedByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeEscapedByte(0x80 | (codePoint & 0x3F));
+            } else {
+                writeEscapedByte(0xF0 | (codePoint >> 18));
+                writeEscapedByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeEscapedByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeEscapedByte(0x80 | (codePoint & 0x3F));
+            }
+        }
+
+        private void writeEscapedByte(int b) {
+            ensureCapacity(3);
+            bytes[length++] = '%';
+            bytes[length++] = HEX[(b >> 4) & 0xF];
+            bytes[length++] = HEX[b & 0xF];
+        }
+
+        private void write(byte[] ascii) {
+            ensureCapacity(ascii.length);
+            System.arraycopy(ascii, 0, bytes, length, ascii.length);
+            length += ascii.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
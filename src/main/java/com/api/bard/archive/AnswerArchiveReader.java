@@ -0,0 +1,241 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the answers of an archive written by {@link AnswerArchiveWriter} sequentially, one block in memory at a time.
+ * <p>
+ * Only the chosen fields are decoded, the sections of the others are skipped without being parsed, e.g. scanning
+ * the ids and answers of millions of answers never builds their raw responses. A last block cut by a crash ends
+ * the archive, a corrupt block fails the read with an {@link UncheckedIOException}. Readers are not thread safe.
+ */
+@Slf4j
+public class AnswerArchiveReader implements Closeable {
+    private final Path file;
+    private final Set<AnswerField> fields;
+    private final InputStream in;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private byte[] stored = new byte[0];
+    private byte[] raw = new byte[0];
+    private BlockDecoder block;
+    private boolean ended;
+
+    private AnswerArchiveReader(Path file, Set<AnswerField> fields) throws IOException {
+        this.file = file;
+        this.fields = fields.isEmpty() ? EnumSet.noneOf(AnswerField.class) : EnumSet.copyOf(fields);
+        this.in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        try {
+            byte[] header = in.readNBytes(AnswerArchiveWriter.HEADER.length);
+            if (!Arrays.equals(header, AnswerArchiveWriter.HEADER)) {
+                throw new IOException(file + " is not an answer archive of version " + AnswerCodec.VERSION);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the archive to read all the fields of its answers.
+     *
+     * @throws UncheckedIOException if the file can not be opened, or is not an answer archive
+     */
+    public static AnswerArchiveReader open(@NonNull Path file) {
+        return open(file, AnswerField.ALL);
+    }
+
+    /**
+     * Opens the archive to read only the given fields of its answers, the others are null.
+     *
+     * @throws UncheckedIOException if the file can not be opened, or is not an answer archive
+     */
+    public static AnswerArchiveReader open(@NonNull Path file, @NonNull Set<AnswerField> fields) {
+        try {
+            return new AnswerArchiveReader(file, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Open answer archive " + file + " failed", e);
+        }
+    }
+
+    /**
+     * @return the next answer, or null at the end of the archive
+     */
+    public Answer next() {
+        while (block == null || !block.hasNext()) {
+            if (ended || !readBlock()) {
+                ended = true;
+                return null;
+            }
+        }
+        try {
+            return block.next(fields);
+        } catch (IllegalArgumentException e) {
+            throw new UncheckedIOException(new IOException("Malformed answer in archive " + file, e));
+        }
+    }
+
+    /**
+     * Passes the remaining answers to the consumer.
+     */
+    public void forEach(@NonNull Consumer<Answer> consumer) {
+        Answer answer;
+        while ((answer = next()) != null) {
+            consumer.accept(answer);
+        }
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Close answer archive " + file + " failed", e);
+        }
+    }
+
+    private boolean readBlock() {
+        try {
+            int flags = in.read();
+            if (flags < 0) {
+                return false;
+            }
+            int rawLength = (int) readVarint(in);
+            int storedLength = (int) readVarint(in);
+            int checksum = readInt(in);
+            if (stored.length < storedLength) {
+                stored = new byte[storedLength];
+            }
+            if (in.readNBytes(stored, 0, storedLength) < storedLength) {
+                throw new EOFException();
+            }
+
+            crc.reset();
+            crc.update(stored, 0, storedLength);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum mismatch of a block of answer archive " + file);
+            }
+            if ((flags & AnswerArchiveWriter.DEFLATED) != 0) {
+                if (raw.length < rawLength) {
+                    raw = new byte[rawLength];
+                }
+                inflate(storedLength, rawLength);
+                block = new BlockDecoder(raw, 0, rawLength);
+            } else {
+                block = new BlockDecoder(stored, 0, storedLength);
+            }
+            return true;
+        } catch (EOFException e) {
+            log.warn("Answer archive {} ends with a cut block, ignored", file);
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Read answer archive " + file + " failed", e);
+        } catch (IllegalArgumentException e) {
+            throw new UncheckedIOException(new IOException("Malformed block in answer archive " + file, e));
+        }
+    }
+
+    private void inflate(int storedLength, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(stored, 0, storedLength);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("Block of answer archive " + file + " inflated to " + length
+                    + " bytes instead of " + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed deflated block in answer archive " + file, e);
+        }
+    }
+
+    /**
+     * @return length of the header and complete blocks of the archive, reading only the headers of the blocks
+     */
+    static long completeLength(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(AnswerArchiveWriter.HEADER.length);
+        channel.read(header, 0);
+        if (!Arrays.equals(header.array(), AnswerArchiveWriter.HEADER)) {
+            throw new IOException(file + " is not an answer archive of version " + AnswerCodec.VERSION);
+        }
+        long size = channel.size();
+        long position = AnswerArchiveWriter.HEADER.length;
+        // flags, 2 varints of at most 5 bytes, checksum
+        ByteBuffer blockHeader = ByteBuffer.allocate(15);
+        while (position < size) {
+            blockHeader.clear();
+            channel.read(blockHeader, position);
+            ByteSource source = new ByteSource(blockHeader.array(), 0, blockHeader.position());
+            try {
+                source.readByte();
+                source.readVarint();
+                long storedLength = source.readVarint();
+                source.skip(4);
+                long end = position + source.position() + storedLength;
+                if (end > size) {
+                    break;
+                }
+                position = end;
+            } catch (IllegalArgumentException e) {
+                // Header cut
+                break;
+            }
+        }
+        return position;
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed block length in answer archive");
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+}
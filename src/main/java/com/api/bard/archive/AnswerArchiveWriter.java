@@ -0,0 +1,241 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Appends answers, with all their details and raw response, to an archive segment file, for auditing or replay.
+ * <p>
+ * The file starts with an 8 bytes header ("BARDANS" and the format version), followed by blocks of answers
+ * encoded by {@link BlockEncoder}: each block is a flags byte (deflated or not), the varint lengths of the encoded
+ * and of the stored bytes, the CRC32 of the stored bytes, then the stored bytes. Answers are buffered until the
+ * block reaches blockSize, on {@link #flush()}, or on {@link #close()}.
+ * <p>
+ * Opening an existing file appends to it, after dropping a last block cut by a crash.
+ * Writers are thread safe, but only one writer may append to a file at a time.
+ */
+@Slf4j
+public class AnswerArchiveWriter implements Closeable {
+    static final byte[] HEADER = {'B', 'A', 'R', 'D', 'A', 'N', 'S', AnswerCodec.VERSION};
+    static final int DEFLATED = 1;
+
+    private final Path file;
+    private final boolean compress;
+    private final int blockSize;
+    private final OutputStream out;
+    private final BlockEncoder encoder;
+    private final ByteSink block;
+    private final ByteSink blockHeader = new ByteSink(32);
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private byte[] deflated = new byte[0];
+    private boolean closed;
+
+    private AnswerArchiveWriter(Builder builder) throws IOException {
+        this.file = builder.file;
+        this.compress = builder.compress;
+        this.blockSize = builder.blockSize;
+        this.encoder = new BlockEncoder(blockSize + blockSize / 4);
+        this.block = new ByteSink(blockSize + blockSize / 4);
+        this.deflater = compress ? new Deflater(builder.compressionLevel) : null;
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.READ);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(HEADER));
+            } else {
+                long end = AnswerArchiveReader.completeLength(channel, file);
+                if (end < channel.size()) {
+                    log.warn("Dropped {} bytes of a cut block at the end of answer archive {}",
+                        channel.size() - end, file);
+                    channel.truncate(end);
+                }
+                channel.position(end);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+    }
+
+    public static Builder builder(@NonNull Path file) {
+        return new Builder(file);
+    }
+
+    public static class Builder {
+        private final Path file;
+        private boolean compress = true;
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        private int blockSize = 256 * 1024;
+
+        private Builder(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Whether blocks are deflated, true by default. Blocks which do not shrink are stored as they are.
+         */
+        public Builder compress(boolean compress) {
+            this.compress = compress;
+            return this;
+        }
+
+        /**
+         * Deflate level from 1 (fastest) to 9 (smallest), {@link Deflater#DEFAULT_COMPRESSION} by default.
+         */
+        public Builder compressionLevel(int compressionLevel) {
+            if ((compressionLevel < 1 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+                throw new IllegalArgumentException("compressionLevel must be in [1, 9]");
+            }
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Encoded bytes buffered before a block is written, 256KB by default. Larger blocks compress better
+         * and share more strings, but more answers are lost if the process crashes before they are written.
+         */
+        public Builder blockSize(int blockSize) {
+            if (blockSize <= 0) {
+                throw new IllegalArgumentException("blockSize must be positive");
+            }
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * Opens the file, creating it if needed.
+         *
+         * @throws UncheckedIOException if the file can not be opened, or is not an answer archive
+         */
+        public AnswerArchiveWriter build() {
+            try {
+                return new AnswerArchiveWriter(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Open answer archive " + file + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Adds the answer to the current block, which is written once full. The details of the answer are parsed
+     * if they were not yet.
+     */
+    public synchronized void append(@NonNull Answer answer) {
+        checkOpen();
+        encoder.add(answer);
+        if (encoder.size() >= blockSize) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes the buffered answers as a block, and flushes it to the file.
+     */
+    public synchronized void flush() {
+        checkOpen();
+        writeBlock();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write answer archive " + file + " failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            writeBlock();
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Close answer archive " + file + " failed", e);
+        } finally {
+            closed = true;
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void writeBlock() {
+        if (encoder.recordCount() == 0) {
+            return;
+        }
+        block.reset();
+        encoder.writeTo(block);
+        encoder.reset();
+
+        byte[] stored = block.array();
+        int storedLength = block.length();
+        int flags = 0;
+        if (compress) {
+            int deflatedLength = deflate(block);
+            if (deflatedLength < storedLength) {
+                stored = deflated;
+                storedLength = deflatedLength;
+                flags = DEFLATED;
+            }
+        }
+        crc.reset();
+        crc.update(stored, 0, storedLength);
+
+        blockHeader.reset();
+        blockHeader.writeByte(flags);
+        blockHeader.writeVarint(block.length());
+        blockHeader.writeVarint(storedLength);
+        int checksum = (int) crc.getValue();
+        blockHeader.writeByte(checksum >>> 24);
+        blockHeader.writeByte(checksum >>> 16);
+        blockHeader.writeByte(checksum >>> 8);
+        blockHeader.writeByte(checksum);
+        try {
+            out.write(blockHeader.array(), 0, blockHeader.length());
+            out.write(stored, 0, storedLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write answer archive " + file + " failed", e);
+        }
+    }
+
+    private int deflate(ByteSink input) {
+        deflater.reset();
+        deflater.setInput(input.array(), 0, input.length());
+        deflater.finish();
+        if (deflated.length < input.length()) {
+            deflated = new byte[input.length()];
+        }
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflated.length) {
+                deflated = Arrays.copyOf(deflated, deflated.length * 2);
+            }
+            length += deflater.deflate(deflated, length, deflated.length - length);
+        }
+        return length;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Answer archive " + file + " is closed");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * Compact binary encoding of a single {@link Answer}, with all its details: a version byte followed by a block of
+ * one record, see {@link AnswerArchiveWriter} for the format. To store many answers, an archive is smaller since
+ * its blocks share repeated strings and are compressed.
+ */
+public final class AnswerCodec {
+    static final int VERSION = 1;
+
+    private AnswerCodec() {
+    }
+
+    /**
+     * Encodes the answer, parsing its details if they were not yet.
+     */
+    public static byte[] encode(@NonNull Answer answer) {
+        BlockEncoder encoder = new BlockEncoder(4096);
+        encoder.add(answer);
+        ByteSink out = new ByteSink(encoder.size() + 8);
+        out.writeByte(VERSION);
+        encoder.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded answer
+     */
+    public static Answer decode(@NonNull byte[] bytes) {
+        return decode(bytes, AnswerField.ALL);
+    }
+
+    /**
+     * Decodes only the given fields of the answer, the others are null (false for usedTranslator).
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded answer
+     */
+    public static Answer decode(@NonNull byte[] bytes, @NonNull Set<AnswerField> fields) {
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown answer encoding version");
+        }
+        BlockDecoder decoder = new BlockDecoder(bytes, 1, bytes.length - 1);
+        if (!decoder.hasNext()) {
+            throw new IllegalArgumentException("No answer in the encoded bytes");
+        }
+        return decoder.next(fields);
+    }
+}
@@ -0,0 +1,45 @@
+package com.api.bard.archive;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Sections of an encoded answer, read ones are chosen when decoding so the others are skipped without being parsed.
+ */
+public enum AnswerField {
+    ANSWER(1),
+    // conversationId, responseId, choiceId and usedTranslator
+    IDS(2),
+    RAW_RESPONSE(3),
+    FACTUALITY_QUERIES(4),
+    TEXT_QUERY(5),
+    CHOICES(6),
+    IMAGES(7),
+    SOURCES(8),
+    RELATED_TOPICS(9);
+
+    public static final Set<AnswerField> ALL = Collections.unmodifiableSet(EnumSet.allOf(AnswerField.class));
+
+    private static final AnswerField[] BY_ID = new AnswerField[16];
+
+    static {
+        for (AnswerField field : values()) {
+            BY_ID[field.id] = field;
+        }
+    }
+
+    // Written in the archive, must never change
+    final int id;
+
+    AnswerField(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the field of the id, null for ids written by a later version
+     */
+    static AnswerField byId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+}
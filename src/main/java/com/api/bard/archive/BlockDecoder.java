@@ -0,0 +1,171 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decodes the records of a block written by {@link BlockEncoder}. Strings of the table are only decoded
+ * once they are read by a decoded section, and then shared by the records of the block.
+ * Malformed blocks fail with {@link IllegalArgumentException}.
+ */
+class BlockDecoder {
+    private final ByteSource source;
+    private final int recordCount;
+    private final int[] tableOffsets;
+    private final int[] tableLengths;
+    private final String[] tableStrings;
+    private int recordsRead;
+
+    BlockDecoder(byte[] bytes, int offset, int length) {
+        this.source = new ByteSource(bytes, offset, length);
+        this.recordCount = source.readLength();
+        int tableSize = source.readLength();
+        this.tableOffsets = new int[tableSize];
+        this.tableLengths = new int[tableSize];
+        this.tableStrings = new String[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            tableLengths[i] = source.readLength();
+            tableOffsets[i] = source.position();
+            source.skip(tableLengths[i]);
+        }
+    }
+
+    boolean hasNext() {
+        return recordsRead < recordCount;
+    }
+
+    Answer next(Set<AnswerField> fields) {
+        if (!hasNext()) {
+            throw new IllegalStateException("No record left in the block");
+        }
+        recordsRead++;
+        int recordLength = source.readLength();
+        ByteSource record = new ByteSource(source.array(), source.position(), recordLength);
+        source.skip(recordLength);
+
+        Answer.AnswerBuilder answer = Answer.builder();
+        while (record.hasRemaining()) {
+            AnswerField field = AnswerField.byId((int) record.readVarint());
+            int sectionLength = record.readLength();
+            if (field == null || !fields.contains(field)) {
+                record.skip(sectionLength);
+                continue;
+            }
+            ByteSource section = new ByteSource(record.array(), record.position(), sectionLength);
+            record.skip(sectionLength);
+            readSection(field, section, answer);
+        }
+        return answer.build();
+    }
+
+    private void readSection(AnswerField field, ByteSource in, Answer.AnswerBuilder answer) {
+        switch (field) {
+            case ANSWER:
+                answer.answer(readString(in));
+                break;
+            case IDS:
+                answer.conversationId(readString(in))
+                    .responseId(readString(in))
+                    .choiceId(readString(in))
+                    .usedTranslator(in.readByte() != 0);
+                break;
+            case RAW_RESPONSE:
+                answer.rawResponse(readString(in));
+                break;
+            case FACTUALITY_QUERIES:
+                answer.factualityQueries(readStrings(in));
+                break;
+            case TEXT_QUERY:
+                answer.textQuery(readString(in));
+                break;
+            case CHOICES: {
+                int count = in.readLength();
+                List<Answer.Choice> choices = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    choices.add(Answer.Choice.builder()
+                        .id(readString(in))
+                        .content(readString(in))
+                        .build());
+                }
+                answer.choices(choices);
+                break;
+            }
+            case IMAGES: {
+                int count = in.readLength();
+                List<Answer.Image> images = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    images.add(Answer.Image.builder()
+                        .imageUrl(readString(in))
+                        .imageMarker(readString(in))
+                        .detailsLink(readString(in))
+                        .build());
+                }
+                answer.images(images);
+                break;
+            }
+            case SOURCES: {
+                int count = in.readLength();
+                List<Answer.Source> sources = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    sources.add(Answer.Source.builder()
+                        .startIndexInAnswer((int) in.readSignedVarint())
+                        .endIndexInAnswer((int) in.readSignedVarint())
+                        .rawContentInAnswer(readString(in))
+                        .sourceLink(readString(in))
+                        .build());
+                }
+                answer.sources(sources);
+                break;
+            }
+            case RELATED_TOPICS: {
+                int count = in.readLength();
+                List<Answer.RelatedTopic> relatedTopics = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    relatedTopics.add(Answer.RelatedTopic.builder()
+                        .topic(readString(in))
+                        .num((int) in.readSignedVarint())
+                        .build());
+                }
+                answer.relatedTopics(relatedTopics);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unhandled field " + field);
+        }
+    }
+
+    private List<String> readStrings(ByteSource in) {
+        int count = in.readLength();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private String readString(ByteSource in) {
+        long tag = in.readVarint();
+        if (tag == BlockEncoder.NULL) {
+            return null;
+        }
+        if (tag == BlockEncoder.LITERAL) {
+            int length = in.readLength();
+            String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+            in.skip(length);
+            return value;
+        }
+        long index = tag - BlockEncoder.TABLE;
+        if (index >= tableStrings.length) {
+            throw new IllegalArgumentException("String " + index + " not in the table of " + tableStrings.length);
+        }
+        int i = (int) index;
+        if (tableStrings[i] == null) {
+            tableStrings[i] = new String(source.array(), tableOffsets[i], tableLengths[i], StandardCharsets.UTF_8);
+        }
+        return tableStrings[i];
+    }
+}
@@ -0,0 +1,184 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes answers into a block: the count of records, a table of the distinct short strings of the block
+ * (urls, ids, topics, ...), then the records referencing them.
+ * <p>
+ * A record is its length followed by sections, each one its {@link AnswerField} id, its length and its values,
+ * so readers skip the sections they do not need, or do not know. Absent (null) values have no section.
+ * Strings are a varint tag: 0 for null, 1 for a literal (length and UTF-8 bytes) and 2 + index for a string
+ * of the table.
+ */
+class BlockEncoder {
+    // Longer strings (answers, raw responses) are not repeated, they are written in place
+    static final int MAX_TABLE_STRING_LENGTH = 1024;
+    static final int NULL = 0;
+    static final int LITERAL = 1;
+    static final int TABLE = 2;
+
+    private final Map<String, Integer> table = new HashMap<>();
+    private final ByteSink tableBytes = new ByteSink(4096);
+    private final ByteSink records;
+    private final ByteSink record = new ByteSink(4096);
+    private final ByteSink section = new ByteSink(4096);
+    private int recordCount;
+
+    /**
+     * @param capacity initial capacity of the records, grown as needed
+     */
+    BlockEncoder(int capacity) {
+        this.records = new ByteSink(capacity);
+    }
+
+    void add(Answer answer) {
+        record.reset();
+
+        section.reset();
+        writeString(answer.getAnswer());
+        writeSection(AnswerField.ANSWER);
+
+        section.reset();
+        writeString(answer.getConversationId());
+        writeString(answer.getResponseId());
+        writeString(answer.getChoiceId());
+        section.writeByte(answer.isUsedTranslator() ? 1 : 0);
+        writeSection(AnswerField.IDS);
+
+        String rawResponse = answer.getRawResponse();
+        if (rawResponse != null) {
+            section.reset();
+            writeString(rawResponse);
+            writeSection(AnswerField.RAW_RESPONSE);
+        }
+
+        List<String> factualityQueries = answer.getFactualityQueries();
+        if (factualityQueries != null) {
+            section.reset();
+            section.writeVarint(factualityQueries.size());
+            for (String query : factualityQueries) {
+                writeString(query);
+            }
+            writeSection(AnswerField.FACTUALITY_QUERIES);
+        }
+
+        if (answer.getTextQuery() != null) {
+            section.reset();
+            writeString(answer.getTextQuery());
+            writeSection(AnswerField.TEXT_QUERY);
+        }
+
+        List<Answer.Choice> choices = answer.getChoices();
+        if (choices != null) {
+            section.reset();
+            section.writeVarint(choices.size());
+            for (Answer.Choice choice : choices) {
+                writeString(choice.getId());
+                writeString(choice.getContent());
+            }
+            writeSection(AnswerField.CHOICES);
+        }
+
+        List<Answer.Image> images = answer.getImages();
+        if (images != null) {
+            section.reset();
+            section.writeVarint(images.size());
+            for (Answer.Image image : images) {
+                writeString(image.getImageUrl());
+                writeString(image.getImageMarker());
+                writeString(image.getDetailsLink());
+            }
+            writeSection(AnswerField.IMAGES);
+        }
+
+        List<Answer.Source> sources = answer.getSources();
+        if (sources != null) {
+            section.reset();
+            section.writeVarint(sources.size());
+            for (Answer.Source source : sources) {
+                section.writeSignedVarint(source.getStartIndexInAnswer());
+                section.writeSignedVarint(source.getEndIndexInAnswer());
+                writeString(source.getRawContentInAnswer());
+                writeString(source.getSourceLink());
+            }
+            writeSection(AnswerField.SOURCES);
+        }
+
+        List<Answer.RelatedTopic> relatedTopics = answer.getRelatedTopics();
+        if (relatedTopics != null) {
+            section.reset();
+            section.writeVarint(relatedTopics.size());
+            for (Answer.RelatedTopic topic : relatedTopics) {
+                writeString(topic.getTopic());
+                section.writeSignedVarint(topic.getNum());
+            }
+            writeSection(AnswerField.RELATED_TOPICS);
+        }
+
+        records.writeVarint(record.length());
+        records.write(record);
+        recordCount++;
+    }
+
+    int recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return bytes written so far
+     */
+    int size() {
+        return tableBytes.length() + records.length();
+    }
+
+    void writeTo(ByteSink out) {
+        out.writeVarint(recordCount);
+        out.writeVarint(table.size());
+        out.write(tableBytes);
+        out.write(records);
+    }
+
+    void reset() {
+        table.clear();
+        tableBytes.reset();
+        records.reset();
+        recordCount = 0;
+    }
+
+    private void writeSection(AnswerField field) {
+        record.writeVarint(field.id);
+        record.writeVarint(section.length());
+        record.write(section);
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            section.writeVarint(NULL);
+            return;
+        }
+        if (value.length() > MAX_TABLE_STRING_LENGTH) {
+            section.writeVarint(LITERAL);
+            writeUtf8(section, value);
+            return;
+        }
+        Integer index = table.get(value);
+        if (index == null) {
+            index = table.size();
+            table.put(value, index);
+            writeUtf8(tableBytes, value);
+        }
+        section.writeVarint(TABLE + index);
+    }
+
+    private static void writeUtf8(ByteSink out, String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarint(utf8.length);
+        out.write(utf8, 0, utf8.length);
+    }
+}
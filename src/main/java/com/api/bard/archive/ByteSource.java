@@ -0,0 +1,76 @@
+package com.api.bard.archive;
+
+/**
+ * Reads varints and byte ranges from an array, failing with {@link IllegalArgumentException} past the end.
+ */
+class ByteSource {
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    ByteSource(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    int readByte() {
+        check(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at " + position);
+    }
+
+    long readSignedVarint() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return a length, checked to fit in the remaining bytes
+     */
+    int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Length " + length + " past the end at " + position);
+        }
+        return (int) length;
+    }
+
+    void skip(int count) {
+        check(count);
+        position += count;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int position() {
+        return position;
+    }
+
+    void position(int position) {
+        this.position = position;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private void check(int count) {
+        if (count > limit - position) {
+            throw new IllegalArgumentException("Read past the end at " + position);
+        }
+    }
+}
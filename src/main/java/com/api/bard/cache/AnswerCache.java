@@ -0,0 +1,29 @@
+package com.api.bard.cache;
+
+import com.api.bard.model.Answer;
+
+/**
+ * Cache of answers in front of getAnswer, so repeated questions of the same conversation skip bard.
+ * Keys hold the account, so a cache can be shared by the clients of a {@link com.api.bard.BardClientPool}.
+ * <p>
+ * {@link LruAnswerCache} keeps answers on the heap, implement this interface to keep them elsewhere
+ * (off-heap, on disk, in a shared store). Implementations must be thread safe.
+ * Answers are only cached after they were translated, so a cache should not be shared by clients
+ * with different translators.
+ */
+public interface AnswerCache {
+
+    /**
+     * @return the cached answer of the key, or null. Lookups are counted as hits or misses.
+     * Every call returns its own instance, callers may change it.
+     */
+    Answer get(AnswerCacheKey key);
+
+    void put(AnswerCacheKey key, Answer answer);
+
+    void invalidate(AnswerCacheKey key);
+
+    void invalidateAll();
+
+    AnswerCacheStats stats();
+}
@@ -0,0 +1,55 @@
+package com.api.bard.cache;
+
+import com.api.bard.model.ConversationState;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Key of an answer in an {@link AnswerCache}: the account it was given to, the normalized question and the
+ * conversation it was asked in.
+ * Questions differing only in surrounding or repeated whitespace, or in unicode normalization, share a key.
+ */
+@Value
+public class AnswerCacheKey {
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    String account;
+    String question;
+    ConversationState conversation;
+
+    /**
+     * @param account identifies the account, see {@link #account(String)}
+     */
+    public static AnswerCacheKey of(@NonNull String account, @NonNull String question,
+                                    @NonNull ConversationState conversation) {
+        return new AnswerCacheKey(account, normalize(question), conversation);
+    }
+
+    /**
+     * @return the account of a __Secure-1PSID token, a SHA-256 hash so caches never hold the token itself
+     */
+    public static String account(@NonNull String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String normalize(String question) {
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFC);
+        return WHITESPACES.matcher(normalized.trim()).replaceAll(" ");
+    }
+}
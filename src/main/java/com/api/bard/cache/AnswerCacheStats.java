@@ -0,0 +1,29 @@
+package com.api.bard.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Counters of an {@link AnswerCache} since it was created.
+ */
+@Value
+@Builder
+public class AnswerCacheStats {
+    long hitCount;
+    long missCount;
+    // entries removed because the cache was full or they expired
+    long evictionCount;
+    long size;
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return ratio of lookups which found an answer, 1 when there were no lookups
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,150 @@
+package com.api.bard.cache;
+
+import com.api.bard.model.Answer;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-heap {@link AnswerCache} holding up to maximumSize answers, each for at most ttl after it was put.
+ * The least recently used answer is evicted when the cache is full.
+ * <p>
+ * Answers are copied when put and when returned, so callers changing their answer do not change the others.
+ */
+public class LruAnswerCache implements AnswerCache {
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LinkedHashMap<AnswerCacheKey, CachedAnswer> entries;
+
+    private LruAnswerCache(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.nanoClock = builder.nanoClock;
+        this.entries = new LinkedHashMap<AnswerCacheKey, CachedAnswer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AnswerCacheKey, CachedAnswer> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maximumSize = 1000;
+        private Duration ttl = Duration.ofHours(1);
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Most answers held at once, 1000 by default.
+         */
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("maximumSize must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * How long an answer is used after it was put, 1 hour by default.
+         */
+        public Builder ttl(@NonNull Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        Builder nanoClock(@NonNull LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public LruAnswerCache build() {
+            return new LruAnswerCache(this);
+        }
+    }
+
+    private static class CachedAnswer {
+        private final Answer answer;
+        private final long expiresAt;
+
+        private CachedAnswer(Answer answer, long expiresAt) {
+            this.answer = answer;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Override
+    public Answer get(@NonNull AnswerCacheKey key) {
+        CachedAnswer hit;
+        synchronized (entries) {
+            CachedAnswer entry = entries.get(key);
+            if (entry != null && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                evictionCount.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                missCount.increment();
+                return null;
+            }
+            hitCount.increment();
+            hit = entry;
+        }
+        return hit.answer.toBuilder().build();
+    }
+
+    @Override
+    public void put(@NonNull AnswerCacheKey key, @NonNull Answer answer) {
+        synchronized (entries) {
+            entries.put(key, new CachedAnswer(answer.toBuilder().build(), nanoClock.getAsLong() + ttlNanos));
+        }
+    }
+
+    @Override
+    public void invalidate(@NonNull AnswerCacheKey key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public AnswerCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return AnswerCacheStats.builder()
+            .hitCount(hitCount.sum())
+            .missCount(missCount.sum())
+            .evictionCount(evictionCount.sum())
+            .size(size)
+            .build();
+    }
+}
@@ -0,0 +1,227 @@
+package com.api.bard.cache;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache of SNlM0e values keyed by base url and __Secure-1PSID token, shared by every client using the same token
+ * on the same server.
+ * <p>
+ * Concurrent misses for one token share a single fetch, and values which were used since they were fetched
+ * are refreshed in the background before they expire, so callers never wait for the bard home page
+ * except for the very first request of a token. Values nobody used until they expired are dropped,
+ * with the loader and the client it refers to.
+ */
+public class SNlM0eCache {
+    private static final SNlM0eCache SHARED = builder().build();
+
+    private static final ScheduledExecutorService REFRESH_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+            Thread thread = new Thread(runnable, "bard-snlm0e-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private SNlM0eCache(Builder builder) {
+        this.ttlNanos = builder.ttl.toNanos();
+        this.refreshAheadNanos = Math.min(builder.refreshAhead.toNanos(), ttlNanos);
+    }
+
+    /**
+     * @return the process-wide cache, used by clients unless they were given another one
+     */
+    public static SNlM0eCache shared() {
+        return SHARED;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Duration ttl = Duration.ofMinutes(30);
+        private Duration refreshAhead = Duration.ofMinutes(5);
+
+        private Builder() {
+        }
+
+        /**
+         * How long a fetched value is used, 30 minutes by default.
+         */
+        public Builder ttl(@NonNull Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * How long before expiry a value in use is refreshed in the background, 5 minutes by default.
+         * Use {@link Duration#ZERO} to disable background refresh.
+         */
+        public Builder refreshAhead(@NonNull Duration refreshAhead) {
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        public SNlM0eCache build() {
+            return new SNlM0eCache(this);
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        // set once the entry left the map, callers holding it look it up again
+        private boolean removed;
+        private String value;
+        private long expiresAt;
+        private long loadedAt;
+        private long lastAccessAt;
+        private CompletableFuture<String> inFlight;
+        private Supplier<CompletableFuture<String>> loader;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Returns the cached value of the token, or fetches it with the loader.
+     * Only one loader runs at a time for a token, other callers wait for its result.
+     *
+     * @param baseUrl url of the server the value is fetched from
+     * @param token   __Secure-1PSID token
+     * @param loader  fetches a fresh value, also kept for background refresh until the value expires unused
+     */
+    public CompletableFuture<String> get(@NonNull String baseUrl, @NonNull String token,
+                                         @NonNull Supplier<CompletableFuture<String>> loader) {
+        String key = key(baseUrl, token);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, Entry::new);
+            CompletableFuture<String> promise;
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                long now = System.nanoTime();
+                entry.loader = loader;
+                entry.lastAccessAt = now;
+                if (entry.value != null && now - entry.expiresAt < 0) {
+                    return CompletableFuture.completedFuture(entry.value);
+                }
+                if (entry.inFlight != null) {
+                    return entry.inFlight;
+                }
+                promise = new CompletableFuture<>();
+                entry.inFlight = promise;
+            }
+
+            load(entry, loader, promise);
+            return promise;
+        }
+    }
+
+    /**
+     * Drops the value of the token, e.g. when bard rejected it. The next get fetches a new one.
+     */
+    public void invalidate(@NonNull String baseUrl, @NonNull String token) {
+        Entry entry = entries.get(key(baseUrl, token));
+        if (entry != null) {
+            synchronized (entry) {
+                entry.value = null;
+            }
+        }
+    }
+
+    /**
+     * @return number of tokens with a value or a fetch in flight
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private void load(Entry entry, Supplier<CompletableFuture<String>> loader, CompletableFuture<String> promise) {
+        CompletableFuture<String> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+
+        loading.whenComplete((value, e) -> {
+            synchronized (entry) {
+                entry.inFlight = null;
+                if (e == null) {
+                    long now = System.nanoTime();
+                    entry.value = value;
+                    entry.loadedAt = now;
+                    entry.expiresAt = now + ttlNanos;
+                } else if (entry.value == null || System.nanoTime() - entry.expiresAt >= 0) {
+                    // Nothing left to serve, the next get starts over
+                    remove(entry);
+                }
+            }
+            if (e == null) {
+                schedule(entry);
+                promise.complete(value);
+            } else {
+                promise.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void schedule(Entry entry) {
+        if (refreshAheadNanos > 0) {
+            REFRESH_SCHEDULER.schedule(() -> refresh(entry), ttlNanos - refreshAheadNanos, TimeUnit.NANOSECONDS);
+        }
+        REFRESH_SCHEDULER.schedule(() -> expire(entry), ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void refresh(Entry entry) {
+        CompletableFuture<String> promise;
+        Supplier<CompletableFuture<String>> loader;
+        synchronized (entry) {
+            // Tokens nobody asked for since the last fetch are left to expire
+            if (entry.removed || entry.inFlight != null || entry.lastAccessAt - entry.loadedAt <= 0) {
+                return;
+            }
+            promise = new CompletableFuture<>();
+            entry.inFlight = promise;
+            loader = entry.loader;
+        }
+        load(entry, loader, promise);
+    }
+
+    /**
+     * Drops an entry whose value expired without being refreshed or fetched again.
+     */
+    private void expire(Entry entry) {
+        synchronized (entry) {
+            if (!entry.removed && entry.inFlight == null && System.nanoTime() - entry.expiresAt >= 0) {
+                remove(entry);
+            }
+        }
+    }
+
+    // Called holding the lock of the entry
+    private void remove(Entry entry) {
+        entry.removed = true;
+        entry.value = null;
+        entry.loader = null;
+        entries.remove(entry.key, entry);
+    }
+
+    private static String key(String baseUrl, String token) {
+        return baseUrl + ' ' + token;
+    }
+}
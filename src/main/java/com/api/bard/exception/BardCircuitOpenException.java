@@ -0,0 +1,11 @@
+package com.api.bard.exception;
+
+/**
+ * The request was not sent, the circuit breaker is open because bard has been failing or slow.
+ */
+public class BardCircuitOpenException extends BardApiException {
+
+    public BardCircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.api.bard.exception;
+
+/**
+ * Bard answered with an unexpected http status code.
+ */
+public class BardHttpException extends BardApiException {
+    private final int statusCode;
+
+    public BardHttpException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return whether bard throttled the request (429)
+     */
+    public boolean isThrottled() {
+        return statusCode == 429;
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.bard.exception;
+
+/**
+ * Bard did not accept the __Secure-1PSID token, no SNlM0e value could be obtained with it.
+ */
+public class BardInvalidTokenException extends BardApiException {
+
+    public BardInvalidTokenException(String message) {
+        super(message);
+    }
+}
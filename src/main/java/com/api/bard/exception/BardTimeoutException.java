@@ -0,0 +1,11 @@
+package com.api.bard.exception;
+
+/**
+ * The question was not answered before its deadline, the requests in flight were aborted.
+ */
+public class BardTimeoutException extends BardApiException {
+
+    public BardTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.api.bard.metrics;
+
+/**
+ * Receives the timing of every phase of answering questions, e.g. to find where the time goes or to alert on
+ * regressions. See {@link MicrometerMetricsListener} to publish them with Micrometer.
+ * <p>
+ * Listeners are called on the threads answering questions, they must be thread-safe and must not block.
+ * Exceptions thrown by listeners are logged and ignored.
+ */
+@FunctionalInterface
+public interface BardMetricsListener {
+    BardMetricsListener NOOP = event -> {
+    };
+
+    void onPhase(BardPhaseEvent event);
+}
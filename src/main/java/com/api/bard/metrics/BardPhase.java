@@ -0,0 +1,47 @@
+package com.api.bard.metrics;
+
+/**
+ * Phases of answering a question, as reported to {@link BardMetricsListener}.
+ */
+public enum BardPhase {
+    /**
+     * The whole question, from the call to the answer. cacheHit when the answer came from the answer cache.
+     */
+    ANSWER,
+    /**
+     * Getting the SNlM0e value of the token. cacheHit when it came from the SNlM0e cache without fetching the
+     * home page, else statusCode and responseBytes are those of the home page.
+     */
+    SNLM0E,
+    /**
+     * Detecting the language of the question with the translator.
+     */
+    DETECT_LANGUAGE,
+    /**
+     * Translating the question to the middle language.
+     */
+    TRANSLATE_QUESTION,
+    /**
+     * Sending the StreamGenerate request and receiving its response, with statusCode, requestBytes and
+     * responseBytes. When streaming, it ends when the response headers are received.
+     */
+    SEND_REQUEST,
+    /**
+     * Parsing the StreamGenerate response. When streaming, it includes reading the response as bard sends it.
+     */
+    PARSE_RESPONSE,
+    /**
+     * Translating the answer back to the language of the question.
+     */
+    TRANSLATE_ANSWER,
+    /**
+     * A request about to be sent again by the retry policy, with the attempt which failed and its statusCode
+     * or error. durationNanos is the backoff before the next attempt.
+     */
+    RETRY,
+    /**
+     * A request sent a second time by the hedging policy, reported once it is answered. durationNanos is the delay
+     * after which the hedge was sent, attempt is 2 when the hedge answered first, else 1.
+     */
+    HEDGE
+}
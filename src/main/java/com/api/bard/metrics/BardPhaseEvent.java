@@ -0,0 +1,27 @@
+package com.api.bard.metrics;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Timing of one phase of answering a question. Fields which do not apply to the phase are 0 (or false, null).
+ */
+@Value
+@Builder
+public class BardPhaseEvent {
+    BardPhase phase;
+    long durationNanos;
+    // http status code of the response
+    int statusCode;
+    long requestBytes;
+    long responseBytes;
+    // number of the attempt, for RETRY events
+    int attempt;
+    boolean cacheHit;
+    // null when the phase succeeded
+    Throwable error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
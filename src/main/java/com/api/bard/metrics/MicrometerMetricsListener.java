@@ -0,0 +1,94 @@
+package com.api.bard.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the phase timings to a Micrometer registry. Micrometer is an optional dependency of this library,
+ * add io.micrometer:micrometer-core to use this listener.
+ * <p>
+ * Meters, all tagged with the phase:
+ * <ul>
+ *     <li>bard.phase: timer, also tagged with outcome (success or error) and the exception class</li>
+ *     <li>bard.request.bytes and bard.response.bytes: sizes of the http requests and responses</li>
+ *     <li>bard.cache: counter of the ANSWER and SNLM0E phases, tagged with result (hit or miss)</li>
+ *     <li>bard.retries: counter of the retried requests, tagged with the status code</li>
+ *     <li>bard.hedges: counter of the hedged requests, tagged with the winner (first or hedge)</li>
+ * </ul>
+ */
+public class MicrometerMetricsListener implements BardMetricsListener {
+    private final MeterRegistry registry;
+    private final String prefix;
+
+    public MicrometerMetricsListener(@NonNull MeterRegistry registry) {
+        this(registry, "bard");
+    }
+
+    /**
+     * @param prefix prefix of the meter names, instead of "bard"
+     */
+    public MicrometerMetricsListener(@NonNull MeterRegistry registry, @NonNull String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void onPhase(BardPhaseEvent event) {
+        String phase = event.getPhase().name().toLowerCase(Locale.ROOT);
+
+        if (event.getPhase() == BardPhase.RETRY) {
+            Counter.builder(prefix + ".retries")
+                .tag("status", String.valueOf(event.getStatusCode()))
+                .tag("exception", exception(event))
+                .register(registry)
+                .increment();
+            return;
+        }
+        if (event.getPhase() == BardPhase.HEDGE) {
+            Counter.builder(prefix + ".hedges")
+                .tag("winner", event.getAttempt() == 2 ? "hedge" : "first")
+                .register(registry)
+                .increment();
+            return;
+        }
+
+        Timer.builder(prefix + ".phase")
+            .tag("phase", phase)
+            .tag("outcome", event.isSuccess() ? "success" : "error")
+            .tag("exception", exception(event))
+            .register(registry)
+            .record(event.getDurationNanos(), TimeUnit.NANOSECONDS);
+
+        if (event.getRequestBytes() > 0) {
+            DistributionSummary.builder(prefix + ".request.bytes")
+                .baseUnit("bytes")
+                .tag("phase", phase)
+                .register(registry)
+                .record(event.getRequestBytes());
+        }
+        if (event.getResponseBytes() > 0) {
+            DistributionSummary.builder(prefix + ".response.bytes")
+                .baseUnit("bytes")
+                .tag("phase", phase)
+                .register(registry)
+                .record(event.getResponseBytes());
+        }
+        if (event.getPhase() == BardPhase.ANSWER || event.getPhase() == BardPhase.SNLM0E) {
+            Counter.builder(prefix + ".cache")
+                .tag("phase", phase)
+                .tag("result", event.isCacheHit() ? "hit" : "miss")
+                .register(registry)
+                .increment();
+        }
+    }
+
+    private static String exception(BardPhaseEvent event) {
+        return event.getError() == null ? "none" : event.getError().getClass().getSimpleName();
+    }
+}
@@ -1,16 +1,31 @@
 package com.api.bard.model;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Answer {
 
     // raw response from google bard, you can parse it by yourself
     private String rawResponse;
+    // gzip of the raw response, set instead of rawResponse when the client compresses raw responses
+    private byte[] compressedRawResponse;
 
     // parsed answer in string
     private String answer;
@@ -30,6 +45,43 @@ public class Answer {
     // related topics
     private List<RelatedTopic> relatedTopics;
 
+    // Parses factualityQueries, textQuery, choices, images, sources and relatedTopics on first access of any of them.
+    // Fields are then only filled through their getters, not when read directly (e.g. by reflection).
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile Supplier<Details> detailsParser;
+
+    // Rendered by the first getMarkdownAnswer call, dropped when the answer or the images are set.
+    // Not final, so it is also null in answers created without a constructor (e.g. deserialized by Gson).
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile String markdownAnswer;
+
+    public static class AnswerBuilder {
+        // Rendered from the answer, not set by callers
+        private AnswerBuilder markdownAnswer(String markdownAnswer) {
+            return this;
+        }
+    }
+
+    /**
+     * Secondary fields of an answer, parsed together on demand.
+     */
+    @Data
+    @Builder
+    public static class Details {
+        private List<String> factualityQueries;
+        private String textQuery;
+        private List<Choice> choices;
+        private List<Image> images;
+        private List<Source> sources;
+        private List<RelatedTopic> relatedTopics;
+    }
+
     @Data
     @Builder
     public static class Choice {
@@ -44,10 +96,12 @@ public class Answer {
         private final String imageMarker;
         private final String detailsLink;
 
+        /**
+         * Decorates the first occurrence of the marker in rawAnswer. To decorate all the images of an answer,
+         * use {@link Answer#getMarkdownAnswer()} which does it in one pass.
+         */
         public String decorateMarkdown(String rawAnswer) {
-            return rawAnswer.replaceFirst(
-                String.format("\\[%s\\]", imageMarker.substring(1, imageMarker.length() - 1)),
-                String.format("[!%s(%s)](%s)", imageMarker, imageUrl, detailsLink));
+            return MarkdownRenderer.render(rawAnswer, Collections.singletonList(this));
         }
     }
 
@@ -67,14 +121,115 @@ public class Answer {
         private int num;
     }
 
-    // If images are available, get the decorated answer with images in markdown format
-    public String getMarkdownAnswer() {
-        String markdownAnswer = this.answer;
-        if (images != null && images.size() > 0) {
-            for (Image image : images) {
-                markdownAnswer = image.decorateMarkdown(markdownAnswer);
+    public String getRawResponse() {
+        if (rawResponse != null || compressedRawResponse == null) {
+            return rawResponse;
+        }
+        // Not kept, the point of compressing is to not hold the whole string
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressedRawResponse))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Decompress raw response failed", e);
+        }
+    }
+
+    public List<String> getFactualityQueries() {
+        resolveDetails();
+        return factualityQueries;
+    }
+
+    public String getTextQuery() {
+        resolveDetails();
+        return textQuery;
+    }
+
+    public List<Choice> getChoices() {
+        resolveDetails();
+        return choices;
+    }
+
+    public List<Image> getImages() {
+        resolveDetails();
+        return images;
+    }
+
+    public void setAnswer(String answer) {
+        this.answer = answer;
+        markdownAnswer = null;
+    }
+
+    public void setImages(List<Image> images) {
+        this.images = images;
+        markdownAnswer = null;
+    }
+
+    public List<Source> getSources() {
+        resolveDetails();
+        return sources;
+    }
+
+    public List<RelatedTopic> getRelatedTopics() {
+        resolveDetails();
+        return relatedTopics;
+    }
+
+    private void resolveDetails() {
+        if (detailsParser == null) {
+            return;
+        }
+        synchronized (this) {
+            if (detailsParser == null) {
+                return;
+            }
+            Details details = detailsParser.get();
+            // Values set explicitly take precedence over parsed ones
+            if (factualityQueries == null) {
+                factualityQueries = details.getFactualityQueries();
+            }
+            if (textQuery == null) {
+                textQuery = details.getTextQuery();
             }
+            if (choices == null) {
+                choices = details.getChoices();
+            }
+            if (images == null) {
+                images = details.getImages();
+            }
+            if (sources == null) {
+                sources = details.getSources();
+            }
+            if (relatedTopics == null) {
+                relatedTopics = details.getRelatedTopics();
+            }
+            detailsParser = null;
+        }
+    }
+
+    /**
+     * If images are available, get the decorated answer with images in markdown format.
+     * The markdown is rendered once, later calls return the same string.
+     */
+    public String getMarkdownAnswer() {
+        String markdown = markdownAnswer;
+        if (markdown == null) {
+            // Rendering twice on a race gives equal strings, the last one is kept
+            markdown = MarkdownRenderer.render(answer, getImages());
+            markdownAnswer = markdown;
+        }
+        return markdown;
+    }
+
+    /**
+     * Writes the answer decorated with images in markdown format to out, e.g. a response writer,
+     * without building the whole markdown string unless it was already rendered.
+     * Writes nothing when there is no answer.
+     */
+    public void writeMarkdownAnswer(Appendable out) throws IOException {
+        String markdown = markdownAnswer;
+        if (markdown != null) {
+            out.append(markdown);
+        } else {
+            MarkdownRenderer.render(answer, getImages(), out);
         }
-        return markdownAnswer;
     }
 }
@@ -0,0 +1,18 @@
+package com.api.bard.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AnswerChunk {
+
+    // sequence number of this chunk, starting from 0
+    private int index;
+    // answer generated so far, each chunk carries the whole text up to this point
+    private String answer;
+    private String conversationId;
+    private String responseId;
+    // true for the final chunk, which carries the complete (and translated, if needed) answer
+    private boolean last;
+}
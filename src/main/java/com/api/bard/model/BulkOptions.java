@@ -0,0 +1,23 @@
+package com.api.bard.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.function.Consumer;
+
+/**
+ * Options of getAnswers.
+ */
+@Data
+@Builder
+public class BulkOptions {
+    public static final BulkOptions DEFAULT = BulkOptions.builder().build();
+
+    // most questions waiting for bard at the same time
+    @Builder.Default
+    private int parallelism = 4;
+    // called with every result as soon as it completes, in completion order
+    private Consumer<BulkResult> resultListener;
+    // called after every result
+    private Consumer<BulkProgress> progressListener;
+}
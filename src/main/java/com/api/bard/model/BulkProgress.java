@@ -0,0 +1,17 @@
+package com.api.bard.model;
+
+import lombok.Value;
+
+/**
+ * Progress of getAnswers, after a question completed.
+ */
+@Value
+public class BulkProgress {
+    int completed;
+    int failed;
+    int total;
+
+    public boolean isDone() {
+        return completed == total;
+    }
+}
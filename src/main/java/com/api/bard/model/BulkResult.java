@@ -0,0 +1,22 @@
+package com.api.bard.model;
+
+import com.api.bard.exception.BardApiException;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Result of one question of getAnswers: either its answer or the error it failed with.
+ */
+@Data
+@Builder
+public class BulkResult {
+    // position of the question in the asked collection
+    private int index;
+    private Question question;
+    private Answer answer;
+    private BardApiException error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
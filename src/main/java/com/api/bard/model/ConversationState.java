@@ -0,0 +1,21 @@
+package com.api.bard.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Ids bard needs to continue a conversation, taken from the last answer of the conversation.
+ * Empty ids start a new conversation.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ConversationState {
+    public static final ConversationState EMPTY = ConversationState.builder().build();
+
+    @Builder.Default
+    String conversationId = "";
+    @Builder.Default
+    String responseId = "";
+    @Builder.Default
+    String choiceId = "";
+}
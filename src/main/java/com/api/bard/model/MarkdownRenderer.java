@@ -0,0 +1,99 @@
+package com.api.bard.model;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decorates the image markers of an answer, e.g. "[Image of White House]", with their image and details link,
+ * in a single scan of the answer.
+ * <p>
+ * Each image decorates the first occurrence of its marker not decorated yet, images sharing a marker thus decorate
+ * its successive occurrences in order. Markers without an image are left as they are.
+ */
+final class MarkdownRenderer {
+    // Images by marker, in the order of the images list
+    private final Map<String, Deque<Answer.Image>> imagesByMarker;
+    private final int maxMarkerLength;
+
+    private MarkdownRenderer(List<Answer.Image> images) {
+        this.imagesByMarker = new HashMap<>();
+        int maxMarkerLength = 0;
+        for (Answer.Image image : images) {
+            String marker = image.getImageMarker();
+            if (marker == null || marker.length() < 2) {
+                continue;
+            }
+            imagesByMarker.computeIfAbsent(marker, key -> new ArrayDeque<>()).add(image);
+            maxMarkerLength = Math.max(maxMarkerLength, marker.length());
+        }
+        this.maxMarkerLength = maxMarkerLength;
+    }
+
+    static String render(String answer, List<Answer.Image> images) {
+        if (answer == null) {
+            return null;
+        }
+        if (images == null || images.isEmpty()) {
+            return answer;
+        }
+        StringBuilder markdown = new StringBuilder(answer.length() + images.size() * 128);
+        try {
+            render(answer, images, markdown);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return markdown.toString();
+    }
+
+    static void render(String answer, List<Answer.Image> images, Appendable out) throws IOException {
+        if (answer == null) {
+            return;
+        }
+        new MarkdownRenderer(images == null ? Collections.emptyList() : images).write(answer, out);
+    }
+
+    private void write(String answer, Appendable out) throws IOException {
+        if (imagesByMarker.isEmpty()) {
+            out.append(answer);
+            return;
+        }
+        // Start of the text not written yet
+        int written = 0;
+        int open = answer.indexOf('[');
+        while (open >= 0) {
+            int close = answer.indexOf(']', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int next = open + 1;
+            // Markers hold no '[', the nearest one before close is the only candidate
+            int nested = answer.lastIndexOf('[', close);
+            if (nested == open && close - open + 1 <= maxMarkerLength) {
+                Deque<Answer.Image> candidates = imagesByMarker.get(answer.substring(open, close + 1));
+                Answer.Image image = candidates == null ? null : candidates.poll();
+                if (image != null) {
+                    out.append(answer, written, open);
+                    decorate(image, out);
+                    written = close + 1;
+                    next = close + 1;
+                }
+            } else if (nested > open) {
+                next = nested;
+            }
+            open = answer.indexOf('[', next);
+        }
+        out.append(answer, written, answer.length());
+    }
+
+    private static void decorate(Answer.Image image, Appendable out) throws IOException {
+        out.append("[!").append(image.getImageMarker())
+            .append('(').append(image.getImageUrl()).append(")](")
+            .append(image.getDetailsLink()).append(')');
+    }
+}
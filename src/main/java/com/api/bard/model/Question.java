@@ -4,10 +4,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NonNull;
 
+import java.time.Duration;
+
 @Data
 @Builder
 public class Question {
 
     @NonNull
     private String question;
+    // time allowed to answer, from the call to the answer, null for the default of the client
+    private Duration timeout;
 }
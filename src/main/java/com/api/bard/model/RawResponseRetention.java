@@ -0,0 +1,13 @@
+package com.api.bard.model;
+
+/**
+ * How the raw response from google bard is kept on an {@link Answer}.
+ */
+public enum RawResponseRetention {
+    // keep the raw response string, the default
+    KEEP,
+    // drop it, getRawResponse returns null
+    DROP,
+    // keep it gzip compressed, getRawResponse decompresses it on every call
+    COMPRESS
+}
@@ -0,0 +1,23 @@
+package com.api.bard.parser;
+
+import com.api.bard.model.Answer;
+
+/**
+ * Parses the answers out of StreamGenerate responses. Implementations must be thread-safe.
+ * <p>
+ * Every "wrb.fr" chunk of the response carries the answer as a json string at position [0][2],
+ * itself a json array which is called the payload here.
+ */
+public interface BardResultParser {
+
+    /**
+     * @param chunk json of one chunk of the response
+     * @return the payload of a "wrb.fr" chunk, or null for other chunks
+     */
+    String extractPayload(String chunk);
+
+    /**
+     * Parses the answer out of a payload. The raw response of the returned answer is not set.
+     */
+    Answer parsePayload(String payload);
+}
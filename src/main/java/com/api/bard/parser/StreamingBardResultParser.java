@@ -0,0 +1,438 @@
+package com.api.bard.parser;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser which pulls the needed positions out of the payload with a {@link JsonReader},
+ * no json tree is built and skipped positions are not materialized.
+ * <p>
+ * The answer text and ids are read eagerly, everything else is read in a second pass on first access.
+ * Results are the same as {@link TreeBardResultParser}: a position of an unexpected type ends the list it belongs to,
+ * and a one-element array is read as its element, like Gson's JsonArray#getAsString does.
+ */
+public class StreamingBardResultParser implements BardResultParser {
+
+    /**
+     * Thrown once the value of an unexpected type was fully consumed, so the reader can go on with the next value.
+     */
+    private static final class TypeMismatch extends Exception {
+        private TypeMismatch() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final TypeMismatch TYPE_MISMATCH = new TypeMismatch();
+
+    @Override
+    public String extractPayload(String chunk) {
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(chunk))) {
+            reader.beginArray();
+            reader.beginArray();
+            if (!reader.hasNext() || reader.peek() != JsonToken.STRING || !"wrb.fr".equals(reader.nextString())) {
+                return null;
+            }
+            if (!reader.hasNext()) {
+                return null;
+            }
+            reader.skipValue();
+            if (!reader.hasNext() || reader.peek() == JsonToken.NULL) {
+                return null;
+            }
+            return reader.nextString();
+        } catch (IOException e) {
+            throw new BardApiException("Parse chunk error", e);
+        }
+    }
+
+    @Override
+    public Answer parsePayload(String payload) {
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+            reader.beginArray();
+
+            reader.beginArray();
+            String content = reader.nextString();
+            skipRemaining(reader);
+
+            reader.beginArray();
+            String conversationId = reader.nextString();
+            String responseId = reader.nextString();
+            skipRemaining(reader);
+
+            return Answer.builder()
+                .answer(content)
+                .conversationId(conversationId)
+                .responseId(responseId)
+                .choiceId(readChoiceId(reader))
+                .detailsParser(() -> parseDetails(payload, content))
+                .build();
+        } catch (IOException e) {
+            throw new BardApiException("Parse payload error", e);
+        }
+    }
+
+    private String readChoiceId(JsonReader reader) throws IOException {
+        // Positions [2] and [3], then [4][0][0]
+        for (int i = 0; i < 2 && reader.hasNext(); i++) {
+            reader.skipValue();
+        }
+        if (!reader.hasNext()) {
+            return "";
+        }
+        try {
+            return readFirst(reader, 2);
+        } catch (TypeMismatch e) {
+            return "";
+        }
+    }
+
+    private Answer.Details parseDetails(String payload, String content) {
+        Answer.Details details = Answer.Details.builder()
+            .relatedTopics(new ArrayList<>())
+            .sources(new ArrayList<>())
+            .images(new ArrayList<>())
+            .build();
+
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+            reader.beginArray();
+            int position = 0;
+            while (reader.hasNext()) {
+                switch (position) {
+                    case 2:
+                        readRelatedTopics(reader, details);
+                        break;
+                    case 3:
+                        readFactualityQueriesAndSources(reader, details, content);
+                        break;
+                    case 4:
+                        readChoicesAndImages(reader, details);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+                position++;
+            }
+        } catch (IOException e) {
+            throw new BardApiException("Parse payload error", e);
+        }
+        return details;
+    }
+
+    // [2]: [[topic, num], ...], the text query is the first topic
+    private void readRelatedTopics(JsonReader reader, Answer.Details details) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        boolean failed = false;
+        for (int index = 0; reader.hasNext(); index++) {
+            if (failed || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                failed = true;
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            String topic = null;
+            Integer num = null;
+            for (int position = 0; reader.hasNext(); position++) {
+                try {
+                    if (position == 0) {
+                        topic = readString(reader);
+                    } else if (position == 1) {
+                        num = readInt(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                } catch (TypeMismatch e) {
+                    // leaves the value null
+                }
+            }
+            reader.endArray();
+
+            if (index == 0) {
+                details.setTextQuery(topic);
+            }
+            if (topic == null || num == null) {
+                failed = true;
+            } else {
+                details.getRelatedTopics().add(Answer.RelatedTopic.builder()
+                    .topic(topic)
+                    .num(num)
+                    .build());
+            }
+        }
+        reader.endArray();
+    }
+
+    // [3]: [[[start, end, [sourceLink, ...], ...], ...], ...], when all its values are strings they are factuality queries
+    private void readFactualityQueriesAndSources(JsonReader reader, Answer.Details details, String content)
+        throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        List<String> factualityQueries = new ArrayList<>();
+        for (int index = 0; reader.hasNext(); index++) {
+            JsonToken token = reader.peek();
+            if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+                if (factualityQueries != null) {
+                    factualityQueries.add(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+                continue;
+            }
+            factualityQueries = null;
+            if (index == 0 && token == JsonToken.BEGIN_ARRAY) {
+                readSources(reader, details.getSources(), content);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        details.setFactualityQueries(factualityQueries);
+    }
+
+    private void readSources(JsonReader reader, List<Answer.Source> sources, String content) throws IOException {
+        reader.beginArray();
+        boolean failed = false;
+        while (reader.hasNext()) {
+            if (failed || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                failed = true;
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            Integer start = null;
+            Integer end = null;
+            String sourceLink = null;
+            for (int position = 0; reader.hasNext(); position++) {
+                try {
+                    if (position == 0) {
+                        start = readInt(reader);
+                    } else if (position == 1) {
+                        end = readInt(reader);
+                    } else if (position == 2) {
+                        sourceLink = readFirst(reader, 1);
+                    } else {
+                        reader.skipValue();
+                    }
+                } catch (TypeMismatch e) {
+                    // leaves the value null
+                }
+            }
+            reader.endArray();
+
+            if (start == null || end == null || sourceLink == null
+                || start < 0 || end > content.length() || start > end) {
+                failed = true;
+            } else {
+                sources.add(Answer.Source.builder()
+                    .startIndexInAnswer(start)
+                    .endIndexInAnswer(end)
+                    .rawContentInAnswer(content.substring(start, end))
+                    .sourceLink(sourceLink)
+                    .build());
+            }
+        }
+        reader.endArray();
+    }
+
+    // [4]: [[choiceId, [content], _, _, images], ...], images are only read from the first choice
+    private void readChoicesAndImages(JsonReader reader, Answer.Details details) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        List<Answer.Choice> choices = new ArrayList<>();
+        for (int index = 0; reader.hasNext(); index++) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                choices = null;
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            String id = null;
+            String choiceContent = null;
+            for (int position = 0; reader.hasNext(); position++) {
+                try {
+                    if (position == 0) {
+                        id = readString(reader);
+                    } else if (position == 1) {
+                        choiceContent = readString(reader);
+                    } else if (position == 4 && index == 0) {
+                        readImages(reader, details.getImages());
+                    } else {
+                        reader.skipValue();
+                    }
+                } catch (TypeMismatch e) {
+                    // leaves the value null
+                }
+            }
+            reader.endArray();
+
+            if (id == null || choiceContent == null) {
+                choices = null;
+            } else if (choices != null) {
+                choices.add(Answer.Choice.builder()
+                    .id(id)
+                    .content(choiceContent)
+                    .build());
+            }
+        }
+        reader.endArray();
+        details.setChoices(choices);
+    }
+
+    // [[[[imageUrl]], [[detailsLink]], imageMarker], ...]
+    private void readImages(JsonReader reader, List<Answer.Image> images) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        boolean failed = false;
+        while (reader.hasNext()) {
+            if (failed || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                failed = true;
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            String imageUrl = null;
+            String detailsLink = null;
+            String imageMarker = null;
+            for (int position = 0; reader.hasNext(); position++) {
+                try {
+                    if (position == 0) {
+                        imageUrl = readFirst(reader, 2);
+                    } else if (position == 1) {
+                        detailsLink = readFirst(reader, 2);
+                    } else if (position == 2) {
+                        imageMarker = readString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                } catch (TypeMismatch e) {
+                    // leaves the value null
+                }
+            }
+            reader.endArray();
+
+            if (imageUrl == null || detailsLink == null || imageMarker == null) {
+                failed = true;
+            } else {
+                images.add(Answer.Image.builder()
+                    .imageUrl(imageUrl)
+                    .imageMarker(imageMarker)
+                    .detailsLink(detailsLink)
+                    .build());
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads the string at [0]...[0] of the next value, depth arrays deep.
+     */
+    private static String readFirst(JsonReader reader, int depth) throws IOException, TypeMismatch {
+        if (depth == 0) {
+            return readString(reader);
+        }
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            throw TYPE_MISMATCH;
+        }
+        reader.beginArray();
+        String value = null;
+        boolean mismatch = !reader.hasNext();
+        if (!mismatch) {
+            try {
+                value = readFirst(reader, depth - 1);
+            } catch (TypeMismatch e) {
+                mismatch = true;
+            }
+        }
+        skipRemaining(reader);
+        if (mismatch) {
+            throw TYPE_MISMATCH;
+        }
+        return value;
+    }
+
+    /**
+     * Reads the next value as a string, a one-element array is read as its element.
+     */
+    private static String readString(JsonReader reader) throws IOException, TypeMismatch {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                String value = null;
+                boolean mismatch = false;
+                int size = 0;
+                while (reader.hasNext()) {
+                    if (size == 0) {
+                        try {
+                            value = readString(reader);
+                        } catch (TypeMismatch e) {
+                            mismatch = true;
+                        }
+                    } else {
+                        reader.skipValue();
+                    }
+                    size++;
+                }
+                reader.endArray();
+                if (mismatch || size != 1) {
+                    throw TYPE_MISMATCH;
+                }
+                return value;
+            default:
+                reader.skipValue();
+                throw TYPE_MISMATCH;
+        }
+    }
+
+    private static int readInt(JsonReader reader) throws IOException, TypeMismatch {
+        String value = readString(reader);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            try {
+                return new BigDecimal(value).intValue();
+            } catch (NumberFormatException e2) {
+                throw TYPE_MISMATCH;
+            }
+        }
+    }
+
+    /**
+     * Skips the remaining values of the current array, and closes it.
+     */
+    private static void skipRemaining(JsonReader reader) throws IOException {
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+    }
+}
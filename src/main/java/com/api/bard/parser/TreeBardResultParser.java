@@ -0,0 +1,193 @@
+package com.api.bard.parser;
+
+import com.api.bard.model.Answer;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parser which reads the payload into a Gson {@link JsonArray} tree, then navigates the tree.
+ */
+public class TreeBardResultParser implements BardResultParser {
+    private final Gson gson;
+
+    public TreeBardResultParser() {
+        this(new Gson());
+    }
+
+    public TreeBardResultParser(@NonNull Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String extractPayload(String chunk) {
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        JsonArray chunkJson = gson.fromJson(chunk, JsonArray.class).get(0).getAsJsonArray();
+        if (!"wrb.fr".equals(chunkJson.get(0).getAsString()) || chunkJson.size() < 3 || chunkJson.get(2).isJsonNull()) {
+            return null;
+        }
+        return chunkJson.get(2).getAsString();
+    }
+
+    @Override
+    public Answer parsePayload(String payload) {
+        JsonArray jsonElements = gson.fromJson(payload, JsonArray.class);
+
+        String content = jsonElements.get(0).getAsJsonArray().get(0).getAsString();
+        String conversationId = jsonElements.get(1).getAsJsonArray().get(0).getAsString();
+        String responseId = jsonElements.get(1).getAsJsonArray().get(1).getAsString();
+
+        return Answer.builder()
+            .answer(content)
+            .conversationId(conversationId)
+            .responseId(responseId)
+            .choiceId(parseChoiceId(jsonElements))
+            // The payload string is much smaller than its json tree, so the tree is not kept for the details
+            .detailsParser(() -> parseDetails(gson.fromJson(payload, JsonArray.class), content))
+            .build();
+    }
+
+    private Answer.Details parseDetails(JsonArray jsonElements, String content) {
+        return Answer.Details.builder()
+            .factualityQueries(parseFactualityQueries(jsonElements))
+            .textQuery(parseTextQuery(jsonElements))
+            .choices(parseChoices(jsonElements))
+            .images(parseImages(jsonElements))
+            .sources(parseSources(jsonElements, content))
+            .relatedTopics(parseRelationTopics(jsonElements))
+            .build();
+    }
+
+    private String parseChoiceId(JsonArray jsonElements) {
+        String choiceId = "";
+        try {
+            choiceId = jsonElements.get(4).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
+        } catch (Exception e) {
+            // pass
+        }
+        return choiceId;
+    }
+
+    private List<String> parseFactualityQueries (JsonArray jsonElements) {
+        List<String> factualityQueries = null;
+        try {
+            factualityQueries = jsonElements.get(3)
+                .getAsJsonArray().asList().stream()
+                .map(JsonElement::getAsString)
+                .collect(Collectors.toList());
+        } catch (Exception e) {
+            // pass
+        }
+        return factualityQueries;
+    }
+
+    private String parseTextQuery(JsonArray jsonElements) {
+        String textQuery = null;
+        try {
+            textQuery = jsonElements.get(2).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
+        } catch (Exception e) {
+            // pass
+        }
+        return textQuery;
+    }
+
+    private List<Answer.Choice> parseChoices(JsonArray jsonElements) {
+        List<Answer.Choice> choices = null;
+        try {
+            choices = jsonElements.get(4).getAsJsonArray().asList().stream()
+                .map(x -> {
+                    JsonArray jsonArray = x.getAsJsonArray();
+                    return Answer.Choice.builder()
+                        .id(jsonArray.get(0).getAsString())
+                        .content(jsonArray.get(1).getAsString())
+                        .build();
+                })
+                .collect(Collectors.toList());
+        } catch (Exception e) {
+            // pass
+        }
+        return choices;
+    }
+
+    private List<Answer.Image> parseImages(JsonArray jsonElements) {
+        List<Answer.Image> images = null;
+        try {
+            images = new ArrayList<>();
+            JsonArray imagesJson = jsonElements.get(4).getAsJsonArray().get(0).getAsJsonArray().get(4).getAsJsonArray();
+
+            for (int i = 0; i < imagesJson.size(); i++) {
+                JsonArray imageJson = imagesJson.get(i).getAsJsonArray();
+                String url = imageJson.get(0).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
+                String markdownLabel = imageJson.get(2).getAsString();
+                String articleURL = imageJson.get(1).getAsJsonArray().get(0).getAsJsonArray().get(0).getAsString();
+
+                Answer.Image image = Answer.Image.builder()
+                    .imageUrl(url)
+                    .imageMarker(markdownLabel)
+                    .detailsLink(articleURL)
+                    .build();
+                images.add(image);
+            }
+        } catch (Exception e) {
+            //pass
+        }
+        return images;
+    }
+
+    private List<Answer.Source> parseSources(JsonArray jsonElements, String content) {
+        List<Answer.Source> sources = null;
+        try {
+            sources = new ArrayList<>();
+            JsonArray sourceArray = jsonElements.get(3).getAsJsonArray().get(0).getAsJsonArray();
+
+            for (int i = 0; i < sourceArray.size(); i++) {
+                JsonArray imageJson = sourceArray.get(i).getAsJsonArray();
+                int startIndexInAnswer = imageJson.get(0).getAsInt();
+                int endIndexInAnswer = imageJson.get(1).getAsInt();
+                String source = imageJson.get(2).getAsJsonArray().get(0).getAsString();
+
+                Answer.Source sourceObj = Answer.Source.builder()
+                    .startIndexInAnswer(startIndexInAnswer)
+                    .endIndexInAnswer(endIndexInAnswer)
+                    .rawContentInAnswer(content.substring(startIndexInAnswer, endIndexInAnswer))
+                    .sourceLink(source)
+                    .build();
+                sources.add(sourceObj);
+            }
+        } catch (Exception e) {
+            //pass
+        }
+        return sources;
+    }
+
+    private List<Answer.RelatedTopic> parseRelationTopics(JsonArray jsonElements) {
+        List<Answer.RelatedTopic> relatedTopics = null;
+        try {
+            relatedTopics = new ArrayList<>();
+            JsonArray imagesJson = jsonElements.get(2).getAsJsonArray();
+
+            for (int i = 0; i < imagesJson.size(); i++) {
+                JsonArray imageJson = imagesJson.get(i).getAsJsonArray();
+                String topic = imageJson.get(0).getAsString();
+                int num = imageJson.get(1).getAsInt();
+
+                Answer.RelatedTopic relatedTopic = Answer.RelatedTopic.builder()
+                    .topic(topic)
+                    .num(num)
+                    .build();
+
+                relatedTopics.add(relatedTopic);
+            }
+        } catch (Exception e) {
+            //pass
+        }
+        return relatedTopics;
+    }
+}
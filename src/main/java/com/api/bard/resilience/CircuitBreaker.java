@@ -0,0 +1,296 @@
+package com.api.bard.resilience;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops sending requests to bard while it is failing or slow, so callers fail fast instead of piling up threads.
+ * <p>
+ * While CLOSED, the outcome of the last slidingWindowSize calls is recorded. Once at least minimumCalls were made,
+ * the breaker opens when the share of failed calls reaches failureRateThreshold, or the share of calls slower than
+ * slowCallDuration reaches slowCallRateThreshold. While OPEN, calls are refused. After openDuration the breaker is
+ * HALF_OPEN and lets halfOpenCalls probe calls through: it closes if all of them succeed in time, else opens again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Value
+    public static class StateChange {
+        State from;
+        State to;
+    }
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final List<Consumer<StateChange>> listeners;
+
+    // Outcomes of the last calls while closed, as a ring buffer
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int recordedCalls;
+    private int nextCall;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private CircuitBreaker(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.slidingWindowSize);
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.nanoClock = builder.nanoClock;
+        this.listeners = new CopyOnWriteArrayList<>(builder.listeners);
+        this.failedCalls = new boolean[builder.slidingWindowSize];
+        this.slowCalls = new boolean[builder.slidingWindowSize];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1;
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+        private LongSupplier nanoClock = System::nanoTime;
+        private final List<Consumer<StateChange>> listeners = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Share of failed calls (IOException, 5xx) which opens the breaker, 0.5 by default.
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = rate(failureRateThreshold, "failureRateThreshold");
+            return this;
+        }
+
+        /**
+         * Share of slow calls which opens the breaker, 1 by default (opens when all calls are slow).
+         */
+        public Builder slowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = rate(slowCallRateThreshold, "slowCallRateThreshold");
+            return this;
+        }
+
+        /**
+         * Calls taking longer than that are slow, 30s by default.
+         */
+        public Builder slowCallDuration(@NonNull Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * Number of last calls the rates are computed on, 20 by default.
+         */
+        public Builder slidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = positive(slidingWindowSize, "slidingWindowSize");
+            return this;
+        }
+
+        /**
+         * Calls needed before the rates are checked, 10 by default.
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = positive(minimumCalls, "minimumCalls");
+            return this;
+        }
+
+        /**
+         * How long calls are refused once the breaker opened, 30s by default.
+         */
+        public Builder openDuration(@NonNull Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Probe calls let through while half open, 3 by default.
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = positive(halfOpenCalls, "halfOpenCalls");
+            return this;
+        }
+
+        /**
+         * Called on every state change, e.g. to shed load while the breaker is open.
+         * Listeners run on the thread which caused the change and must not block.
+         */
+        public Builder listener(@NonNull Consumer<StateChange> listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        Builder nanoClock(@NonNull LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+
+        private static double rate(double value, String name) {
+            if (value <= 0 || value > 1) {
+                throw new IllegalArgumentException(name + " must be in (0, 1]");
+            }
+            return value;
+        }
+
+        private static int positive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Adds a listener of the state changes, see {@link Builder#listener(Consumer)}.
+     */
+    public void addListener(@NonNull Consumer<StateChange> listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return whether a call may be made now; the caller then reports its outcome with
+     * {@link #onSuccess(long)} or {@link #onFailure(long)}
+     */
+    public boolean tryAcquire() {
+        StateChange change = null;
+        boolean permitted;
+        synchronized (this) {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+                change = transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                permitted = true;
+            } else if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+                halfOpenPermits++;
+                permitted = true;
+            } else {
+                permitted = false;
+            }
+        }
+        notify(change);
+        return permitted;
+    }
+
+    /**
+     * Records a call which got a response.
+     *
+     * @param durationNanos how long the call took
+     */
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param durationNanos how long the call took
+     */
+    public void onFailure(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    private void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos > slowCallNanos;
+        StateChange change = null;
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                if (failed || slow) {
+                    change = transition(State.OPEN);
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    change = transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                addToWindow(failed, slow);
+                if (recordedCalls >= minimumCalls && (failedCount >= failureRateThreshold * recordedCalls
+                    || slowCount >= slowCallRateThreshold * recordedCalls)) {
+                    change = transition(State.OPEN);
+                }
+            }
+            // Calls made before the breaker opened are ignored
+        }
+        notify(change);
+    }
+
+    private void addToWindow(boolean failed, boolean slow) {
+        if (recordedCalls == failedCalls.length) {
+            failedCount -= failedCalls[nextCall] ? 1 : 0;
+            slowCount -= slowCalls[nextCall] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextCall] = failed;
+        slowCalls[nextCall] = slow;
+        failedCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        nextCall = (nextCall + 1) % failedCalls.length;
+    }
+
+    private StateChange transition(State to) {
+        StateChange change = new StateChange(state, to);
+        state = to;
+        if (to == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (to == State.HALF_OPEN) {
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        } else {
+            recordedCalls = 0;
+            nextCall = 0;
+            failedCount = 0;
+            slowCount = 0;
+        }
+        return change;
+    }
+
+    private void notify(StateChange change) {
+        if (change == null) {
+            return;
+        }
+        log.warn("Circuit breaker of bard requests changed from {} to {}", change.getFrom(), change.getTo());
+        for (Consumer<StateChange> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                log.warn("Circuit breaker listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.api.bard.resilience;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * When a slow request to bard is sent a second time, the first response of the two being used.
+ * <p>
+ * The hedge delay is the given percentile (p95 by default) of the latencies of the last windowSize responses,
+ * clamped between minDelay and maxDelay, so only the slowest requests are hedged. Until minimumSamples
+ * responses were seen, initialDelay is used. Every request adds budget tokens to a bucket (holding at most
+ * maxBurst tokens) and every hedge takes one, so hedges stay below budget times the requests sent.
+ * <p>
+ * Blocking and async requests have a window each: a transport may complete async requests only once the whole
+ * body was received (as {@link com.api.bard.transport.PooledBardTransport} does) and blocking ones with the
+ * headers, so their latencies are not comparable.
+ * <p>
+ * Share one policy between the clients of an account so their latencies and budget are counted together.
+ */
+public class HedgingPolicy {
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long initialDelayNanos;
+    private final int minimumSamples;
+    private final double budget;
+    private final double maxBurst;
+
+    // Percentile of the latencies, computed again every recomputeEvery samples
+    private final int recomputeEvery;
+    private final Window blocking;
+    private final Window async;
+
+    private double tokens;
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.maxDelayNanos = Math.max(minDelayNanos, builder.maxDelay.toNanos());
+        this.initialDelayNanos = builder.initialDelay.toNanos();
+        this.minimumSamples = Math.min(builder.minimumSamples, builder.windowSize);
+        this.budget = builder.budget;
+        this.maxBurst = builder.maxBurst;
+        this.recomputeEvery = Math.max(1, builder.windowSize / 10);
+        this.blocking = new Window(builder.windowSize);
+        this.async = new Window(builder.windowSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(50);
+        private Duration maxDelay = Duration.ofSeconds(10);
+        private Duration initialDelay = Duration.ofSeconds(2);
+        private int windowSize = 200;
+        private int minimumSamples = 20;
+        private double budget = 0.05;
+        private int maxBurst = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Percentile of the recent latencies after which a request is hedged, 0.95 by default.
+         */
+        public Builder percentile(double percentile) {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile must be in (0, 1]");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Shortest hedge delay, 50ms by default.
+         */
+        public Builder minDelay(@NonNull Duration minDelay) {
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * Longest hedge delay, 10s by default.
+         */
+        public Builder maxDelay(@NonNull Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Hedge delay until minimumSamples latencies were recorded, 2s by default.
+         */
+        public Builder initialDelay(@NonNull Duration initialDelay) {
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Number of last latencies the percentile is computed on, 200 by default.
+         */
+        public Builder windowSize(int windowSize) {
+            this.windowSize = positive(windowSize, "windowSize");
+            return this;
+        }
+
+        /**
+         * Latencies needed before the percentile is used, 20 by default.
+         */
+        public Builder minimumSamples(int minimumSamples) {
+            this.minimumSamples = positive(minimumSamples, "minimumSamples");
+            return this;
+        }
+
+        /**
+         * Hedges allowed per request sent, 0.05 by default (at most 5% more requests).
+         */
+        public Builder budget(double budget) {
+            if (budget < 0 || budget > 1) {
+                throw new IllegalArgumentException("budget must be in [0, 1]");
+            }
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Most hedges which can be sent in a row once budget was saved up, 10 by default.
+         */
+        public Builder maxBurst(int maxBurst) {
+            this.maxBurst = positive(maxBurst, "maxBurst");
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+
+        private static int positive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Counts a request about to be sent, adding to the hedge budget.
+     *
+     * @param async whether the request is sent with executeAsync
+     * @return nanoseconds to wait for a response before hedging it
+     */
+    public synchronized long onRequest(boolean async) {
+        requests++;
+        tokens = Math.min(maxBurst, tokens + budget);
+        return window(async).delayNanos;
+    }
+
+    /**
+     * Takes a hedge out of the budget.
+     *
+     * @return false when the budget is spent and the request must not be hedged
+     */
+    public synchronized boolean tryAcquireHedge() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        hedges++;
+        return true;
+    }
+
+    /**
+     * Records the time a request (first attempt or hedge) took to get its response.
+     *
+     * @param async whether the request was sent with executeAsync
+     */
+    public synchronized void recordLatency(long latencyNanos, boolean async) {
+        window(async).record(latencyNanos);
+    }
+
+    /**
+     * Records a hedge answered before the request it duplicated.
+     */
+    public synchronized void onHedgeWon() {
+        hedgeWins++;
+    }
+
+    /**
+     * @param async whether for requests sent with executeAsync
+     */
+    public synchronized long getDelayNanos(boolean async) {
+        return window(async).delayNanos;
+    }
+
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    public synchronized long getHedgeCount() {
+        return hedges;
+    }
+
+    public synchronized long getHedgeWinCount() {
+        return hedgeWins;
+    }
+
+    private Window window(boolean async) {
+        return async ? this.async : blocking;
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, nanos));
+    }
+
+    /**
+     * Latencies of the last responses of one kind of request, as a ring buffer. Guarded by the policy.
+     */
+    private final class Window {
+        private final long[] latencies;
+        private int recorded;
+        private int next;
+        private int sinceComputed;
+        private long delayNanos = clamp(initialDelayNanos);
+
+        Window(int size) {
+            this.latencies = new long[size];
+        }
+
+        void record(long latencyNanos) {
+            latencies[next] = latencyNanos;
+            next = (next + 1) % latencies.length;
+            if (recorded < latencies.length) {
+                recorded++;
+            }
+            if (recorded >= minimumSamples && ++sinceComputed >= recomputeEvery) {
+                sinceComputed = 0;
+                long[] sorted = Arrays.copyOf(latencies, recorded);
+                Arrays.sort(sorted);
+                int rank = (int) Math.ceil(percentile * recorded) - 1;
+                delayNanos = clamp(sorted[Math.max(0, rank)]);
+            }
+        }
+    }
+}
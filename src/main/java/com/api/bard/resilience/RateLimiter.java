@@ -0,0 +1,160 @@
+package com.api.bard.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the requests sent to bard, share one instance between the clients of one token
+ * (or account) to limit them together.
+ * <p>
+ * Permits are refilled at permitsPerSecond, up to burst permits are stored while idle. Callers reserve a permit
+ * and wait the returned delay themselves, so async callers never block a thread.
+ * In adaptive mode, the rate is halved (down to minPermitsPerSecond) when bard throttles requests,
+ * and slowly raised back to permitsPerSecond on every successful request.
+ */
+public class RateLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // A throttled burst lowers the rate only once
+    private static final long DECREASE_INTERVAL_NANOS = NANOS_PER_SECOND;
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final boolean adaptive;
+
+    private double rate;
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+
+    private RateLimiter(Builder builder) {
+        this.maxRate = builder.permitsPerSecond;
+        this.minRate = Math.min(builder.minPermitsPerSecond, builder.permitsPerSecond);
+        this.burst = builder.burst;
+        this.adaptive = builder.adaptive;
+        this.rate = maxRate;
+        this.storedPermits = burst;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private double permitsPerSecond = 1;
+        private double burst = 1;
+        private boolean adaptive;
+        private double minPermitsPerSecond = 0.1;
+
+        private Builder() {
+        }
+
+        /**
+         * Steady rate of requests, 1 per second by default.
+         */
+        public Builder permitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = positive(permitsPerSecond, "permitsPerSecond");
+            return this;
+        }
+
+        /**
+         * Requests which can be sent at once after being idle, 1 by default.
+         */
+        public Builder burst(int burst) {
+            this.burst = positive(burst, "burst");
+            return this;
+        }
+
+        /**
+         * Whether the rate adapts to throttling by bard, false by default.
+         */
+        public Builder adaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+            return this;
+        }
+
+        /**
+         * Lowest rate of the adaptive mode, 0.1 per second by default.
+         */
+        public Builder minPermitsPerSecond(double minPermitsPerSecond) {
+            this.minPermitsPerSecond = positive(minPermitsPerSecond, "minPermitsPerSecond");
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+
+        private static double positive(double value, String name) {
+            if (!(value > 0)) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Takes a permit.
+     *
+     * @return nanoseconds to wait before sending the request, 0 when it can be sent right away
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        if (now - nextFreeNanos > 0) {
+            storedPermits = Math.min(burst, storedPermits + (now - nextFreeNanos) * rate / NANOS_PER_SECOND);
+            nextFreeNanos = now;
+        }
+
+        long waitNanos = nextFreeNanos - now;
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+        } else {
+            nextFreeNanos += (long) ((1 - storedPermits) * NANOS_PER_SECOND / rate);
+            storedPermits = 0;
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Takes a permit, waiting until it is available.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Called when bard throttled a request (429), lowers the rate in adaptive mode.
+     */
+    public synchronized void onThrottled() {
+        if (!adaptive) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (decreased && now - lastDecreaseNanos < DECREASE_INTERVAL_NANOS) {
+            return;
+        }
+        rate = Math.max(minRate, rate / 2);
+        lastDecreaseNanos = now;
+        decreased = true;
+    }
+
+    /**
+     * Called when bard accepted a request, raises a lowered rate back in adaptive mode.
+     */
+    public synchronized void onSuccess() {
+        if (adaptive && rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate / 50);
+        }
+    }
+
+    /**
+     * @return current rate in permits per second
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+}
@@ -0,0 +1,126 @@
+package com.api.bard.resilience;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and after how long a failed request to bard is sent again.
+ * <p>
+ * Requests failing with a retryable status code (429 and 5xx by default) or an IOException are retried up to
+ * maxAttempts in total, waiting a random delay between 0 and initialBackoff * 2^(attempt - 1), capped at maxBackoff
+ * ("full jitter", so clients throttled together do not retry together). A Retry-After sent by bard is respected.
+ */
+public class RetryPolicy {
+    public static final RetryPolicy DEFAULT = builder().build();
+    // Sends every request once
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Set<Integer> retryableCodes;
+    private final boolean retryOnIOException;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.retryableCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableCodes));
+        this.retryOnIOException = builder.retryOnIOException;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofSeconds(20);
+        private Set<Integer> retryableCodes = new HashSet<>(Arrays.asList(429, 500, 502, 503, 504));
+        private boolean retryOnIOException = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Most times a request is sent, including the first one, 3 by default.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maxAttempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Upper bound of the first delay, doubled on every retry, 500ms by default.
+         */
+        public Builder initialBackoff(@NonNull Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * Upper bound of every delay, 20s by default.
+         */
+        public Builder maxBackoff(@NonNull Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Status codes which are retried, 429, 500, 502, 503 and 504 by default.
+         */
+        public Builder retryableCodes(@NonNull Set<Integer> retryableCodes) {
+            this.retryableCodes = new HashSet<>(retryableCodes);
+            return this;
+        }
+
+        /**
+         * Whether requests failing with an IOException (connection reset, timeout...) are retried, true by default.
+         */
+        public Builder retryOnIOException(boolean retryOnIOException) {
+            this.retryOnIOException = retryOnIOException;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryable(int code) {
+        return retryableCodes.contains(code);
+    }
+
+    public boolean isRetryOnIOException() {
+        return retryOnIOException;
+    }
+
+    /**
+     * @param attempt         number of the attempt which just failed, starting from 1
+     * @param retryAfterNanos delay asked by bard with Retry-After, or 0
+     * @return nanoseconds to wait before the next attempt
+     */
+    public long backoffNanos(int attempt, long retryAfterNanos) {
+        long ceiling = initialBackoffNanos;
+        for (int i = 1; i < attempt && ceiling < maxBackoffNanos; i++) {
+            ceiling *= 2;
+        }
+        ceiling = Math.min(ceiling, maxBackoffNanos);
+        long backoff = ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(backoff, Math.min(retryAfterNanos, maxBackoffNanos));
+    }
+}
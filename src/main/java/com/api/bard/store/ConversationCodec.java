@@ -0,0 +1,110 @@
+package com.api.bard.store;
+
+import com.api.bard.model.ConversationState;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of {@link StoredConversation}, about 70 bytes with ids of bard: a version byte, the three ids
+ * as varint length prefixed UTF-8, lastAnswerAt and turns as varints, then a flags byte.
+ */
+public final class ConversationCodec {
+    private static final byte VERSION = 1;
+    private static final int USED_TRANSLATOR = 1;
+
+    private ConversationCodec() {
+    }
+
+    public static byte[] encode(StoredConversation conversation) {
+        ConversationState state = conversation.getState();
+        byte[] conversationId = state.getConversationId().getBytes(StandardCharsets.UTF_8);
+        byte[] responseId = state.getResponseId().getBytes(StandardCharsets.UTF_8);
+        byte[] choiceId = state.getChoiceId().getBytes(StandardCharsets.UTF_8);
+
+        // Upper bound: 5 bytes per length varint, 10 for lastAnswerAt and turns
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 15 + conversationId.length + responseId.length + choiceId.length
+            + 20 + 1);
+        buffer.put(VERSION);
+        writeBytes(buffer, conversationId);
+        writeBytes(buffer, responseId);
+        writeBytes(buffer, choiceId);
+        writeVarLong(buffer, conversation.getLastAnswerAt());
+        writeVarLong(buffer, conversation.getTurns());
+        buffer.put((byte) (conversation.isUsedTranslator() ? USED_TRANSLATOR : 0));
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded conversation
+     */
+    public static StoredConversation decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    private static StoredConversation decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown conversation encoding version " + version);
+            }
+            ConversationState state = ConversationState.builder()
+                .conversationId(readString(buffer))
+                .responseId(readString(buffer))
+                .choiceId(readString(buffer))
+                .build();
+            long lastAnswerAt = readVarLong(buffer);
+            int turns = (int) readVarLong(buffer);
+            int flags = buffer.get();
+            return StoredConversation.builder()
+                .state(state)
+                .lastAnswerAt(lastAnswerAt)
+                .turns(turns)
+                .usedTranslator((flags & USED_TRANSLATOR) != 0)
+                .build();
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Malformed encoded conversation", e);
+        }
+    }
+
+    private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+        writeVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed encoded conversation, string length " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Negative values take 10 bytes, they are not expected here
+    static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
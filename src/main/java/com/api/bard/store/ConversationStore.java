@@ -0,0 +1,33 @@
+package com.api.bard.store;
+
+import java.io.Closeable;
+
+/**
+ * Keeps the state of conversations by session id, so a conversation can be continued after a restart
+ * or on another node with {@code BardClient.resumeSession(sessionId)}.
+ * <p>
+ * {@link InMemoryConversationStore} keeps them on the heap, {@link MappedFileConversationStore} in a local file.
+ * Implement this interface to keep them in a store shared by the whole fleet, {@link ConversationCodec} gives
+ * a compact encoding of the values. Implementations must be thread safe.
+ */
+public interface ConversationStore extends Closeable {
+
+    /**
+     * @return the conversation saved under the session id, or null
+     */
+    StoredConversation load(String sessionId);
+
+    /**
+     * Saves the conversation under the session id, replacing the previous one.
+     */
+    void save(String sessionId, StoredConversation conversation);
+
+    void delete(String sessionId);
+
+    /**
+     * Releases the resources of the store, nothing by default.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.bard.store;
+
+import lombok.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps conversations on the heap, encoded with {@link ConversationCodec}. They do not survive a restart,
+ * use it for tests or as a local store in front of which nothing else is needed.
+ */
+public class InMemoryConversationStore implements ConversationStore {
+    private final ConcurrentMap<String, byte[]> conversations = new ConcurrentHashMap<>();
+
+    @Override
+    public StoredConversation load(@NonNull String sessionId) {
+        byte[] encoded = conversations.get(sessionId);
+        return encoded == null ? null : ConversationCodec.decode(encoded);
+    }
+
+    @Override
+    public void save(@NonNull String sessionId, @NonNull StoredConversation conversation) {
+        conversations.put(sessionId, ConversationCodec.encode(conversation));
+    }
+
+    @Override
+    public void delete(@NonNull String sessionId) {
+        conversations.remove(sessionId);
+    }
+
+    public int size() {
+        return conversations.size();
+    }
+}
@@ -0,0 +1,342 @@
+package com.api.bard.store;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps conversations in a local file mapped in memory, so they survive restarts of the process and are looked up
+ * without any read system call.
+ * <p>
+ * The file is a log: saving or deleting a conversation appends a record, and an index of the last record of each
+ * session id is kept on the heap (rebuilt from the file when it is opened). The header holds the end of the last
+ * complete record, written after the record, so a record cut by a crash is ignored. Once more than half of the
+ * file is replaced records, the live ones are copied to a new file which replaces it.
+ * <p>
+ * One process at a time can open a file, the others fail to open it. To share conversations between nodes,
+ * implement {@link ConversationStore} on top of a shared store instead.
+ */
+@Slf4j
+public class MappedFileConversationStore implements ConversationStore {
+    private static final int MAGIC = 0x42435331;
+    private static final int FORMAT_VERSION = 1;
+    // magic, format version, end of the last record
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+    // length of the rest of the record, type, length of the session id
+    private static final int RECORD_HEADER_SIZE = 7;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path file;
+    private final int initialSize;
+    private final boolean syncWrites;
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    // Offset of the last record of each session id, deleted ones excluded
+    private final Map<String, Integer> index = new HashMap<>();
+    private int end;
+    // Size of the records in the index
+    private long liveBytes;
+    private boolean closed;
+
+    private MappedFileConversationStore(Builder builder) throws IOException {
+        this.file = builder.file;
+        this.initialSize = builder.initialSize;
+        this.syncWrites = builder.syncWrites;
+        open();
+    }
+
+    public static Builder builder(@NonNull Path file) {
+        return new Builder(file);
+    }
+
+    public static class Builder {
+        private final Path file;
+        private int initialSize = 1024 * 1024;
+        private boolean syncWrites;
+
+        private Builder(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Size the file is mapped with at first, 1MB by default. The mapping doubles when it is full.
+         */
+        public Builder initialSize(int initialSize) {
+            if (initialSize < HEADER_SIZE) {
+                throw new IllegalArgumentException("initialSize must be at least " + HEADER_SIZE);
+            }
+            this.initialSize = initialSize;
+            return this;
+        }
+
+        /**
+         * Whether every save or delete is forced to the disk before returning, false by default.
+         * Without it, writes survive a crash of the process but not of the machine.
+         */
+        public Builder syncWrites(boolean syncWrites) {
+            this.syncWrites = syncWrites;
+            return this;
+        }
+
+        /**
+         * Opens the file, creating it if needed.
+         *
+         * @throws UncheckedIOException if the file can not be opened, e.g. it is used by another process
+         */
+        public MappedFileConversationStore build() {
+            try {
+                return new MappedFileConversationStore(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Open conversation store " + file + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized StoredConversation load(@NonNull String sessionId) {
+        checkOpen();
+        Integer offset = index.get(sessionId);
+        if (offset == null) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        int keyLength = buffer.getShort(offset + 5) & 0xFFFF;
+        byte[] value = new byte[length - 3 - keyLength];
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset + RECORD_HEADER_SIZE + keyLength);
+        record.get(value);
+        return ConversationCodec.decode(value);
+    }
+
+    @Override
+    public synchronized void save(@NonNull String sessionId, @NonNull StoredConversation conversation) {
+        checkOpen();
+        append(PUT, sessionId, ConversationCodec.encode(conversation));
+    }
+
+    @Override
+    public synchronized void delete(@NonNull String sessionId) {
+        checkOpen();
+        if (index.containsKey(sessionId)) {
+            append(DELETE, sessionId, new byte[0]);
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return size of the records in the file, including replaced ones not compacted yet
+     */
+    public synchronized long fileBytes() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            buffer.force();
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Close conversation store " + file + " failed", e);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Opened by another store of this process
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Conversation store " + file + " is used by another process");
+            }
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Conversation store " + file + " is larger than 2GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, initialSize));
+            if (size == 0) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                setEnd(HEADER_SIZE);
+            } else {
+                readIndex();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readIndex() throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " is not a conversation store");
+        }
+        end = (int) buffer.getLong(END_OFFSET);
+        int offset = HEADER_SIZE;
+        while (offset < end) {
+            int length = buffer.getInt(offset);
+            byte type = buffer.get(offset + 4);
+            int keyLength = buffer.getShort(offset + 5) & 0xFFFF;
+            byte[] key = new byte[keyLength];
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER_SIZE);
+            record.get(key);
+            String sessionId = new String(key, StandardCharsets.UTF_8);
+
+            remove(sessionId);
+            if (type == PUT) {
+                index.put(sessionId, offset);
+                liveBytes += 4 + length;
+            }
+            offset += 4 + length;
+        }
+    }
+
+    private void append(byte type, String sessionId, byte[] value) {
+        byte[] key = sessionId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > 0xFFFF) {
+            throw new IllegalArgumentException("Session id is longer than 65535 bytes");
+        }
+        int recordSize = RECORD_HEADER_SIZE + key.length + value.length;
+        ensureCapacity(recordSize);
+
+        int offset = end;
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        record.putInt(recordSize - 4);
+        record.put(type);
+        record.putShort((short) key.length);
+        record.put(key);
+        record.put(value);
+        if (syncWrites) {
+            buffer.force();
+        }
+        setEnd(offset + recordSize);
+
+        remove(sessionId);
+        if (type == PUT) {
+            index.put(sessionId, offset);
+            liveBytes += recordSize;
+        }
+        if (end > initialSize && end - HEADER_SIZE > 2 * liveBytes) {
+            compact();
+        }
+    }
+
+    private void remove(String sessionId) {
+        Integer previous = index.remove(sessionId);
+        if (previous != null) {
+            liveBytes -= 4 + buffer.getInt(previous);
+        }
+    }
+
+    private void setEnd(int end) {
+        this.end = end;
+        buffer.putLong(END_OFFSET, end);
+        if (syncWrites) {
+            buffer.force();
+        }
+    }
+
+    private void ensureCapacity(int recordSize) {
+        long required = (long) end + recordSize;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Conversation store " + file + " is full");
+        }
+        long capacity = Math.min(Math.max((long) buffer.capacity() * 2, required), Integer.MAX_VALUE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Grow conversation store " + file + " failed", e);
+        }
+    }
+
+    /**
+     * Copies the live records to a new file, which then replaces the store's file.
+     */
+    private void compact() {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            writeLiveRecords(compacted);
+        } catch (IOException e) {
+            // The store's file is still complete, compaction is tried again on a later write
+            log.warn("Compact conversation store {} failed", file, e);
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException ignored) {
+                // Overwritten by the next compaction
+            }
+            return;
+        }
+
+        try {
+            // Released before the rename, the lock of the new file is taken right after
+            lock.release();
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.clear();
+            liveBytes = 0;
+            open();
+        } catch (IOException e) {
+            closed = true;
+            throw new UncheckedIOException("Replace conversation store " + file + " by its compacted copy failed", e);
+        }
+    }
+
+    private void writeLiveRecords(Path compacted) throws IOException {
+        Files.deleteIfExists(compacted);
+        try (FileChannel compactedChannel = FileChannel.open(compacted,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(initialSize, HEADER_SIZE + liveBytes));
+            target.putInt(0, MAGIC);
+            target.putInt(4, FORMAT_VERSION);
+            target.position(HEADER_SIZE);
+            for (int offset : index.values()) {
+                ByteBuffer record = buffer.duplicate();
+                record.position(offset).limit(offset + 4 + buffer.getInt(offset));
+                target.put(record);
+            }
+            target.putLong(END_OFFSET, target.position());
+            target.force();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Conversation store " + file + " is closed");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.api.bard.store;
+
+import com.api.bard.model.ConversationState;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * State of a conversation kept by a {@link ConversationStore}: the ids bard needs to continue it,
+ * and metadata of its last answer.
+ */
+@Value
+@Builder(toBuilder = true)
+public class StoredConversation {
+    @NonNull
+    ConversationState state;
+    // when the last answer was received, in epoch millis
+    long lastAnswerAt;
+    // number of answers in the conversation
+    int turns;
+    // if the last answer was translated
+    boolean usedTranslator;
+}
@@ -0,0 +1,238 @@
+package com.api.bard.translator;
+
+import com.api.bard.exception.BardTranslateException;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Translator which remembers the results of another one, so repeated questions and answers
+ * skip the detectLanguage and translate round trips.
+ * <p>
+ * Detected languages and translations are held in two bounded LRU caches. Failed calls are not cached,
+ * and texts longer than maxTextLength are always passed on, to keep the caches small.
+ */
+public class CachingTranslator implements IBardTranslator {
+    private final IBardTranslator translator;
+    private final int maxTextLength;
+    private final Lru<String, String> detections;
+    private final Lru<TranslationKey, String> translations;
+
+    private CachingTranslator(Builder builder) {
+        this.translator = builder.translator;
+        this.maxTextLength = builder.maxTextLength;
+        this.detections = new Lru<>(builder.maximumDetections);
+        this.translations = new Lru<>(builder.maximumTranslations);
+    }
+
+    public static Builder builder(@NonNull IBardTranslator translator) {
+        return new Builder(translator);
+    }
+
+    public static class Builder {
+        private final IBardTranslator translator;
+        private int maximumDetections = 1000;
+        private int maximumTranslations = 1000;
+        private int maxTextLength = 10_000;
+
+        private Builder(IBardTranslator translator) {
+            this.translator = translator;
+        }
+
+        /**
+         * Most detected languages held at once, 1000 by default.
+         */
+        public Builder maximumDetections(int maximumDetections) {
+            this.maximumDetections = positive(maximumDetections, "maximumDetections");
+            return this;
+        }
+
+        /**
+         * Most translations held at once, 1000 by default.
+         */
+        public Builder maximumTranslations(int maximumTranslations) {
+            this.maximumTranslations = positive(maximumTranslations, "maximumTranslations");
+            return this;
+        }
+
+        /**
+         * Longest text whose results are cached, 10000 chars by default.
+         */
+        public Builder maxTextLength(int maxTextLength) {
+            this.maxTextLength = positive(maxTextLength, "maxTextLength");
+            return this;
+        }
+
+        public CachingTranslator build() {
+            return new CachingTranslator(this);
+        }
+
+        private static int positive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    @Value
+    private static class TranslationKey {
+        String sourceLang;
+        String targetLang;
+        String text;
+    }
+
+    @Value
+    @lombok.Builder
+    public static class Stats {
+        long detectionHitCount;
+        long detectionMissCount;
+        long translationHitCount;
+        long translationMissCount;
+        long evictionCount;
+    }
+
+    @Override
+    public String middleLanguage() {
+        return translator.middleLanguage();
+    }
+
+    @Override
+    public String detectLanguage(String rawText) {
+        if (rawText == null || rawText.length() > maxTextLength) {
+            return translator.detectLanguage(rawText);
+        }
+        return detections.get(rawText, translator::detectLanguage);
+    }
+
+    @Override
+    public String translate(String sourceLang, String targetLang, String rawText) {
+        if (rawText == null || rawText.length() > maxTextLength) {
+            return translator.translate(sourceLang, targetLang, rawText);
+        }
+        return translations.get(new TranslationKey(sourceLang, targetLang, rawText),
+            key -> translator.translate(key.getSourceLang(), key.getTargetLang(), key.getText()));
+    }
+
+    /**
+     * Looks every text up in the cache, and passes the missing ones on to the wrapped translator in one batch.
+     */
+    @Override
+    public List<String> translateAll(String sourceLang, String targetLang, List<String> rawTexts) {
+        List<String> results = new ArrayList<>(rawTexts.size());
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<String> missingTexts = new ArrayList<>();
+        for (String rawText : rawTexts) {
+            String translation = null;
+            if (rawText != null && rawText.length() <= maxTextLength) {
+                translation = translations.get(new TranslationKey(sourceLang, targetLang, rawText));
+            }
+            if (translation == null) {
+                missingIndexes.add(results.size());
+                missingTexts.add(rawText);
+            }
+            results.add(translation);
+        }
+        if (missingTexts.isEmpty()) {
+            return results;
+        }
+
+        List<String> missingTranslations = translator.translateAll(sourceLang, targetLang, missingTexts);
+        if (missingTranslations.size() != missingTexts.size()) {
+            throw new BardTranslateException("translateAll returned " + missingTranslations.size()
+                + " translations for " + missingTexts.size() + " texts");
+        }
+        for (int i = 0; i < missingTexts.size(); i++) {
+            String rawText = missingTexts.get(i);
+            String translation = missingTranslations.get(i);
+            results.set(missingIndexes.get(i), translation);
+            if (rawText != null && rawText.length() <= maxTextLength && translation != null) {
+                translations.put(new TranslationKey(sourceLang, targetLang, rawText), translation);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return counters since this translator was built
+     */
+    public Stats stats() {
+        return Stats.builder()
+            .detectionHitCount(detections.hitCount.sum())
+            .detectionMissCount(detections.missCount.sum())
+            .translationHitCount(translations.hitCount.sum())
+            .translationMissCount(translations.missCount.sum())
+            .evictionCount(detections.evictionCount.sum() + translations.evictionCount.sum())
+            .build();
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void invalidateAll() {
+        detections.clear();
+        translations.clear();
+    }
+
+    private static class Lru<K, V> {
+        private final LongAdder hitCount = new LongAdder();
+        private final LongAdder missCount = new LongAdder();
+        private final LongAdder evictionCount = new LongAdder();
+        private final LinkedHashMap<K, V> entries;
+
+        private Lru(int maximumSize) {
+            this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > maximumSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private V get(K key) {
+            synchronized (entries) {
+                V value = entries.get(key);
+                if (value != null) {
+                    hitCount.increment();
+                    return value;
+                }
+            }
+            missCount.increment();
+            return null;
+        }
+
+        private void put(K key, V value) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+
+        // The loader runs outside the lock, concurrent misses of one key may both call it
+        private V get(K key, Function<K, V> loader) {
+            V value = get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        }
+
+        private void clear() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+    }
+}
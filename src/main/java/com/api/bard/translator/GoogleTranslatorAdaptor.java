@@ -6,9 +6,15 @@ import lombok.NonNull;
 
 import java.io.IOException;
 import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
 
 public class GoogleTranslatorAdaptor implements IBardTranslator {
     private static final String DEFAULT_MIDDLE_LANGUAGE = "en";
+    // Google Translate keeps line breaks, so texts without any are sent in one request, one per line
+    private static final String SEPARATOR = "\n";
 
     private String middleLanguage;
 
@@ -71,4 +77,28 @@ public class GoogleTranslatorAdaptor implements IBardTranslator {
                 "sourceLang: " + sourceLang + ", targetLang: " + targetLang + ", rawText:{}" + rawText, e);
         }
     }
+
+    /**
+     * Translates all the texts in one request, joined one per line. Falls back to one request per text when a text
+     * holds a line break, or when the translation does not have one line per text.
+     */
+    @Override
+    public List<String> translateAll(String sourceLang, String targetLang, List<String> rawTexts) {
+        return translateJoined(rawTexts, rawText -> translate(sourceLang, targetLang, rawText));
+    }
+
+    static List<String> translateJoined(List<String> rawTexts, UnaryOperator<String> translate) {
+        if (rawTexts.size() > 1 && rawTexts.stream().noneMatch(rawText -> rawText.contains(SEPARATOR))) {
+            List<String> translations = Arrays.asList(translate.apply(String.join(SEPARATOR, rawTexts))
+                .split(SEPARATOR, -1));
+            if (translations.size() == rawTexts.size()) {
+                return translations;
+            }
+        }
+        List<String> translations = new ArrayList<>(rawTexts.size());
+        for (String rawText : rawTexts) {
+            translations.add(translate.apply(rawText));
+        }
+        return translations;
+    }
 }
@@ -1,5 +1,6 @@
 package com.api.bard.translator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -11,4 +12,17 @@ public interface IBardTranslator {
     String detectLanguage(String rawText);
 
     String translate(String sourceLang, String targetLang, String rawText);
+
+    /**
+     * Translates many texts between the same languages, the result holds the translations in the same order.
+     * Translators able to send many texts in one request should override it, by default texts are translated
+     * one by one.
+     */
+    default List<String> translateAll(String sourceLang, String targetLang, List<String> rawTexts) {
+        List<String> translations = new ArrayList<>(rawTexts.size());
+        for (String rawText : rawTexts) {
+            translations.add(translate(sourceLang, targetLang, rawText));
+        }
+        return translations;
+    }
 }
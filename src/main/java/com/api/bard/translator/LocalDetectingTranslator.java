@@ -0,0 +1,101 @@
+package com.api.bard.translator;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Translator which detects languages with a {@link LocalLanguageDetector} first, and only asks
+ * the translator it wraps when the local detection is not confident enough.
+ * Plain english, japanese or korean questions then need no remote call at all before being sent to bard.
+ */
+public class LocalDetectingTranslator implements IBardTranslator {
+    private final IBardTranslator translator;
+    private final LocalLanguageDetector detector;
+    private final double minConfidence;
+
+    private final LongAdder localCount = new LongAdder();
+    private final LongAdder remoteCount = new LongAdder();
+
+    private LocalDetectingTranslator(Builder builder) {
+        this.translator = builder.translator;
+        this.detector = builder.detector;
+        this.minConfidence = builder.minConfidence;
+    }
+
+    public static Builder builder(@NonNull IBardTranslator translator) {
+        return new Builder(translator);
+    }
+
+    public static class Builder {
+        private final IBardTranslator translator;
+        private LocalLanguageDetector detector = new LocalLanguageDetector();
+        private double minConfidence = 0.6;
+
+        private Builder(IBardTranslator translator) {
+            this.translator = translator;
+        }
+
+        public Builder detector(@NonNull LocalLanguageDetector detector) {
+            this.detector = detector;
+            return this;
+        }
+
+        /**
+         * Lowest confidence of a local detection to be used, 0.6 by default.
+         * Less confident texts are detected by the wrapped translator.
+         */
+        public Builder minConfidence(double minConfidence) {
+            if (minConfidence <= 0 || minConfidence > 1) {
+                throw new IllegalArgumentException("minConfidence must be in (0, 1]");
+            }
+            this.minConfidence = minConfidence;
+            return this;
+        }
+
+        public LocalDetectingTranslator build() {
+            return new LocalDetectingTranslator(this);
+        }
+    }
+
+    @Override
+    public String middleLanguage() {
+        return translator.middleLanguage();
+    }
+
+    @Override
+    public String detectLanguage(String rawText) {
+        LocalLanguageDetector.Detection detection = detector.detect(rawText);
+        if (detection.getLanguage() != null && detection.getConfidence() >= minConfidence) {
+            localCount.increment();
+            return detection.getLanguage();
+        }
+        remoteCount.increment();
+        return translator.detectLanguage(rawText);
+    }
+
+    @Override
+    public String translate(String sourceLang, String targetLang, String rawText) {
+        return translator.translate(sourceLang, targetLang, rawText);
+    }
+
+    @Override
+    public List<String> translateAll(String sourceLang, String targetLang, List<String> rawTexts) {
+        return translator.translateAll(sourceLang, targetLang, rawTexts);
+    }
+
+    /**
+     * @return how many detections were settled locally
+     */
+    public long getLocalCount() {
+        return localCount.sum();
+    }
+
+    /**
+     * @return how many detections were passed on to the wrapped translator
+     */
+    public long getRemoteCount() {
+        return remoteCount.sum();
+    }
+}
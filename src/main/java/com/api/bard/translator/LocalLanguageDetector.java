@@ -0,0 +1,217 @@
+package com.api.bard.translator;
+
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects the language of a text without any remote call, from the scripts of its letters and,
+ * for latin texts, from the character trigrams they share with common words of a few languages.
+ * <p>
+ * Only languages which can be told apart reliably are reported: Japanese, Korean and English,
+ * plus languages owning their script (Thai, Greek, Georgian, Armenian, Hebrew). Other texts, such as
+ * chinese or latin texts in other languages, are detected with confidence 0 and are left to a remote detector.
+ */
+public class LocalLanguageDetector {
+    // Below this many latin letters, confidence is scaled down
+    private static final int MIN_LATIN_LETTERS = 8;
+
+    private static final Map<Character.UnicodeScript, String> SCRIPT_LANGUAGES = new LinkedHashMap<>();
+
+    static {
+        SCRIPT_LANGUAGES.put(Character.UnicodeScript.THAI, "th");
+        SCRIPT_LANGUAGES.put(Character.UnicodeScript.GREEK, "el");
+        SCRIPT_LANGUAGES.put(Character.UnicodeScript.GEORGIAN, "ka");
+        SCRIPT_LANGUAGES.put(Character.UnicodeScript.ARMENIAN, "hy");
+        SCRIPT_LANGUAGES.put(Character.UnicodeScript.HEBREW, "iw");
+    }
+
+    // Frequent trigrams of each language, '_' marks a word boundary
+    private static final Set<String> ENGLISH_TRIGRAMS = trigrams(
+        "_th the he_ _wh who ho_ _an and nd_ _of of_ _to to_ ing ng_ _in in_ _a_ is_ _is ion tio ed_ "
+            + "_co re_ er_ _be _re at_ es_ on_ _yo you ou_ _it it_ hat tha _fo for or_ _ha ent _wi wit ith "
+            + "th_ ere her _ar are as_ _on ll_ _wa was ter _ca al_ _i_ _ma ly_ _so ve_ st_ _me _ho how ow_ "
+            + "_do _wo hy_ _my _ne _ge _pr _sh _ab abo out ut_ can an_ _wr _te _ex _pi _li _us ome _ki _we "
+            + "_at _ti _go thi his wha ght igh _kn kno now _gi giv mak ake ke_ _jo jok oke _pl ple _he hel "
+            + "elp lp_ wri exp lai ain _ye ur_ whe hen ey_ _sa say _ta tak oul uld ld_ sho _fr fro rom om_ "
+            + "wor ord _bu bui ild _ot oth ree ee_ _tw two _ea ach _sy ill _ri _si _ju _ve ery ry_ tel _ja "
+            + "ava");
+
+    private static final Map<String, Set<String>> OTHER_LATIN_TRIGRAMS = new LinkedHashMap<>();
+    private static final Set<String> DISTINCT_ENGLISH_TRIGRAMS;
+
+    static {
+        OTHER_LATIN_TRIGRAMS.put("fr", trigrams(
+            "_de de_ es_ _le le_ ent nt_ _la la_ _et et_ _qu que ue_ _un ion tio _pa _co _re re_ _po _pl "
+                + "_il _se _ce _ne _es est st_ _du du_ les _au ait ais _so _su _pr our _ou ous _vo vou eme men "
+                + "_da dan ans _en en_ par qui ui_ _je _mo _me _ma _ét _tu _ça _pe _ch"));
+        OTHER_LATIN_TRIGRAMS.put("de", trigrams(
+            "_de der er_ en_ _di die ie_ und _un nd_ ich ch_ sch _ei ein ine _ge _be cht ht_ _da das as_ "
+                + "_zu zu_ _is ist st_ _si sie _ni nic _mi mit it_ den _au auf uf_ _wi _we ung ng_ _ve ver eit "
+                + "ter _ic gen _ko _ha _se ens _wa _wo _bi bis _du _ma _fü"));
+        OTHER_LATIN_TRIGRAMS.put("es", trigrams(
+            "_de de_ _la la_ os_ _qu que ue_ _el el_ _en en_ as_ es_ _lo los _co ent _se _un _po por or_ "
+                + "_pa ión ció ado do_ _es est _su _re _ha _me con _ta ara par nte _al _mu _pe ien _y_ _tu _yo "
+                + "_cu ica _có _ti _so _er"));
+        OTHER_LATIN_TRIGRAMS.put("it", trigrams(
+            "_di di_ _ch che he_ _il il_ _la la_ _de del _co _pe per er_ _un re_ to_ _in zio ion one ne_ "
+                + "_no non on_ _ne ent _è_ _ha _al _so _se _sa _qu sta ell lla _mi _ti _an ato _da _le ere are"));
+        OTHER_LATIN_TRIGRAMS.put("pt", trigrams(
+            "_de de_ _qu que ue_ os_ _do do_ _da da_ _co _pa _em em_ _um um_ ção ão_ _se _nã não _no _na "
+                + "_es ent _pr _po com _as as_ _ma _ta _el _vo _eu ara par _mu est _me _su nto _é_ ocê voc"));
+        OTHER_LATIN_TRIGRAMS.put("nl", trigrams(
+            "_de de_ _he het et_ en_ _va van an_ _ee een _in _ge _da _is is_ _op _te _di dat _zi _wa _me "
+                + "_ni nie _ik ik_ _ve _be _ij ijk lij aar _na _vo _oo _we _ze er_ ver den _aa cht ch_ _wi wie "
+                + "_ju _je"));
+
+        // Trigrams common to english and another language tell nothing, only the distinctive ones are counted
+        Set<String> english = new HashSet<>(ENGLISH_TRIGRAMS);
+        for (Map.Entry<String, Set<String>> entry : OTHER_LATIN_TRIGRAMS.entrySet()) {
+            english.removeAll(entry.getValue());
+            Set<String> other = new HashSet<>(entry.getValue());
+            other.removeAll(ENGLISH_TRIGRAMS);
+            entry.setValue(Collections.unmodifiableSet(other));
+        }
+        DISTINCT_ENGLISH_TRIGRAMS = Collections.unmodifiableSet(english);
+    }
+
+    @Value
+    public static class Detection {
+        String language;
+        // 0 when the language is unknown, up to 1
+        double confidence;
+    }
+
+    private static final Detection UNKNOWN = new Detection(null, 0);
+
+    /**
+     * @return the detected language, with confidence 0 when the text is left to a remote detector
+     */
+    public Detection detect(String text) {
+        if (text == null) {
+            return UNKNOWN;
+        }
+
+        int letters = 0;
+        int latin = 0;
+        int latinWithDiacritics = 0;
+        int kana = 0;
+        int han = 0;
+        int hangul = 0;
+        Map<Character.UnicodeScript, Integer> ownScripts = new LinkedHashMap<>();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (!Character.isLetter(codePoint)) {
+                continue;
+            }
+            letters++;
+            Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+            switch (script) {
+                case LATIN:
+                    latin++;
+                    if (codePoint > 0x7f) {
+                        latinWithDiacritics++;
+                    }
+                    break;
+                case HIRAGANA:
+                case KATAKANA:
+                    kana++;
+                    break;
+                case HAN:
+                    han++;
+                    break;
+                case HANGUL:
+                    hangul++;
+                    break;
+                default:
+                    if (SCRIPT_LANGUAGES.containsKey(script)) {
+                        ownScripts.merge(script, 1, Integer::sum);
+                    }
+                    break;
+            }
+        }
+        if (letters == 0) {
+            return UNKNOWN;
+        }
+
+        // Japanese mixes kana with han, chinese has no kana at all
+        if (kana > 0 && kana + han >= letters / 2.0) {
+            return new Detection("ja", (double) (kana + han) / letters);
+        }
+        if (hangul >= letters / 2.0) {
+            return new Detection("ko", (double) hangul / letters);
+        }
+        for (Map.Entry<Character.UnicodeScript, Integer> entry : ownScripts.entrySet()) {
+            if (entry.getValue() >= letters / 2.0) {
+                return new Detection(SCRIPT_LANGUAGES.get(entry.getKey()), (double) entry.getValue() / letters);
+            }
+        }
+        if (latin >= letters / 2.0 && latinWithDiacritics * 20 <= latin) {
+            double confidence = englishConfidence(text) * latin / letters;
+            if (confidence > 0) {
+                return new Detection("en", confidence * Math.min(1.0, (double) latin / MIN_LATIN_LETTERS));
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return how far ahead of the other latin languages english trigrams are, 0 when english is not ahead
+     */
+    private static double englishConfidence(String text) {
+        int total = 0;
+        int english = 0;
+        int[] others = new int[OTHER_LATIN_TRIGRAMS.size()];
+
+        StringBuilder word = new StringBuilder("_");
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lowerText.length(); i++) {
+            char c = i < lowerText.length() ? lowerText.charAt(i) : ' ';
+            if (Character.isLetter(c) || c == '\'') {
+                word.append(c);
+                continue;
+            }
+            if (word.length() > 1) {
+                word.append('_');
+                for (int start = 0; start + 3 <= word.length(); start++) {
+                    String trigram = word.substring(start, start + 3);
+                    total++;
+                    if (DISTINCT_ENGLISH_TRIGRAMS.contains(trigram)) {
+                        english++;
+                    }
+                    int index = 0;
+                    for (Set<String> trigrams : OTHER_LATIN_TRIGRAMS.values()) {
+                        if (trigrams.contains(trigram)) {
+                            others[index]++;
+                        }
+                        index++;
+                    }
+                }
+            }
+            word.setLength(1);
+        }
+        if (english == 0) {
+            return 0;
+        }
+
+        int bestOther = Arrays.stream(others).max().orElse(0);
+        if (english <= bestOther) {
+            return 0;
+        }
+        // Share of english trigrams (a quarter of the text already is a lot, as only distinctive ones count),
+        // reduced by how close the best other language comes
+        double share = Math.min(1.0, 4.0 * english / total);
+        return share * (english - bestOther) / english;
+    }
+
+    private static Set<String> trigrams(String trigrams) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(trigrams.split(" "))));
+    }
+}
@@ -0,0 +1,289 @@
+package com.api.bard.translator;
+
+import com.api.bard.exception.BardTranslateException;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates long markdown answers in chunks, in parallel, instead of in one large call.
+ * <p>
+ * The answer is split into lines, and long lines into sentences. Code blocks, blank lines, table separators,
+ * list/heading/quote prefixes and the given markers (e.g. image markers) are kept as they are, everything else
+ * is translated. Consecutive pieces are grouped in batches of up to maxChunkLength chars, sent with
+ * {@link IBardTranslator#translateAll}, and at most maxParallelism batches run at the same time.
+ * The translation is then put back together in the original order.
+ * <p>
+ * The calling thread translates the first lane and waits for the others, which run on an executor of their own,
+ * so translating on a bounded executor (e.g. the one of getAnswerAsync) cannot starve them.
+ */
+public class ParallelAnswerTranslator {
+    private static final Pattern LINE_PREFIX = Pattern.compile("^\\s*(?:(?:#{1,6}|>|[*+-]|\\d{1,9}[.)])\\s+)*");
+    private static final Pattern TABLE_SEPARATOR = Pattern.compile("^\\s*\\|?\\s*:?-{3,}:?\\s*(?:\\|\\s*:?-{3,}:?\\s*)*\\|?\\s*$");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?。！？])\\s+");
+
+    // Runs the lanes when no executor is given, threads are daemon so they never block JVM exit
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bard-translation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxChunkLength;
+    private final int maxParallelism;
+    private final Executor executor;
+
+    private ParallelAnswerTranslator(Builder builder) {
+        this.maxChunkLength = builder.maxChunkLength;
+        this.maxParallelism = builder.maxParallelism;
+        this.executor = builder.executor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxChunkLength = 1000;
+        private int maxParallelism = 4;
+        private Executor executor = DEFAULT_EXECUTOR;
+
+        private Builder() {
+        }
+
+        /**
+         * Most chars sent in one translateAll call, 1000 by default. Single sentences longer than that are
+         * sent alone.
+         */
+        public Builder maxChunkLength(int maxChunkLength) {
+            if (maxChunkLength <= 0) {
+                throw new IllegalArgumentException("maxChunkLength must be positive");
+            }
+            this.maxChunkLength = maxChunkLength;
+            return this;
+        }
+
+        /**
+         * Most translateAll calls of one answer running at the same time, 4 by default.
+         */
+        public Builder maxParallelism(int maxParallelism) {
+            if (maxParallelism <= 0) {
+                throw new IllegalArgumentException("maxParallelism must be positive");
+            }
+            this.maxParallelism = maxParallelism;
+            return this;
+        }
+
+        /**
+         * Executor running all lanes but the first, a shared pool of daemon threads by default. It must not be
+         * a bounded executor the answers are translated on, the callers would wait for lanes queued behind them.
+         */
+        public Builder executor(@NonNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public ParallelAnswerTranslator build() {
+            return new ParallelAnswerTranslator(this);
+        }
+    }
+
+    /**
+     * Piece of the answer, translated or kept as it is.
+     */
+    private static class Piece {
+        private final boolean translate;
+        private String text;
+
+        private Piece(String text, boolean translate) {
+            this.text = text;
+            this.translate = translate;
+        }
+    }
+
+    /**
+     * @param translator translator of the pieces
+     * @param preserved  texts never translated, e.g. image markers
+     * @return the translated text
+     */
+    public String translate(IBardTranslator translator, String sourceLang, String targetLang, String text,
+                            Collection<String> preserved) {
+        List<Piece> pieces = split(text, preserved);
+
+        List<List<Piece>> batches = new ArrayList<>();
+        List<Piece> batch = new ArrayList<>();
+        int batchLength = 0;
+        for (Piece piece : pieces) {
+            if (!piece.translate) {
+                continue;
+            }
+            if (!batch.isEmpty() && batchLength + piece.text.length() > maxChunkLength) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchLength = 0;
+            }
+            batch.add(piece);
+            batchLength += piece.text.length();
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        // Each lane translates its batches one after another
+        int laneCount = Math.min(maxParallelism, batches.size());
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (int lane = 1; lane < laneCount; lane++) {
+            int first = lane;
+            lanes.add(CompletableFuture.runAsync(
+                () -> translateLane(translator, sourceLang, targetLang, batches, first, laneCount), executor));
+        }
+        if (laneCount > 0) {
+            translateLane(translator, sourceLang, targetLang, batches, 0, laneCount);
+        }
+        try {
+            CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        StringBuilder translated = new StringBuilder(text.length());
+        for (Piece piece : pieces) {
+            translated.append(piece.text);
+        }
+        return translated.toString();
+    }
+
+    private static void translateLane(IBardTranslator translator, String sourceLang, String targetLang,
+                                      List<List<Piece>> batches, int first, int step) {
+        for (int i = first; i < batches.size(); i += step) {
+            List<Piece> batch = batches.get(i);
+            List<String> texts = new ArrayList<>(batch.size());
+            for (Piece piece : batch) {
+                texts.add(piece.text);
+            }
+            List<String> translations = translator.translateAll(sourceLang, targetLang, texts);
+            if (translations.size() != texts.size()) {
+                throw new BardTranslateException("translateAll returned " + translations.size()
+                    + " translations for " + texts.size() + " texts");
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                batch.get(j).text = translations.get(j);
+            }
+        }
+    }
+
+    private List<Piece> split(String text, Collection<String> preserved) {
+        List<Piece> pieces = new ArrayList<>();
+        boolean inCodeBlock = false;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 ? text.length() : end + 1;
+            String line = text.substring(start, end);
+            start = end;
+
+            String trimmed = line.trim();
+            boolean fence = trimmed.startsWith("```") || trimmed.startsWith("~~~");
+            if (fence || inCodeBlock || trimmed.isEmpty() || TABLE_SEPARATOR.matcher(trimmed).matches()) {
+                if (fence) {
+                    inCodeBlock = !inCodeBlock;
+                }
+                pieces.add(new Piece(line, false));
+                continue;
+            }
+            splitLine(line, preserved, pieces);
+        }
+        return pieces;
+    }
+
+    private void splitLine(String line, Collection<String> preserved, List<Piece> pieces) {
+        Matcher prefix = LINE_PREFIX.matcher(line);
+        int contentStart = prefix.lookingAt() ? prefix.end() : 0;
+        int contentEnd = line.length();
+        while (contentEnd > contentStart && Character.isWhitespace(line.charAt(contentEnd - 1))) {
+            contentEnd--;
+        }
+
+        pieces.add(new Piece(line.substring(0, contentStart), false));
+        splitPreserved(line.substring(contentStart, contentEnd), preserved, pieces);
+        pieces.add(new Piece(line.substring(contentEnd), false));
+    }
+
+    private void splitPreserved(String content, Collection<String> preserved, List<Piece> pieces) {
+        int from = 0;
+        while (from < content.length()) {
+            int markerStart = -1;
+            String marker = null;
+            for (String candidate : preserved) {
+                if (candidate == null || candidate.isEmpty()) {
+                    continue;
+                }
+                int index = content.indexOf(candidate, from);
+                if (index >= 0 && (markerStart < 0 || index < markerStart)) {
+                    markerStart = index;
+                    marker = candidate;
+                }
+            }
+            if (marker == null) {
+                splitSentences(content.substring(from), pieces);
+                return;
+            }
+            splitSentences(content.substring(from, markerStart), pieces);
+            pieces.add(new Piece(marker, false));
+            from = markerStart + marker.length();
+        }
+    }
+
+    private void splitSentences(String content, List<Piece> pieces) {
+        if (content.length() <= maxChunkLength) {
+            addTranslatable(content, pieces);
+            return;
+        }
+        Matcher separator = SENTENCE_END.matcher(content);
+        int from = 0;
+        int chunkStart = 0;
+        while (separator.find()) {
+            if (separator.start() - chunkStart > maxChunkLength && from > chunkStart) {
+                addTranslatable(content.substring(chunkStart, from), pieces);
+                chunkStart = from;
+            }
+            from = separator.start();
+        }
+        if (content.length() - chunkStart > maxChunkLength && from > chunkStart) {
+            addTranslatable(content.substring(chunkStart, from), pieces);
+            chunkStart = from;
+        }
+        addTranslatable(content.substring(chunkStart), pieces);
+    }
+
+    // Whitespace and punctuation around pieces are kept, so only text with letters or digits is translated
+    private static void addTranslatable(String text, List<Piece> pieces) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        boolean hasLetterOrDigit = text.substring(start, end).codePoints().anyMatch(Character::isLetterOrDigit);
+        if (!hasLetterOrDigit) {
+            pieces.add(new Piece(text, false));
+            return;
+        }
+        pieces.add(new Piece(text.substring(0, start), false));
+        pieces.add(new Piece(text.substring(start, end), true));
+        pieces.add(new Piece(text.substring(end), false));
+    }
+}
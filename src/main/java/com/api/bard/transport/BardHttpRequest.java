@@ -0,0 +1,28 @@
+package com.api.bard.transport;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Data
+@Builder
+public class BardHttpRequest {
+    public static final String GET = "GET";
+    public static final String POST = "POST";
+
+    @NonNull
+    private String method;
+    // full url, including the query string
+    @NonNull
+    private String url;
+    @Singular
+    private Map<String, String> headers;
+    // request body, null for GET
+    private byte[] body;
+    // longest wait for the response to start, null for the default of the transport
+    private Duration timeout;
+}
@@ -0,0 +1,55 @@
+package com.api.bard.transport;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class BardHttpResponse implements Closeable {
+    private int code;
+    @Builder.Default
+    private Map<String, List<String>> headers = Collections.emptyMap();
+    @Builder.Default
+    private InputStream body = new ByteArrayInputStream(new byte[0]);
+    // drops the connection of the response, null when closing the body is enough
+    private Closeable aborter;
+
+    /**
+     * @return first value of the header, whatever the case of its name, or null
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the response from another thread, a read blocked on it fails at once. Errors are ignored.
+     */
+    public void abort() {
+        try {
+            if (aborter != null) {
+                aborter.close();
+            }
+            body.close();
+        } catch (IOException | RuntimeException e) {
+            // the response is dropped anyway
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.api.bard.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Wire layer used by BardClient to talk with bard.google.com.
+ * Implementations must be thread-safe, one instance can be shared by many clients.
+ */
+public interface BardTransport extends Closeable {
+
+    /**
+     * Sends the request and blocks until the response headers arrive.
+     * The body of the returned response is streamed, callers must close it.
+     */
+    BardHttpResponse execute(BardHttpRequest request) throws IOException;
+
+    /**
+     * Sends the request without blocking the calling thread.
+     * The future completes once the whole body is received.
+     */
+    CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,91 @@
+package com.api.bard.transport;
+
+import com.api.bard.exception.BardCircuitOpenException;
+import com.api.bard.resilience.CircuitBreaker;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport which sends requests through another one while the {@link CircuitBreaker} is closed (or probing),
+ * and fails them at once with {@link BardCircuitOpenException} while it is open.
+ * <p>
+ * Requests failing with an IOException or a 5xx response count as failures. The duration of a request is the time
+ * until its response is received. Cancelling an async request cancels it in the wrapped transport.
+ */
+public class CircuitBreakerBardTransport implements BardTransport {
+    private final BardTransport transport;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerBardTransport(@NonNull BardTransport transport, @NonNull CircuitBreaker circuitBreaker) {
+        this.transport = transport;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        acquire(request);
+        long startedAt = System.nanoTime();
+        BardHttpResponse response;
+        try {
+            response = transport.execute(request);
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onFailure(System.nanoTime() - startedAt);
+            throw e;
+        }
+        record(response, System.nanoTime() - startedAt);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        try {
+            acquire(request);
+        } catch (BardCircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long startedAt = System.nanoTime();
+        CompletableFuture<BardHttpResponse> response;
+        try {
+            response = transport.executeAsync(request);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<BardHttpResponse> sent = response;
+        CompletableFuture<BardHttpResponse> recorded = sent.whenComplete((result, e) -> {
+            if (e != null) {
+                circuitBreaker.onFailure(System.nanoTime() - startedAt);
+            } else {
+                record(result, System.nanoTime() - startedAt);
+            }
+        });
+        // Cancelling the returned future, e.g. on a deadline, cancels the request it depends on
+        recorded.whenComplete((result, e) -> {
+            if (e instanceof CancellationException) {
+                sent.cancel(true);
+            }
+        });
+        return recorded;
+    }
+
+    private void acquire(BardHttpRequest request) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new BardCircuitOpenException("Circuit breaker is open, request to " + request.getUrl() + " not sent");
+        }
+    }
+
+    private void record(BardHttpResponse response, long durationNanos) {
+        if (response.getCode() >= 500) {
+            circuitBreaker.onFailure(durationNanos);
+        } else {
+            circuitBreaker.onSuccess(durationNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+}
@@ -0,0 +1,319 @@
+package com.api.bard.transport;
+
+import com.api.bard.metrics.BardMetricsListener;
+import com.api.bard.metrics.BardPhase;
+import com.api.bard.metrics.BardPhaseEvent;
+import com.api.bard.resilience.HedgingPolicy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport which sends POST requests (StreamGenerate) through another one, and sends them a second time when no
+ * response arrived after the delay of the {@link HedgingPolicy}, within its budget. The first response is returned,
+ * the other attempt is cancelled, or closed as soon as its response arrives.
+ * <p>
+ * The hedge can go through another transport, e.g. one using another proxy. The request fails when the first
+ * attempt fails before the hedge is sent, or when both attempts fail: retrying is left to the retry policy.
+ * execute runs both attempts on the executor while the calling thread waits for the first response.
+ */
+@Slf4j
+public class HedgingBardTransport implements BardTransport {
+    // Runs the blocking attempts of execute when no executor is given, threads are daemon so they never block JVM exit
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bard-hedging");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BardTransport transport;
+    private final BardTransport hedgeTransport;
+    private final HedgingPolicy hedgingPolicy;
+    private final Executor executor;
+    private final BardMetricsListener metricsListener;
+
+    private HedgingBardTransport(Builder builder) {
+        this.transport = builder.transport;
+        this.hedgeTransport = builder.hedgeTransport == null ? builder.transport : builder.hedgeTransport;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.executor = builder.executor;
+        this.metricsListener = builder.metricsListener;
+    }
+
+    public static Builder builder(@NonNull BardTransport transport, @NonNull HedgingPolicy hedgingPolicy) {
+        return new Builder(transport, hedgingPolicy);
+    }
+
+    public static class Builder {
+        private final BardTransport transport;
+        private final HedgingPolicy hedgingPolicy;
+        private BardTransport hedgeTransport;
+        private Executor executor = DEFAULT_EXECUTOR;
+        private BardMetricsListener metricsListener = BardMetricsListener.NOOP;
+
+        private Builder(BardTransport transport, HedgingPolicy hedgingPolicy) {
+            this.transport = transport;
+            this.hedgingPolicy = hedgingPolicy;
+        }
+
+        /**
+         * Transport the hedges are sent through, the same transport by default.
+         */
+        public Builder hedgeTransport(@NonNull BardTransport hedgeTransport) {
+            this.hedgeTransport = hedgeTransport;
+            return this;
+        }
+
+        /**
+         * Executor running the blocking attempts of execute, a shared pool of daemon threads by default.
+         */
+        public Builder executor(@NonNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Receives a {@link BardPhase#HEDGE} event for every hedged request, none by default.
+         */
+        public Builder metricsListener(@NonNull BardMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        public HedgingBardTransport build() {
+            return new HedgingBardTransport(this);
+        }
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        if (!BardHttpRequest.POST.equals(request.getMethod())) {
+            return transport.execute(request);
+        }
+        CompletableFuture<BardHttpResponse> response = race(request, false);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        if (!BardHttpRequest.POST.equals(request.getMethod())) {
+            return transport.executeAsync(request);
+        }
+        return race(request, true);
+    }
+
+    private CompletableFuture<BardHttpResponse> race(BardHttpRequest request, boolean async) {
+        Race race = new Race(request, async);
+        long delayNanos = hedgingPolicy.onRequest(async);
+        race.launch(transport, false, 0);
+        CompletableFuture.runAsync(() -> {
+            if (!race.result.isDone() && hedgingPolicy.tryAcquireHedge()) {
+                log.debug("No response from {} after {}ms, hedging", request.getUrl(),
+                    TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                race.launch(hedgeTransport, true, delayNanos);
+            }
+        }, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+        return race.result;
+    }
+
+    /**
+     * Attempts of one request, the first response completing the result.
+     */
+    private final class Race {
+        final CompletableFuture<BardHttpResponse> result = new CompletableFuture<>();
+        private final BardHttpRequest request;
+        private final boolean async;
+        private final List<CompletableFuture<BardHttpResponse>> attempts = new ArrayList<>(2);
+        private int pending;
+        private boolean settled;
+        private boolean answered;
+        private Throwable error;
+        private boolean hedged;
+        private long hedgeDelayNanos;
+
+        Race(BardHttpRequest request, boolean async) {
+            this.request = request;
+            this.async = async;
+            // Cancelling the result, e.g. on a deadline, cancels the attempts
+            result.whenComplete((response, e) -> {
+                if (e instanceof CancellationException) {
+                    cancelAttempts();
+                }
+            });
+        }
+
+        /**
+         * @param delayNanos how long the first attempt was waited for, when sending the hedge
+         */
+        void launch(BardTransport target, boolean hedge, long delayNanos) {
+            synchronized (this) {
+                if (settled) {
+                    return;
+                }
+                pending++;
+                if (hedge) {
+                    hedged = true;
+                    hedgeDelayNanos = delayNanos;
+                }
+            }
+            long startedAt = System.nanoTime();
+            CompletableFuture<BardHttpResponse> attempt = send(target);
+            boolean lost;
+            synchronized (this) {
+                attempts.add(attempt);
+                lost = settled;
+            }
+            if (lost) {
+                attempt.cancel(true);
+            }
+            attempt.whenComplete((response, e) -> {
+                if (e == null) {
+                    onResponse(response, hedge, System.nanoTime() - startedAt);
+                } else {
+                    onFailure(e);
+                }
+            });
+        }
+
+        private CompletableFuture<BardHttpResponse> send(BardTransport target) {
+            if (async) {
+                try {
+                    return target.executeAsync(request);
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            CompletableFuture<BardHttpResponse> attempt = new CompletableFuture<>();
+            executor.execute(() -> {
+                if (attempt.isDone()) {
+                    return;
+                }
+                try {
+                    BardHttpResponse response = target.execute(request);
+                    if (!attempt.complete(response)) {
+                        closeQuietly(response);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    attempt.completeExceptionally(e);
+                }
+            });
+            return attempt;
+        }
+
+        private void onResponse(BardHttpResponse response, boolean hedge, long latencyNanos) {
+            hedgingPolicy.recordLatency(latencyNanos, async);
+            boolean first;
+            boolean wasHedged;
+            long delayNanos;
+            synchronized (this) {
+                first = !answered;
+                answered = true;
+                settled = true;
+                wasHedged = hedged;
+                delayNanos = hedgeDelayNanos;
+            }
+            if (!first) {
+                closeQuietly(response);
+                return;
+            }
+            // Counted before the result completes, so the caller sees them
+            if (hedge) {
+                hedgingPolicy.onHedgeWon();
+            }
+            if (wasHedged) {
+                reportHedge(hedge, delayNanos);
+            }
+            if (!result.complete(response)) {
+                closeQuietly(response);
+            }
+            cancelAttempts();
+        }
+
+        private void onFailure(Throwable e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            synchronized (this) {
+                if (error == null) {
+                    error = cause;
+                }
+                if (--pending > 0 || settled) {
+                    return;
+                }
+                settled = true;
+            }
+            result.completeExceptionally(error);
+        }
+
+        private void cancelAttempts() {
+            List<CompletableFuture<BardHttpResponse>> toCancel;
+            synchronized (this) {
+                settled = true;
+                toCancel = new ArrayList<>(attempts);
+            }
+            for (CompletableFuture<BardHttpResponse> attempt : toCancel) {
+                if (!attempt.isDone()) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Reports a hedged request once one of its attempts answered.
+         */
+        private void reportHedge(boolean hedgeWon, long delayNanos) {
+            if (metricsListener == BardMetricsListener.NOOP) {
+                return;
+            }
+            try {
+                metricsListener.onPhase(BardPhaseEvent.builder()
+                    .phase(BardPhase.HEDGE)
+                    .attempt(hedgeWon ? 2 : 1)
+                    .durationNanos(delayNanos)
+                    .build());
+            } catch (RuntimeException e) {
+                log.warn("Metrics listener failed", e);
+            }
+        }
+    }
+
+    private static void closeQuietly(BardHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the response is dropped anyway
+        }
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+        if (hedgeTransport != transport) {
+            hedgeTransport.close();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.bard.transport;
+
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Transport which never touches the network, for tests.
+ * Requests are answered by the handler registered for the longest matching url prefix,
+ * and are recorded so tests can verify what was sent.
+ */
+public class InMemoryBardTransport implements BardTransport {
+    private final Map<String, Function<BardHttpRequest, BardHttpResponse>> handlers =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<BardHttpRequest> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * Answers every request whose url starts with urlPrefix with the handler.
+     */
+    public InMemoryBardTransport handle(@NonNull String urlPrefix,
+                                        @NonNull Function<BardHttpRequest, BardHttpResponse> handler) {
+        handlers.put(urlPrefix, handler);
+        return this;
+    }
+
+    /**
+     * Answers every request whose url starts with urlPrefix with a fixed response.
+     */
+    public InMemoryBardTransport respond(@NonNull String urlPrefix, int code, @NonNull String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return handle(urlPrefix, request -> BardHttpResponse.builder()
+            .code(code)
+            .body(new ByteArrayInputStream(bytes))
+            .build());
+    }
+
+    /**
+     * @return requests received so far, in order
+     */
+    public List<BardHttpRequest> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        requests.add(request);
+
+        Function<BardHttpRequest, BardHttpResponse> handler = null;
+        int matchedLength = -1;
+        synchronized (handlers) {
+            for (Map.Entry<String, Function<BardHttpRequest, BardHttpResponse>> entry : handlers.entrySet()) {
+                if (request.getUrl().startsWith(entry.getKey()) && entry.getKey().length() > matchedLength) {
+                    handler = entry.getValue();
+                    matchedLength = entry.getKey().length();
+                }
+            }
+        }
+        if (handler == null) {
+            throw new IOException("No handler registered for " + request.getUrl());
+        }
+        return handler.apply(request);
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        try {
+            return CompletableFuture.completedFuture(execute(request));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.api.bard.transport;
+
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Default transport, based on {@link HttpClient}.
+ * One client, with its connection pool and TLS sessions, is shared by every request going through this transport.
+ * Requests to the same host are multiplexed over a single HTTP/2 connection when the server supports it,
+ * and fall back to pooled HTTP/1.1 keep-alive connections otherwise.
+ * <p>
+ * Only HTTP proxies are supported, use {@link UrlConnectionBardTransport} for SOCKS proxies.
+ * The timeout of a request (or the default request timeout) bounds the wait for its response headers.
+ * <p>
+ * The size of the HTTP/1.1 pool and how long idle connections are kept are JVM-wide HttpClient settings,
+ * read once when the first HttpClient is created: set the jdk.httpclient.connectionPoolSize and
+ * jdk.httpclient.keepalive.timeout (seconds) system properties on the command line to change them.
+ */
+public class PooledBardTransport implements BardTransport {
+    // Set by HttpClient itself, it rejects them when set by callers
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(
+        Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    private PooledBardTransport(Builder builder) {
+        this.httpClient = builder.httpClientBuilder.build();
+        this.requestTimeout = builder.requestTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10));
+        private Duration requestTimeout = Duration.ofMinutes(2);
+
+        private Builder() {
+        }
+
+        /**
+         * Executor for the http callbacks, defaults to the HttpClient one.
+         */
+        public Builder executor(@NonNull Executor executor) {
+            httpClientBuilder.executor(executor);
+            return this;
+        }
+
+        /**
+         * HTTP proxy to use when making requests, other proxy types are not supported by HttpClient.
+         */
+        public Builder proxy(@NonNull Proxy proxy) {
+            if (proxy.type() == Proxy.Type.SOCKS) {
+                throw new IllegalArgumentException("SOCKS proxy is not supported, use UrlConnectionBardTransport");
+            }
+            if (proxy.type() == Proxy.Type.HTTP) {
+                httpClientBuilder.proxy(ProxySelector.of((InetSocketAddress) proxy.address()));
+            }
+            return this;
+        }
+
+        public Builder authenticator(@NonNull Authenticator authenticator) {
+            httpClientBuilder.authenticator(authenticator);
+            return this;
+        }
+
+        /**
+         * Longest wait for a connection to be established, 10s by default.
+         */
+        public Builder connectTimeout(@NonNull Duration connectTimeout) {
+            httpClientBuilder.connectTimeout(connectTimeout);
+            return this;
+        }
+
+        /**
+         * Longest wait for the response headers of a request without timeout of its own, 2 minutes by default.
+         */
+        public Builder requestTimeout(@NonNull Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Protocol to prefer, HTTP/2 by default. Use HTTP/1.1 to disable multiplexing.
+         */
+        public Builder version(@NonNull HttpClient.Version version) {
+            httpClientBuilder.version(version);
+            return this;
+        }
+
+        public PooledBardTransport build() {
+            return new PooledBardTransport(this);
+        }
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        try {
+            HttpResponse<InputStream> response =
+                httpClient.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+            return toBardHttpResponse(response, response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getUrl());
+        }
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        return httpClient.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> toBardHttpResponse(response, new ByteArrayInputStream(response.body())));
+    }
+
+    private HttpRequest toHttpRequest(BardHttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+            .method(request.getMethod(), request.getBody() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(request.getBody()))
+            .timeout(request.getTimeout() == null ? requestTimeout : request.getTimeout());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    private BardHttpResponse toBardHttpResponse(HttpResponse<?> response, InputStream body) {
+        return BardHttpResponse.builder()
+            .code(response.statusCode())
+            .headers(response.headers().map())
+            .body(body)
+            .build();
+    }
+}
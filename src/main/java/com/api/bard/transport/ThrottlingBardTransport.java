@@ -0,0 +1,259 @@
+package com.api.bard.transport;
+
+import com.api.bard.metrics.BardMetricsListener;
+import com.api.bard.metrics.BardPhase;
+import com.api.bard.metrics.BardPhaseEvent;
+import com.api.bard.resilience.RateLimiter;
+import com.api.bard.resilience.RetryPolicy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transport which sends requests through another one, at the pace of a {@link RateLimiter},
+ * and sends them again as the {@link RetryPolicy} says when bard throttles them (429) or fails (5xx).
+ * <p>
+ * Every attempt takes a permit of the rate limiter, throttled responses lower its rate in adaptive mode.
+ * When the attempts are exhausted the last response is returned, so the caller sees its status code.
+ * Async requests wait for permits and backoffs without holding a thread, cancelling them stops the retries.
+ */
+@Slf4j
+public class ThrottlingBardTransport implements BardTransport {
+    private static final int TOO_MANY_REQUESTS = 429;
+    // Marks the requests cancelled by the caller
+    private static final CompletableFuture<BardHttpResponse> CANCELLED = new CompletableFuture<>();
+
+    private final BardTransport transport;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final BardMetricsListener metricsListener;
+
+    private ThrottlingBardTransport(Builder builder) {
+        this.transport = builder.transport;
+        this.rateLimiter = builder.rateLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.metricsListener = builder.metricsListener;
+    }
+
+    public static Builder builder(@NonNull BardTransport transport) {
+        return new Builder(transport);
+    }
+
+    public static class Builder {
+        private final BardTransport transport;
+        private RateLimiter rateLimiter;
+        private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+        private BardMetricsListener metricsListener = BardMetricsListener.NOOP;
+
+        private Builder(BardTransport transport) {
+            this.transport = transport;
+        }
+
+        /**
+         * Rate limiter of the requests, no limit by default.
+         */
+        public Builder rateLimiter(@NonNull RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Retries of the failed requests, {@link RetryPolicy#DEFAULT} by default.
+         */
+        public Builder retryPolicy(@NonNull RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Receives a {@link BardPhase#RETRY} event for every retried request, none by default.
+         */
+        public Builder metricsListener(@NonNull BardMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        public ThrottlingBardTransport build() {
+            return new ThrottlingBardTransport(this);
+        }
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            sleep(reserve());
+
+            BardHttpResponse response;
+            try {
+                response = transport.execute(request);
+            } catch (IOException e) {
+                if (!retryPolicy.isRetryOnIOException() || attempt >= retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+                log.warn("Request to {} failed, attempt {} of {}", request.getUrl(), attempt,
+                    retryPolicy.getMaxAttempts(), e);
+                sleep(retrying(attempt, 0, e, retryPolicy.backoffNanos(attempt, 0)));
+                continue;
+            }
+
+            if (!shouldRetry(response, attempt)) {
+                return response;
+            }
+            response.close();
+            sleep(retrying(attempt, response.getCode(), null,
+                retryPolicy.backoffNanos(attempt, retryAfterNanos(response))));
+        }
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        AtomicReference<CompletableFuture<BardHttpResponse>> inFlight = new AtomicReference<>();
+        CompletableFuture<BardHttpResponse> response = executeAsync(request, 1, inFlight);
+        // Cancelling the response cancels the attempt in flight, and no other attempt is sent
+        response.whenComplete((result, e) -> {
+            if (e instanceof CancellationException) {
+                CompletableFuture<BardHttpResponse> attempt = inFlight.getAndSet(CANCELLED);
+                if (attempt != null) {
+                    attempt.cancel(true);
+                }
+            }
+        });
+        return response;
+    }
+
+    private CompletableFuture<BardHttpResponse> executeAsync(
+        BardHttpRequest request, int attempt, AtomicReference<CompletableFuture<BardHttpResponse>> inFlight) {
+        return delay(reserve())
+            .thenCompose(ignored -> send(request, inFlight))
+            .handle((response, e) -> {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof IOException) || !retryPolicy.isRetryOnIOException()
+                        || attempt >= retryPolicy.getMaxAttempts()) {
+                        return CompletableFuture.<BardHttpResponse>failedFuture(cause);
+                    }
+                    log.warn("Request to {} failed, attempt {} of {}", request.getUrl(), attempt,
+                        retryPolicy.getMaxAttempts(), cause);
+                    return delay(retrying(attempt, 0, cause, retryPolicy.backoffNanos(attempt, 0)))
+                        .thenCompose(ignored -> executeAsync(request, attempt + 1, inFlight));
+                }
+                if (!shouldRetry(response, attempt)) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                closeQuietly(response);
+                return delay(retrying(attempt, response.getCode(), null,
+                    retryPolicy.backoffNanos(attempt, retryAfterNanos(response))))
+                    .thenCompose(ignored -> executeAsync(request, attempt + 1, inFlight));
+            })
+            .thenCompose(future -> future);
+    }
+
+    private CompletableFuture<BardHttpResponse> send(
+        BardHttpRequest request, AtomicReference<CompletableFuture<BardHttpResponse>> inFlight) {
+        if (inFlight.get() == CANCELLED) {
+            return CompletableFuture.failedFuture(new CancellationException());
+        }
+        CompletableFuture<BardHttpResponse> attempt = transport.executeAsync(request);
+        if (inFlight.getAndUpdate(previous -> previous == CANCELLED ? CANCELLED : attempt) == CANCELLED) {
+            attempt.cancel(true);
+        }
+        return attempt;
+    }
+
+    private long reserve() {
+        return rateLimiter == null ? 0 : rateLimiter.reserve();
+    }
+
+    private boolean shouldRetry(BardHttpResponse response, int attempt) {
+        if (rateLimiter != null) {
+            if (response.getCode() == TOO_MANY_REQUESTS) {
+                rateLimiter.onThrottled();
+            } else if (response.getCode() / 100 == 2) {
+                rateLimiter.onSuccess();
+            }
+        }
+        if (!retryPolicy.isRetryable(response.getCode()) || attempt >= retryPolicy.getMaxAttempts()) {
+            return false;
+        }
+        log.warn("Request to bard got response code {}, attempt {} of {}", response.getCode(), attempt,
+            retryPolicy.getMaxAttempts());
+        return true;
+    }
+
+    /**
+     * Reports the retry of a failed attempt.
+     *
+     * @return backoffNanos
+     */
+    private long retrying(int attempt, int statusCode, Throwable error, long backoffNanos) {
+        if (metricsListener == BardMetricsListener.NOOP) {
+            return backoffNanos;
+        }
+        try {
+            metricsListener.onPhase(BardPhaseEvent.builder()
+                .phase(BardPhase.RETRY)
+                .attempt(attempt)
+                .statusCode(statusCode)
+                .error(error)
+                .durationNanos(backoffNanos)
+                .build());
+        } catch (RuntimeException e) {
+            log.warn("Metrics listener failed", e);
+        }
+        return backoffNanos;
+    }
+
+    private static long retryAfterNanos(BardHttpResponse response) {
+        String retryAfter = response.getHeader("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                // http-date form, ignored
+            }
+        }
+        return 0;
+    }
+
+    private static void sleep(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send the request");
+        }
+    }
+
+    private static CompletableFuture<Void> delay(long nanos) {
+        if (nanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(() -> {
+        }, delayed);
+    }
+
+    private static void closeQuietly(BardHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the response is dropped anyway
+        }
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+}
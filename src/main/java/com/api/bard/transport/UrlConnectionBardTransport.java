@@ -0,0 +1,144 @@
+package com.api.bard.transport;
+
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Transport based on {@link HttpURLConnection}, it supports every kind of {@link Proxy} (including SOCKS)
+ * and lets a connectionConfigurator customize each connection.
+ * <p>
+ * Connections are kept alive by the JDK keep-alive cache, its size is set by the JVM-wide
+ * {@code http.maxConnections} system property (5 by default). executeAsync runs the blocking call on the executor.
+ * <p>
+ * The timeout of a request caps both the connect and the read timeouts, which the connectionConfigurator can still
+ * change. Aborting a response disconnects it.
+ */
+public class UrlConnectionBardTransport implements BardTransport {
+    private final Proxy proxy;
+    private final Consumer<HttpURLConnection> connectionConfigurator;
+    private final Executor executor;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    private UrlConnectionBardTransport(Builder builder) {
+        this.proxy = builder.proxy;
+        this.connectionConfigurator = builder.connectionConfigurator;
+        this.executor = builder.executor;
+        this.connectTimeoutMillis = millis(builder.connectTimeout);
+        this.readTimeoutMillis = millis(builder.readTimeout);
+    }
+
+    public static Builder builder(@NonNull Executor executor) {
+        return new Builder(executor);
+    }
+
+    public static class Builder {
+        private final Executor executor;
+        private Proxy proxy = Proxy.NO_PROXY;
+        private Consumer<HttpURLConnection> connectionConfigurator;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofMinutes(2);
+
+        private Builder(Executor executor) {
+            this.executor = executor;
+        }
+
+        public Builder proxy(@NonNull Proxy proxy) {
+            this.proxy = proxy;
+            return this;
+        }
+
+        public Builder connectionConfigurator(Consumer<HttpURLConnection> connectionConfigurator) {
+            this.connectionConfigurator = connectionConfigurator;
+            return this;
+        }
+
+        /**
+         * Longest wait for a connection to be established, 10s by default.
+         */
+        public Builder connectTimeout(@NonNull Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Longest wait for the next bytes of a response, 2 minutes by default.
+         */
+        public Builder readTimeout(@NonNull Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public UrlConnectionBardTransport build() {
+            return new UrlConnectionBardTransport(this);
+        }
+    }
+
+    @Override
+    public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.getUrl()).openConnection(proxy);
+        connection.setRequestMethod(request.getMethod());
+        int requestTimeoutMillis = request.getTimeout() == null ? Integer.MAX_VALUE : millis(request.getTimeout());
+        connection.setConnectTimeout(Math.min(connectTimeoutMillis, requestTimeoutMillis));
+        connection.setReadTimeout(Math.min(readTimeoutMillis, requestTimeoutMillis));
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        if (connectionConfigurator != null) {
+            connectionConfigurator.accept(connection);
+        }
+
+        if (request.getBody() != null) {
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(request.getBody());
+            }
+        }
+
+        int responseCode = connection.getResponseCode();
+        InputStream body = responseCode / 100 == 2 ? connection.getInputStream() : connection.getErrorStream();
+        BardHttpResponse.BardHttpResponseBuilder response = BardHttpResponse.builder()
+            .code(responseCode)
+            .headers(connection.getHeaderFields())
+            .aborter(connection::disconnect);
+        if (body != null) {
+            response.body(body);
+        }
+        return response.build();
+    }
+
+    /**
+     * @return the duration in milliseconds, at least 1 as 0 means no timeout
+     */
+    private static int millis(Duration duration) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, duration.toMillis()));
+    }
+
+    @Override
+    public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                BardHttpResponse response = execute(request);
+                try (InputStream body = response.getBody()) {
+                    response.setBody(new ByteArrayInputStream(body.readAllBytes()));
+                }
+                return response;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
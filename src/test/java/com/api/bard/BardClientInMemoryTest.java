@@ -0,0 +1,603 @@
+package com.api.bard;
+
+import com.api.bard.cache.LruAnswerCache;
+import com.api.bard.cache.SNlM0eCache;
+import com.api.bard.exception.BardApiException;
+import com.api.bard.exception.BardHttpException;
+import com.api.bard.exception.BardTimeoutException;
+import com.api.bard.metrics.BardPhase;
+import com.api.bard.metrics.BardPhaseEvent;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.ConversationState;
+import com.api.bard.model.Question;
+import com.api.bard.model.RawResponseRetention;
+import com.api.bard.resilience.CircuitBreaker;
+import com.api.bard.resilience.HedgingPolicy;
+import com.api.bard.resilience.RetryPolicy;
+import com.api.bard.store.InMemoryConversationStore;
+import com.api.bard.translator.IBardTranslator;
+import com.api.bard.translator.ParallelAnswerTranslator;
+import com.api.bard.transport.BardHttpRequest;
+import com.api.bard.transport.BardHttpResponse;
+import com.api.bard.transport.BardTransport;
+import com.api.bard.transport.InMemoryBardTransport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs BardClient against recorded responses, no token or network needed.
+ */
+public class BardClientInMemoryTest {
+    private static final String TOKEN = "test_token.";
+    private static final String HOME_PAGE = "<script>WIZ_global_data = {\"SNlM0e\":\"test_snlm0e\"};</script>";
+
+    private InMemoryBardTransport transport;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        transport = new InMemoryBardTransport()
+            .respond("https://bard.google.com", 200, HOME_PAGE)
+            .respond("https://bard.google.com/_/BardChatUi", 200, readResource("/bard_response_with_1_picture.json"));
+    }
+
+    @Test
+    public void testGetAnswer_recordedResponse() {
+        IBardClient bardClient = newClient();
+
+        Answer answer = bardClient.getAnswer("Give me a picture of White House");
+        Assertions.assertTrue(answer.getAnswer().startsWith("Sure, here is a picture of the White House."));
+        Assertions.assertEquals("c_8300a5a03d34fb60", answer.getConversationId());
+        Assertions.assertEquals(1, answer.getImages().size());
+        Assertions.assertFalse(answer.getSources().isEmpty());
+        Assertions.assertFalse(answer.getRelatedTopics().isEmpty());
+
+        List<BardHttpRequest> requests = transport.getRequests();
+        Assertions.assertEquals(2, requests.size());
+        Assertions.assertEquals(BardHttpRequest.GET, requests.get(0).getMethod());
+        Assertions.assertEquals("__Secure-1PSID=" + TOKEN, requests.get(0).getHeaders().get("Cookie"));
+        Assertions.assertTrue(body(requests.get(1)).contains("at=test_snlm0e"));
+
+        // Next question continues the conversation, and reuses the SNlM0e value
+        bardClient.getAnswer("Who lives there?");
+        Assertions.assertEquals(3, transport.getRequests().size());
+        Assertions.assertTrue(body(transport.getRequests().get(2)).contains("c_8300a5a03d34fb60"));
+    }
+
+    @Test
+    public void testGetAnswerAsync_recordedResponse() {
+        IBardClient bardClient = newClient();
+
+        Answer answer = bardClient.getAnswerAsync("Give me a picture of White House").join();
+        Assertions.assertEquals("c_8300a5a03d34fb60", answer.getConversationId());
+    }
+
+    @Test
+    public void testGetAnswer_streaming() {
+        IBardClient bardClient = newClient();
+
+        List<AnswerChunk> chunks = new ArrayList<>();
+        Answer answer = bardClient.getAnswer(
+            Question.builder().question("Give me a picture of White House").build(), chunks::add);
+
+        Assertions.assertEquals(2, chunks.size());
+        Assertions.assertFalse(chunks.get(0).isLast());
+        Assertions.assertTrue(chunks.get(1).isLast());
+        Assertions.assertEquals(answer.getAnswer(), chunks.get(1).getAnswer());
+    }
+
+    @Test
+    public void testNewSession_independentConversations() {
+        BardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .build();
+        BardSession session1 = bardClient.newSession();
+        BardSession session2 = bardClient.newSession();
+
+        session1.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals("c_8300a5a03d34fb60", session1.getState().getConversationId());
+        // Other sessions and the client's own conversation are untouched
+        Assertions.assertEquals(ConversationState.EMPTY, session2.getState());
+
+        session2.getAnswer("Who are you?");
+        Assertions.assertFalse(body(transport.getRequests().get(2)).contains("c_8300a5a03d34fb60"));
+
+        session1.reset();
+        Assertions.assertEquals(ConversationState.EMPTY, session1.getState());
+        Assertions.assertEquals("c_8300a5a03d34fb60", session2.getState().getConversationId());
+
+        BardSession resumed = bardClient.newSession(session2.getState());
+        resumed.getAnswer("Who lives there?");
+        Assertions.assertTrue(body(transport.getRequests().get(3)).contains("c_8300a5a03d34fb60"));
+    }
+
+    @Test
+    public void testGetAnswer_rawResponseRetention() {
+        IBardClient keepClient = newClient();
+        String rawResponse = keepClient.getAnswer("Give me a picture of White House").getRawResponse();
+        Assertions.assertNotNull(rawResponse);
+
+        IBardClient dropClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .rawResponseRetention(RawResponseRetention.DROP)
+            .build();
+        Answer dropped = dropClient.getAnswer("Give me a picture of White House");
+        Assertions.assertNull(dropped.getRawResponse());
+        // Lazily parsed fields are still available
+        Assertions.assertEquals(1, dropped.getImages().size());
+
+        IBardClient compressClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .rawResponseRetention(RawResponseRetention.COMPRESS)
+            .build();
+        Answer compressed = compressClient.getAnswer("Give me a picture of White House");
+        Assertions.assertTrue(compressed.getCompressedRawResponse().length < rawResponse.length());
+        Assertions.assertEquals(rawResponse, compressed.getRawResponse());
+    }
+
+    @Test
+    public void testGetAnswer_answerCache() {
+        LruAnswerCache answerCache = LruAnswerCache.builder().build();
+        BardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .answerCache(answerCache)
+            .build();
+
+        BardSession session1 = bardClient.newSession();
+        Answer answer = session1.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals(2, transport.getRequests().size());
+
+        // Same question in a new conversation, whitespace differences do not matter
+        BardSession session2 = bardClient.newSession();
+        Answer cached = session2.getAnswer("  Give me a picture of   White House ");
+        Assertions.assertEquals(answer.getAnswer(), cached.getAnswer());
+        Assertions.assertEquals(2, transport.getRequests().size());
+        // The session does not join the conversation of the cached answer
+        Assertions.assertEquals(ConversationState.EMPTY, session2.getState());
+
+        // Every hit is a copy
+        Assertions.assertNotSame(answer, cached);
+        cached.setAnswer("changed");
+        Answer again = bardClient.newSession().getAnswerAsync("Give me a picture of White House").join();
+        Assertions.assertEquals(answer.getAnswer(), again.getAnswer());
+        Assertions.assertEquals(2, transport.getRequests().size());
+
+        // Follow-up questions are keyed on the conversation, so they are asked
+        session1.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals(3, transport.getRequests().size());
+        Assertions.assertTrue(body(transport.getRequests().get(2)).contains("c_8300a5a03d34fb60"));
+
+        Assertions.assertEquals(2, answerCache.stats().getHitCount());
+        Assertions.assertEquals(2, answerCache.stats().getMissCount());
+    }
+
+    @Test
+    public void testGetAnswer_answerCachePerAccount() {
+        LruAnswerCache answerCache = LruAnswerCache.builder().build();
+        IBardClient client1 = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .answerCache(answerCache)
+            .build();
+        IBardClient client2 = BardClient.builder("other_token.")
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .answerCache(answerCache)
+            .build();
+
+        client1.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals(2, transport.getRequests().size());
+        // The answer of one account is never served to another one
+        client2.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals(4, transport.getRequests().size());
+        Assertions.assertEquals("__Secure-1PSID=other_token.", transport.getRequests().get(3).getHeaders().get("Cookie"));
+        Assertions.assertEquals(0, answerCache.stats().getHitCount());
+    }
+
+    @Test
+    public void testGetAnswer_metricsListener() {
+        List<BardPhaseEvent> events = new CopyOnWriteArrayList<>();
+        BardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .metricsListener(events::add)
+            .build();
+
+        bardClient.getAnswer("Give me a picture of White House");
+        List<BardPhase> phases = new ArrayList<>();
+        for (BardPhaseEvent event : events) {
+            phases.add(event.getPhase());
+            Assertions.assertTrue(event.isSuccess());
+        }
+        Assertions.assertEquals(Arrays.asList(BardPhase.SNLM0E, BardPhase.SEND_REQUEST, BardPhase.PARSE_RESPONSE,
+            BardPhase.ANSWER), phases);
+        Assertions.assertFalse(events.get(0).isCacheHit());
+        Assertions.assertEquals(200, events.get(0).getStatusCode());
+        BardPhaseEvent sendRequest = events.get(1);
+        Assertions.assertEquals(200, sendRequest.getStatusCode());
+        Assertions.assertEquals(transport.getRequests().get(1).getBody().length, sendRequest.getRequestBytes());
+        Assertions.assertTrue(sendRequest.getResponseBytes() > 0);
+
+        // The SNlM0e value now comes from the cache
+        events.clear();
+        bardClient.newSession().getAnswerAsync("Give me a picture of White House").join();
+        Assertions.assertEquals(BardPhase.SNLM0E, events.get(0).getPhase());
+        Assertions.assertTrue(events.get(0).isCacheHit());
+        Assertions.assertEquals(BardPhase.ANSWER, events.get(events.size() - 1).getPhase());
+
+        events.clear();
+        transport.respond("https://bard.google.com/_/BardChatUi", 500, "");
+        Assertions.assertThrows(BardApiException.class, () -> bardClient.getAnswer(Question.builder().question("Who lives there?").build(), chunk -> {
+        }));
+        BardPhaseEvent failed = events.get(1);
+        Assertions.assertEquals(BardPhase.SEND_REQUEST, failed.getPhase());
+        Assertions.assertEquals(500, failed.getStatusCode());
+        Assertions.assertTrue(failed.getError() instanceof BardHttpException);
+        Assertions.assertFalse(events.get(2).isSuccess());
+    }
+
+    @Test
+    public void testGetAnswer_gzipResponses() throws IOException {
+        byte[] recorded = readResource("/bard_response_with_1_picture.json").getBytes(StandardCharsets.UTF_8);
+        byte[] gzipped = gzip(recorded);
+        transport
+            .handle("https://bard.google.com", request -> gzipResponse(gzip(HOME_PAGE.getBytes(StandardCharsets.UTF_8))))
+            .handle("https://bard.google.com/_/BardChatUi", request -> gzipResponse(gzipped));
+        List<BardPhaseEvent> events = new CopyOnWriteArrayList<>();
+        BardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .metricsListener(events::add)
+            .build();
+
+        Answer answer = bardClient.getAnswer("Give me a picture of White House");
+        Assertions.assertEquals("c_8300a5a03d34fb60", answer.getConversationId());
+        Assertions.assertEquals(new String(recorded, StandardCharsets.UTF_8), answer.getRawResponse());
+        Assertions.assertEquals("gzip, deflate", transport.getRequests().get(1).getHeaders().get("Accept-Encoding"));
+        // Bytes received, not decompressed ones
+        Assertions.assertEquals(gzipped.length, events.get(1).getResponseBytes());
+
+        List<AnswerChunk> chunks = new ArrayList<>();
+        Answer streamed = bardClient.newSession().getAnswer(
+            Question.builder().question("Give me a picture of White House").build(), chunks::add);
+        Assertions.assertEquals(answer.getAnswer(), streamed.getAnswer());
+        Assertions.assertTrue(chunks.get(chunks.size() - 1).isLast());
+        Assertions.assertEquals(answer.getAnswer(),
+            bardClient.newSession().getAnswerAsync("Give me a picture of White House").join().getAnswer());
+
+        BardClient uncompressed = BardClient.builder(TOKEN).transport(transport).compressResponses(false).build();
+        uncompressed.getAnswer("Give me a picture of White House");
+        List<BardHttpRequest> requests = transport.getRequests();
+        Assertions.assertNull(requests.get(requests.size() - 1).getHeaders().get("Accept-Encoding"));
+    }
+
+    @Test
+    public void testGetAnswers_perQuestionErrors() throws IOException {
+        byte[] recorded = readResource("/bard_response_with_1_picture.json").getBytes(StandardCharsets.UTF_8);
+        transport.handle("https://bard.google.com/_/BardChatUi", request -> BardHttpResponse.builder()
+            .code(body(request).contains("fail") ? 500 : 200)
+            .body(new ByteArrayInputStream(recorded))
+            .build());
+        IBardClient bardClient = newClient();
+
+        List<Question> questions = new ArrayList<>();
+        for (String question : new String[]{"first", "please fail", "third", "fourth"}) {
+            questions.add(Question.builder().question(question).build());
+        }
+        List<BulkResult> completed = new CopyOnWriteArrayList<>();
+        List<BulkResult> results = bardClient.getAnswers(questions,
+            BulkOptions.builder().parallelism(2).resultListener(completed::add).build());
+
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertEquals(4, completed.size());
+        Assertions.assertTrue(results.get(0).isSuccess());
+        Assertions.assertFalse(results.get(1).isSuccess());
+        Assertions.assertNotNull(results.get(1).getError());
+        Assertions.assertEquals("c_8300a5a03d34fb60", results.get(3).getAnswer().getConversationId());
+        // Every question starts a new conversation
+        for (BardHttpRequest request : transport.getRequests().subList(1, 5)) {
+            Assertions.assertFalse(body(request).contains("c_8300a5a03d34fb60"));
+        }
+    }
+
+    @Test
+    public void testGetAnswer_errorResponse() {
+        transport.respond("https://bard.google.com/_/BardChatUi", 500, "");
+        IBardClient bardClient = newClient();
+
+        Assertions.assertThrows(BardApiException.class,
+            () -> bardClient.getAnswer("Who are you?"));
+    }
+
+    @Test
+    public void testGetAnswer_deadlineAbortsStuckResponse() {
+        // bard never sends the body
+        transport.handle("https://bard.google.com/_/BardChatUi", request -> BardHttpResponse.builder()
+            .code(200)
+            .body(new StuckInputStream())
+            .build());
+        IBardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .answerTimeout(Duration.ofMillis(200))
+            .build();
+
+        long startedAt = System.nanoTime();
+        BardApiException error = Assertions.assertThrows(BardApiException.class,
+            () -> bardClient.getAnswer("Who are you?"));
+        Assertions.assertTrue(error.getCause() instanceof BardTimeoutException);
+        Assertions.assertTrue(System.nanoTime() - startedAt < Duration.ofSeconds(2).toNanos());
+        // Requests are given the time left
+        Duration requestTimeout = transport.getRequests().get(1).getTimeout();
+        Assertions.assertTrue(requestTimeout.compareTo(Duration.ofMillis(200)) <= 0);
+    }
+
+    @Test
+    public void testGetAnswer_deadlineLeavesSNlM0eFetchRunning() {
+        CountDownLatch homePageSent = new CountDownLatch(1);
+        transport.handle("https://bard.google.com", request -> {
+            try {
+                homePageSent.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return BardHttpResponse.builder()
+                .code(200)
+                .body(new ByteArrayInputStream(HOME_PAGE.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        });
+        IBardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .build();
+
+        BardApiException error = Assertions.assertThrows(BardApiException.class,
+            () -> bardClient.getAnswer(Question.builder()
+                .question("Who are you?")
+                .timeout(Duration.ofMillis(100))
+                .build()));
+        Assertions.assertTrue(error.getCause() instanceof BardTimeoutException);
+
+        // Only the question gave up, the shared fetch completes and is used by the next one
+        homePageSent.countDown();
+        Assertions.assertNotNull(bardClient.getAnswer("Who are you?").getAnswer());
+        Assertions.assertEquals(1, transport.getRequests().stream()
+            .filter(request -> BardHttpRequest.GET.equals(request.getMethod()))
+            .count());
+        // Not bound to the deadline of the question which started it
+        Assertions.assertNull(transport.getRequests().get(0).getTimeout());
+    }
+
+    @Test
+    public void testGetAnswerAsync_timeoutAndCancel() throws InterruptedException {
+        List<CompletableFuture<BardHttpResponse>> pending = new CopyOnWriteArrayList<>();
+        // The home page is answered, StreamGenerate requests never are
+        BardTransport hanging = new BardTransport() {
+            @Override
+            public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+                return transport.execute(request);
+            }
+
+            @Override
+            public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+                if (BardHttpRequest.GET.equals(request.getMethod())) {
+                    return transport.executeAsync(request);
+                }
+                CompletableFuture<BardHttpResponse> response = new CompletableFuture<>();
+                pending.add(response);
+                return response;
+            }
+        };
+        IBardClient bardClient = BardClient.builder(TOKEN)
+            .transport(hanging)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .build();
+
+        CompletableFuture<Answer> timedOut = bardClient.getAnswerAsync(Question.builder()
+            .question("Who are you?")
+            .timeout(Duration.ofMillis(100))
+            .build());
+        CompletionException error = Assertions.assertThrows(CompletionException.class, timedOut::join);
+        Assertions.assertTrue(error.getCause().getCause() instanceof BardTimeoutException);
+        Assertions.assertTrue(pending.get(0).isCancelled());
+
+        CompletableFuture<Answer> cancelled = bardClient.getAnswerAsync("Who are you?");
+        for (int i = 0; i < 100 && pending.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        cancelled.cancel(true);
+        Assertions.assertTrue(pending.get(1).isCancelled());
+    }
+
+    @Test
+    public void testGetAnswerAsync_deadlineCancelsThroughDecorators() {
+        List<CompletableFuture<BardHttpResponse>> pending = new CopyOnWriteArrayList<>();
+        BardTransport hanging = new BardTransport() {
+            @Override
+            public BardHttpResponse execute(BardHttpRequest request) throws IOException {
+                return transport.execute(request);
+            }
+
+            @Override
+            public CompletableFuture<BardHttpResponse> executeAsync(BardHttpRequest request) {
+                if (BardHttpRequest.GET.equals(request.getMethod())) {
+                    return transport.executeAsync(request);
+                }
+                CompletableFuture<BardHttpResponse> response = new CompletableFuture<>();
+                pending.add(response);
+                return response;
+            }
+        };
+        // Throttling, then circuit breaker, then hedging, then the transport
+        IBardClient bardClient = BardClient.builder(TOKEN)
+            .transport(hanging)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .retryPolicy(RetryPolicy.NONE)
+            .circuitBreaker(CircuitBreaker.builder().build())
+            .hedgingPolicy(HedgingPolicy.builder().initialDelay(Duration.ofSeconds(10)).maxDelay(Duration.ofSeconds(10)).build())
+            .answerTimeout(Duration.ofMillis(100))
+            .build();
+
+        CompletionException error = Assertions.assertThrows(CompletionException.class,
+            () -> bardClient.getAnswerAsync("Who are you?").join());
+        Assertions.assertTrue(error.getCause().getCause() instanceof BardTimeoutException);
+        Assertions.assertEquals(1, pending.size());
+        Assertions.assertTrue(pending.get(0).isCancelled());
+    }
+
+    @Test
+    public void testGetAnswerAsync_chunkedTranslationOnSingleThread() throws Exception {
+        IBardTranslator upperCase = new IBardTranslator() {
+            @Override
+            public String middleLanguage() {
+                return "en";
+            }
+
+            @Override
+            public String detectLanguage(String rawText) {
+                return "zh";
+            }
+
+            @Override
+            public String translate(String sourceLang, String targetLang, String rawText) {
+                return rawText.toUpperCase(Locale.ROOT);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            IBardClient bardClient = BardClient.builder(TOKEN)
+                .transport(transport)
+                .snlm0eCache(SNlM0eCache.builder().build())
+                .executor(executor)
+                .translator(upperCase)
+                .answerTranslator(ParallelAnswerTranslator.builder().maxChunkLength(50).build())
+                .build();
+
+            // Lanes do not wait behind the executor thread translating the answer
+            Answer answer = bardClient.getAnswerAsync("你是谁").get(5, TimeUnit.SECONDS);
+            Assertions.assertTrue(answer.getAnswer().startsWith("SURE, HERE IS A PICTURE OF THE WHITE HOUSE."));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testResumeSession_conversationStore() {
+        InMemoryConversationStore store = new InMemoryConversationStore();
+        BardClient bardClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .conversationStore(store)
+            .build();
+
+        BardSession session = bardClient.resumeSession("user-1");
+        Assertions.assertEquals(ConversationState.EMPTY, session.getState());
+        session.getAnswer("Give me a picture of White House");
+
+        // Another client, e.g. on another node, continues the conversation
+        BardClient otherClient = BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .conversationStore(store)
+            .build();
+        BardSession resumed = otherClient.resumeSession("user-1");
+        Assertions.assertEquals(session.getState(), resumed.getState());
+        Assertions.assertEquals(1, store.load("user-1").getTurns());
+        resumed.getAnswer("Who lives there?");
+        Assertions.assertTrue(body(transport.getRequests().get(transport.getRequests().size() - 1))
+            .contains("c_8300a5a03d34fb60"));
+        Assertions.assertEquals(2, store.load("user-1").getTurns());
+
+        resumed.reset();
+        Assertions.assertNull(store.load("user-1"));
+        // Without a store, there is nothing to resume from
+        BardClient clientWithoutStore = BardClient.builder(TOKEN).transport(transport).build();
+        Assertions.assertThrows(IllegalStateException.class, () -> clientWithoutStore.resumeSession("user-1"));
+    }
+
+    private IBardClient newClient() {
+        // Own cache, so every test fetches the home page itself
+        return BardClient.builder(TOKEN)
+            .transport(transport)
+            .snlm0eCache(SNlM0eCache.builder().build())
+            .build();
+    }
+
+    /**
+     * Body whose reads block until it is closed.
+     */
+    private static class StuckInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Stream closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static BardHttpResponse gzipResponse(byte[] body) {
+        return BardHttpResponse.builder()
+            .code(200)
+            .headers(Collections.singletonMap("Content-Encoding", Collections.singletonList("gzip")))
+            .body(new ByteArrayInputStream(body))
+            .build();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String body(BardHttpRequest request) {
+        return URLDecoder.decode(new String(request.getBody(), StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream inputStream = BardClientInMemoryTest.class.getResourceAsStream(name)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
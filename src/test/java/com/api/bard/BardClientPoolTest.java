@@ -0,0 +1,143 @@
+package com.api.bard;
+
+import com.api.bard.cache.SNlM0eCache;
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.ConversationState;
+import com.api.bard.model.Question;
+import com.api.bard.transport.BardHttpRequest;
+import com.api.bard.transport.BardHttpResponse;
+import com.api.bard.transport.InMemoryBardTransport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BardClientPoolTest {
+    private static final String HOME_PAGE = "<script>WIZ_global_data = {\"SNlM0e\":\"test_snlm0e\"};</script>";
+    private static final String REJECTED_TOKEN = "rejected_token.";
+
+    private InMemoryBardTransport transport;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        byte[] homePage = HOME_PAGE.getBytes(StandardCharsets.UTF_8);
+        transport = new InMemoryBardTransport()
+            // Home page without SNlM0e for the rejected token, as bard does for signed out users
+            .handle("https://bard.google.com", request -> BardHttpResponse.builder()
+                .code(200)
+                .body(new ByteArrayInputStream(tokenOf(request).equals(REJECTED_TOKEN) ? new byte[0] : homePage))
+                .build())
+            .respond("https://bard.google.com/_/BardChatUi", 200, readResource("/bard_response_with_1_picture.json"));
+    }
+
+    @Test
+    public void testGetAnswer_spreadsAcrossAccounts() {
+        BardClientPool pool = newPool(Arrays.asList("token_a.", "token_b."));
+
+        for (int i = 0; i < 4; i++) {
+            pool.getAnswer("Give me a picture of White House");
+        }
+
+        List<String> homePageTokens = new ArrayList<>();
+        for (BardHttpRequest request : transport.getRequests()) {
+            if (BardHttpRequest.GET.equals(request.getMethod())) {
+                homePageTokens.add(tokenOf(request));
+            }
+        }
+        // Each account fetched its own SNlM0e value once
+        Assertions.assertEquals(2, homePageTokens.size());
+        Assertions.assertTrue(homePageTokens.containsAll(Arrays.asList("token_a.", "token_b.")));
+
+        for (BardClientPool.AccountHealth health : pool.getAccountHealth()) {
+            Assertions.assertEquals(0, health.getInFlight());
+            Assertions.assertEquals(0, health.getErrorRate());
+            Assertions.assertFalse(health.isEjected());
+        }
+    }
+
+    @Test
+    public void testGetAnswer_ejectsRejectedToken() {
+        BardClientPool pool = newPool(Arrays.asList(REJECTED_TOKEN, "token_b."));
+
+        // The rejected account fails at most once, then every question goes to the other one
+        int failures = 0;
+        for (int i = 0; i < 4; i++) {
+            try {
+                pool.getAnswer("Give me a picture of White House");
+            } catch (BardApiException e) {
+                failures++;
+            }
+        }
+        Assertions.assertTrue(failures <= 1);
+        Assertions.assertTrue(pool.getAccountHealth().get(0).isEjected());
+        Assertions.assertFalse(pool.getAccountHealth().get(1).isEjected());
+        Assertions.assertFalse(pool.getAccountHealth().get(0).getName().contains(REJECTED_TOKEN));
+
+        List<BulkResult> results = pool.getAnswers(Arrays.asList(question(), question(), question()),
+            BulkOptions.builder().parallelism(2).build());
+        for (BulkResult result : results) {
+            Assertions.assertTrue(result.isSuccess());
+        }
+    }
+
+    @Test
+    public void testGetAnswer_allTokensRejected() {
+        BardClientPool pool = newPool(Arrays.asList(REJECTED_TOKEN));
+
+        Assertions.assertThrows(BardApiException.class, () -> pool.getAnswer("Who are you?"));
+        BardApiException e = Assertions.assertThrows(BardApiException.class, () -> pool.getAnswer("Who are you?"));
+        Assertions.assertTrue(e.getMessage().startsWith("No account available"));
+        Assertions.assertTrue(pool.getAnswerAsync("Who are you?").isCompletedExceptionally());
+    }
+
+    @Test
+    public void testSession_keepsConversationOnItsAccount() {
+        BardClientPool pool = newPool(Arrays.asList("token_a.", "token_b."));
+
+        BardPoolSession session = pool.newSession();
+        Answer answer = session.getAnswerAsync("Give me a picture of White House").join();
+        Assertions.assertEquals(answer.getConversationId(), session.getState().getConversationId());
+
+        session.getAnswer("Who lives there?");
+        List<BardHttpRequest> requests = transport.getRequests();
+        // Both questions were asked with the same token
+        Assertions.assertEquals(tokenOf(requests.get(1)), tokenOf(requests.get(requests.size() - 1)));
+
+        session.reset();
+        Assertions.assertEquals(ConversationState.EMPTY, session.getState());
+    }
+
+    private BardClientPool newPool(List<String> tokens) {
+        return BardClientPool.builder(tokens)
+            .clientConfigurator(builder -> builder
+                .transport(transport)
+                .snlm0eCache(SNlM0eCache.builder().build()))
+            .ejectionDuration(Duration.ofMinutes(1))
+            .build();
+    }
+
+    private static Question question() {
+        return Question.builder().question("Give me a picture of White House").build();
+    }
+
+    private static String tokenOf(BardHttpRequest request) {
+        return request.getHeaders().get("Cookie").replace("__Secure-1PSID=", "");
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream inputStream = BardClientPoolTest.class.getResourceAsStream(name)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
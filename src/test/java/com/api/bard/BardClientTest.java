@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import java.net.InetSocketAddress;
 import java.net.Proxy;
+import java.util.concurrent.CompletableFuture;
 
 public class BardClientTest {
     private String token;
@@ -50,6 +51,25 @@ public class BardClientTest {
         Assertions.assertNotNull(answer3.getAnswer());
     }
 
+    /**
+     * Non-blocking usage: no thread is held while waiting for the answer
+     */
+    @Test
+    public void testGetAnswerAsync() {
+        IBardClient bardClient = BardClient.builder(token).build();
+
+        CompletableFuture<Answer> future = bardClient.getAnswerAsync("Who is current president of USA?");
+        Answer answer = future.join();
+        Assertions.assertNotNull(answer.getAnswer());
+
+        // Conversation continues the same way as getAnswer
+        Answer answer2 = bardClient.getAnswerAsync(
+            Question.builder()
+                .question("Who is his wife?")
+                .build()).join();
+        Assertions.assertNotNull(answer2.getAnswer());
+    }
+
     /**
      * Advanced usage: customize connection properties,
      * such as set custom http headers and timeout properties
@@ -0,0 +1,97 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.BulkOptions;
+import com.api.bard.model.BulkProgress;
+import com.api.bard.model.BulkResult;
+import com.api.bard.model.Question;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkQuestionRunnerTest {
+
+    @Test
+    public void testRun_boundedParallelismAndOrder() {
+        List<Question> questions = questions(10);
+        List<CompletableFuture<Answer>> pending = new CopyOnWriteArrayList<>();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<BulkProgress> progress = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<List<BulkResult>> results = new BulkQuestionRunner(questions,
+            BulkOptions.builder().parallelism(3).progressListener(progress::add).build(),
+            question -> {
+                CompletableFuture<Answer> answer = new CompletableFuture<>();
+                pending.add(answer);
+                long inFlight = pending.stream().filter(future -> !future.isDone()).count();
+                maxInFlight.accumulateAndGet((int) inFlight, Math::max);
+                return answer;
+            }).run();
+
+        // Complete in reverse order of asking, failing every fifth question
+        int completed = 0;
+        while (completed < questions.size()) {
+            List<CompletableFuture<Answer>> inFlight = new ArrayList<>();
+            for (CompletableFuture<Answer> future : pending) {
+                if (!future.isDone()) {
+                    inFlight.add(future);
+                }
+            }
+            CompletableFuture<Answer> last = inFlight.get(inFlight.size() - 1);
+            int index = pending.indexOf(last);
+            if (index % 5 == 4) {
+                last.completeExceptionally(new BardApiException("failed " + index));
+            } else {
+                last.complete(Answer.builder().answer("answer " + index).build());
+            }
+            completed++;
+        }
+
+        Assertions.assertEquals(3, maxInFlight.get());
+        List<BulkResult> list = results.join();
+        Assertions.assertEquals(10, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            Assertions.assertEquals(i, list.get(i).getIndex());
+            Assertions.assertEquals("q" + i, list.get(i).getQuestion().getQuestion());
+        }
+        long failed = list.stream().filter(result -> !result.isSuccess()).count();
+        Assertions.assertEquals(2, failed);
+        Assertions.assertEquals(10, progress.size());
+        Assertions.assertTrue(progress.get(9).isDone());
+        Assertions.assertEquals(2, progress.get(9).getFailed());
+    }
+
+    @Test
+    public void testRun_manyImmediateAnswers() {
+        List<Question> questions = questions(100_000);
+        AtomicInteger resultCount = new AtomicInteger();
+
+        List<BulkResult> results = new BulkQuestionRunner(questions,
+            BulkOptions.builder().parallelism(2).resultListener(result -> resultCount.incrementAndGet()).build(),
+            question -> {
+                if (question.getQuestion().equals("q7")) {
+                    throw new IllegalStateException("thrown by the asker");
+                }
+                return CompletableFuture.completedFuture(Answer.builder().answer(question.getQuestion()).build());
+            }).run().join();
+
+        Assertions.assertEquals(100_000, results.size());
+        Assertions.assertEquals(100_000, resultCount.get());
+        Assertions.assertEquals("q99999", results.get(99_999).getAnswer().getAnswer());
+        Assertions.assertTrue(results.get(7).getError().getCause() instanceof IllegalStateException);
+    }
+
+    private static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(Question.builder().question("q" + i).build());
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.bard;
+
+import com.api.bard.transport.BardHttpResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ContentDecodingTest {
+    private static final String BODY = ")]}'\n\n[[\"wrb.fr\",null,\"[[\\\"Bonjour, ça va? 你好\\\"]]\"]]\n";
+
+    @Test
+    public void testDecode_gzip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Assertions.assertEquals(BODY, decode("gzip", compressed.toByteArray()));
+        Assertions.assertEquals(BODY, decode("GZIP ", compressed.toByteArray()));
+    }
+
+    @Test
+    public void testDecode_deflate() throws IOException {
+        // zlib wrapped, as the spec says
+        ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(zlib)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        Assertions.assertEquals(BODY, decode("deflate", zlib.toByteArray()));
+
+        // raw, as some servers send it
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        Assertions.assertEquals(BODY, decode("deflate", raw.toByteArray()));
+    }
+
+    @Test
+    public void testDecode_notCompressed() throws IOException {
+        Assertions.assertEquals(BODY, decode(null, BODY.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(BODY, decode("identity", BODY.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(IOException.class, () -> decode("br", new byte[]{1, 2, 3}));
+    }
+
+    private static String decode(String contentEncoding, byte[] body) throws IOException {
+        BardHttpResponse response = BardHttpResponse.builder()
+            .code(200)
+            .headers(contentEncoding == null ? Collections.emptyMap()
+                : Collections.singletonMap("content-encoding", Collections.singletonList(contentEncoding)))
+            .build();
+        try (InputStream decoded = ContentDecoding.decode(response, new ByteArrayInputStream(body))) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
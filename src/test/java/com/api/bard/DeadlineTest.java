@@ -0,0 +1,47 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardTimeoutException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+public class DeadlineTest {
+
+    @Test
+    public void testAbort_actionsInReverseOrder() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        List<String> aborted = new ArrayList<>();
+        deadline.onAbort(() -> aborted.add("result"));
+        deadline.onAbort(() -> aborted.add("request"));
+
+        deadline.cancel();
+        Assertions.assertEquals(List.of("request", "result"), aborted);
+        Assertions.assertThrows(CancellationException.class, deadline::check);
+        // Registered once aborted, run at once
+        deadline.onAbort(() -> aborted.add("late"));
+        Assertions.assertEquals("late", aborted.get(2));
+    }
+
+    @Test
+    public void testFinish_dropsAbortActions() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        deadline.onAbort(() -> inFlight.cancel(true));
+
+        deadline.finish();
+        deadline.cancel();
+        Assertions.assertFalse(inFlight.isDone());
+    }
+
+    @Test
+    public void testAwait_expires() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+        Assertions.assertThrows(BardTimeoutException.class, () -> deadline.await(new CompletableFuture<>()));
+        Assertions.assertTrue(deadline.abortCause() instanceof BardTimeoutException);
+    }
+}
@@ -0,0 +1,49 @@
+package com.api.bard;
+
+import com.api.bard.exception.BardApiException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.Question;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+public class IBardClientTest {
+
+    @Test
+    public void testDefaultStreamingAndAsync_blockingClient() {
+        // Implements only the blocking methods
+        IBardClient bardClient = new IBardClient() {
+            @Override
+            public Answer getAnswer(Question question) {
+                if (question.getQuestion().isEmpty()) {
+                    throw new BardApiException("empty question");
+                }
+                return Answer.builder()
+                    .answer("answer to " + question.getQuestion())
+                    .conversationId("c_1")
+                    .responseId("r_1")
+                    .build();
+            }
+
+            @Override
+            public void reset() {
+            }
+        };
+
+        List<AnswerChunk> chunks = new ArrayList<>();
+        Answer answer = bardClient.getAnswer(Question.builder().question("Who are you?").build(), chunks::add);
+        Assertions.assertEquals(1, chunks.size());
+        Assertions.assertTrue(chunks.get(0).isLast());
+        Assertions.assertEquals(answer.getAnswer(), chunks.get(0).getAnswer());
+        Assertions.assertEquals("c_1", chunks.get(0).getConversationId());
+
+        Assertions.assertEquals("answer to Who are you?", bardClient.getAnswerAsync("Who are you?").join().getAnswer());
+        CompletionException error = Assertions.assertThrows(CompletionException.class,
+            () -> bardClient.getAnswerAsync("").join());
+        Assertions.assertTrue(error.getCause() instanceof BardApiException);
+    }
+}
@@ -0,0 +1,43 @@
+package com.api.bard;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamGenerateChunkReaderTest {
+
+    @Test
+    public void testNextChunk_recordedResponse() throws IOException {
+        List<String> chunks = new ArrayList<>();
+        try (StreamGenerateChunkReader chunkReader = new StreamGenerateChunkReader(new InputStreamReader(
+            getClass().getResourceAsStream("/bard_response_with_1_picture.json"), StandardCharsets.UTF_8))) {
+            String chunk;
+            while ((chunk = chunkReader.nextChunk()) != null) {
+                chunks.add(chunk);
+            }
+        }
+
+        Assertions.assertEquals(3, chunks.size());
+        Assertions.assertTrue(chunks.get(0).startsWith("[[\"wrb.fr\""));
+        Assertions.assertTrue(chunks.get(0).endsWith("]]"));
+        Assertions.assertTrue(chunks.get(1).startsWith("[[\"di\""));
+        Assertions.assertTrue(chunks.get(2).startsWith("[[\"e\""));
+    }
+
+    @Test
+    public void testNextChunk_lengthCountsCharacters() throws IOException {
+        // "[\"你好\"]" is 6 chars, plus the line breaks around it
+        StreamGenerateChunkReader chunkReader = new StreamGenerateChunkReader(
+            new StringReader(")]}'\n\n8\n[\"你好\"]\n4\n[1]\n"));
+
+        Assertions.assertEquals("[\"你好\"]", chunkReader.nextChunk());
+        Assertions.assertEquals("[1]", chunkReader.nextChunk());
+        Assertions.assertNull(chunkReader.nextChunk());
+    }
+}
@@ -0,0 +1,87 @@
+package com.api.bard;
+
+import com.api.bard.model.ConversationState;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+public class StreamGenerateRequestEncoderTest {
+    private static final StreamGenerateRequestEncoder ENCODER =
+        new StreamGenerateRequestEncoder("https://bard.google.com/_/BardChatUi/data/StreamGenerate");
+
+    @Test
+    public void testEncodeUrl() {
+        Assertions.assertEquals("https://bard.google.com/_/BardChatUi/data/StreamGenerate"
+                + "?bl=boq_assistant-bard-web-server_20230419.00_p1&_reqid=1234&rt=c&",
+            ENCODER.encodeUrl(1234));
+    }
+
+    @Test
+    public void testEncodeBody_escapesQuestion() {
+        String question = "Say \"hi\" \\o/\n\ttab\u0001   100% & more? 你好 😀";
+        ConversationState state = ConversationState.builder()
+            .conversationId("c_1")
+            .responseId("r_\"2\"")
+            .choiceId("rc_3")
+            .build();
+
+        JsonArray inner = decodeInner(ENCODER.encodeBody(question, state, "snlm0e+/="));
+
+        Assertions.assertEquals(question, inner.get(0).getAsJsonArray().get(0).getAsString());
+        JsonArray ids = inner.get(2).getAsJsonArray();
+        Assertions.assertEquals("c_1", ids.get(0).getAsString());
+        Assertions.assertEquals("r_\"2\"", ids.get(1).getAsString());
+        Assertions.assertEquals("rc_3", ids.get(2).getAsString());
+    }
+
+    @Test
+    public void testEncodeBody_formEncodedLikeUrlEncoder() {
+        String question = "plain ASCII .-*_ ~!'()é€😀";
+
+        String body = new String(ENCODER.encodeBody(question, ConversationState.EMPTY, "snlm0e+/="),
+            StandardCharsets.US_ASCII);
+
+        String fReq = "[null,\"[[\\\"" + question + "\\\"],null,[\\\"\\\",\\\"\\\",\\\"\\\"]]\"]";
+        Assertions.assertEquals("f.req=" + URLEncoder.encode(fReq, StandardCharsets.UTF_8)
+            + "&at=" + URLEncoder.encode("snlm0e+/=", StandardCharsets.UTF_8) + "&", body);
+    }
+
+    @Test
+    public void testEncodeBody_unpairedSurrogates() {
+        String body = new String(ENCODER.encodeBody("a\uD83Db\uDE00", ConversationState.EMPTY, "s"),
+            StandardCharsets.US_ASCII);
+
+        // Same replacement as URLEncoder
+        Assertions.assertTrue(body.contains("a%3Fb%3F"));
+    }
+
+    @Test
+    public void testEncodeBody_largeQuestion() {
+        StringBuilder question = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            question.append("\"é");
+        }
+
+        JsonArray inner = decodeInner(ENCODER.encodeBody(question.toString(), ConversationState.EMPTY, "s"));
+        Assertions.assertEquals(question.toString(), inner.get(0).getAsJsonArray().get(0).getAsString());
+
+        // The buffer of the thread still works after growing
+        inner = decodeInner(ENCODER.encodeBody("short", ConversationState.EMPTY, "s"));
+        Assertions.assertEquals("short", inner.get(0).getAsJsonArray().get(0).getAsString());
+    }
+
+    private static JsonArray decodeInner(byte[] body) {
+        String form = new String(body, StandardCharsets.US_ASCII);
+        Assertions.assertTrue(form.startsWith("f.req="));
+        String fReq = URLDecoder.decode(form.substring("f.req=".length(), form.indexOf("&at=")), StandardCharsets.UTF_8);
+        JsonArray outer = JsonParser.parseString(fReq).getAsJsonArray();
+        Assertions.assertTrue(outer.get(0).isJsonNull());
+        return new Gson().fromJson(outer.get(1).getAsString(), JsonArray.class);
+    }
+}
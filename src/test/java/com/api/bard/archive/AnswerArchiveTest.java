@@ -0,0 +1,148 @@
+package com.api.bard.archive;
+
+import com.api.bard.model.Answer;
+import com.api.bard.parser.TreeBardResultParser;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+public class AnswerArchiveTest {
+    private static Answer recordedAnswer;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    public static void parseRecordedAnswer() throws IOException {
+        String rawResponse;
+        try (InputStream inputStream = AnswerArchiveTest.class.getResourceAsStream("/bard_response_with_1_picture.json")) {
+            rawResponse = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        TreeBardResultParser parser = new TreeBardResultParser();
+        recordedAnswer = parser.parsePayload(parser.extractPayload(rawResponse.split("\n")[3]));
+        recordedAnswer.setRawResponse(rawResponse);
+        recordedAnswer.setUsedTranslator(true);
+    }
+
+    @Test
+    public void testCodec_roundTrip() {
+        byte[] encoded = AnswerCodec.encode(recordedAnswer);
+        Answer decoded = AnswerCodec.decode(encoded);
+
+        Assertions.assertEquals(recordedAnswer, decoded);
+        Assertions.assertFalse(decoded.getImages().isEmpty());
+        Assertions.assertFalse(decoded.getSources().isEmpty());
+        Assertions.assertTrue(encoded.length < new Gson().toJson(recordedAnswer).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void testCodec_selectedFields() {
+        Answer decoded = AnswerCodec.decode(AnswerCodec.encode(recordedAnswer),
+            EnumSet.of(AnswerField.IDS, AnswerField.IMAGES));
+
+        Assertions.assertEquals(recordedAnswer.getConversationId(), decoded.getConversationId());
+        Assertions.assertTrue(decoded.isUsedTranslator());
+        Assertions.assertEquals(recordedAnswer.getImages(), decoded.getImages());
+        Assertions.assertNull(decoded.getAnswer());
+        Assertions.assertNull(decoded.getRawResponse());
+        Assertions.assertNull(decoded.getSources());
+    }
+
+    @Test
+    public void testCodec_nullsAndMalformed() {
+        Answer empty = Answer.builder().build();
+        Assertions.assertEquals(empty, AnswerCodec.decode(AnswerCodec.encode(empty)));
+
+        byte[] encoded = AnswerCodec.encode(recordedAnswer);
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> AnswerCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AnswerCodec.decode(new byte[]{9}));
+    }
+
+    @Test
+    public void testArchive_writeAndScan() throws IOException {
+        Path file = directory.resolve("answers.bin");
+        try (AnswerArchiveWriter writer = AnswerArchiveWriter.builder(file).blockSize(16 * 1024).build()) {
+            for (int i = 0; i < 200; i++) {
+                writer.append(numbered(i));
+            }
+        }
+        // Blocks share the repeated urls and are deflated
+        long gsonSize = 200L * new Gson().toJson(recordedAnswer).getBytes(StandardCharsets.UTF_8).length;
+        Assertions.assertTrue(Files.size(file) * 10 < gsonSize);
+
+        List<Answer> answers = new ArrayList<>();
+        try (AnswerArchiveReader reader = AnswerArchiveReader.open(file)) {
+            reader.forEach(answers::add);
+            Assertions.assertNull(reader.next());
+        }
+        Assertions.assertEquals(200, answers.size());
+        Assertions.assertEquals(numbered(123), answers.get(123));
+
+        List<String> conversationIds = new ArrayList<>();
+        try (AnswerArchiveReader reader = AnswerArchiveReader.open(file, EnumSet.of(AnswerField.IDS))) {
+            reader.forEach(answer -> {
+                Assertions.assertNull(answer.getRawResponse());
+                conversationIds.add(answer.getConversationId());
+            });
+        }
+        Assertions.assertEquals("c_199", conversationIds.get(199));
+    }
+
+    @Test
+    public void testArchive_appendsAfterCutBlock() throws IOException {
+        Path file = directory.resolve("answers.bin");
+        try (AnswerArchiveWriter writer = AnswerArchiveWriter.builder(file).compress(false).build()) {
+            writer.append(numbered(0));
+            writer.flush();
+            writer.append(numbered(1));
+        }
+        // A crash cut the last block
+        try (RandomAccessFile cut = new RandomAccessFile(file.toFile(), "rw")) {
+            cut.setLength(cut.length() - 10);
+        }
+        try (AnswerArchiveReader reader = AnswerArchiveReader.open(file)) {
+            Assertions.assertEquals(numbered(0), reader.next());
+            Assertions.assertNull(reader.next());
+        }
+
+        try (AnswerArchiveWriter writer = AnswerArchiveWriter.builder(file).build()) {
+            writer.append(numbered(2));
+        }
+        try (AnswerArchiveReader reader = AnswerArchiveReader.open(file)) {
+            Assertions.assertEquals(numbered(0), reader.next());
+            Assertions.assertEquals(numbered(2), reader.next());
+            Assertions.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testArchive_notAnArchive() throws IOException {
+        Path file = directory.resolve("other.txt");
+        Files.write(file, "not an archive".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertThrows(UncheckedIOException.class, () -> AnswerArchiveReader.open(file));
+        Assertions.assertThrows(UncheckedIOException.class, () -> AnswerArchiveWriter.builder(file).build());
+    }
+
+    private static Answer numbered(int i) {
+        Answer answer = AnswerCodec.decode(AnswerCodec.encode(recordedAnswer));
+        answer.setConversationId("c_" + i);
+        answer.setAnswer(i + " " + answer.getAnswer());
+        return answer;
+    }
+}
@@ -0,0 +1,83 @@
+package com.api.bard.cache;
+
+import com.api.bard.model.Answer;
+import com.api.bard.model.ConversationState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LruAnswerCacheTest {
+    private static final String ACCOUNT = AnswerCacheKey.account("test_token.");
+
+    @Test
+    public void testGet_evictsLeastRecentlyUsed() {
+        LruAnswerCache cache = LruAnswerCache.builder().maximumSize(2).build();
+        cache.put(key("a"), answer("a"));
+        cache.put(key("b"), answer("b"));
+        Assertions.assertNotNull(cache.get(key("a")));
+
+        cache.put(key("c"), answer("c"));
+        Assertions.assertNull(cache.get(key("b")));
+        Assertions.assertEquals("a", cache.get(key("a")).getAnswer());
+        Assertions.assertEquals("c", cache.get(key("c")).getAnswer());
+
+        AnswerCacheStats stats = cache.stats();
+        Assertions.assertEquals(3, stats.getHitCount());
+        Assertions.assertEquals(1, stats.getMissCount());
+        Assertions.assertEquals(1, stats.getEvictionCount());
+        Assertions.assertEquals(2, stats.getSize());
+        Assertions.assertEquals(0.75, stats.hitRate());
+    }
+
+    @Test
+    public void testGet_expiresAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        LruAnswerCache cache = LruAnswerCache.builder()
+            .ttl(Duration.ofMinutes(1))
+            .nanoClock(now::get)
+            .build();
+        cache.put(key("a"), answer("a"));
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        Assertions.assertNotNull(cache.get(key("a")));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        Assertions.assertNull(cache.get(key("a")));
+        Assertions.assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void testKey_normalizedQuestionAndConversation() {
+        Assertions.assertEquals(key("Who are you?"), key(" Who  are\nyou? "));
+        Assertions.assertNotEquals(key("Who are you?"), key("who are you?"));
+
+        ConversationState conversation = ConversationState.builder().conversationId("c_1").responseId("r_1").build();
+        Assertions.assertNotEquals(key("Who are you?"), AnswerCacheKey.of(ACCOUNT, "Who are you?", conversation));
+        Assertions.assertNotEquals(key("Who are you?"),
+            AnswerCacheKey.of(AnswerCacheKey.account("other_token."), "Who are you?", ConversationState.EMPTY));
+        Assertions.assertFalse(ACCOUNT.contains("test_token"));
+    }
+
+    @Test
+    public void testGet_returnsCopies() {
+        LruAnswerCache cache = LruAnswerCache.builder().build();
+        Answer answer = answer("a");
+        cache.put(key("a"), answer);
+        answer.setAnswer("changed after put");
+
+        Answer hit = cache.get(key("a"));
+        Assertions.assertEquals("a", hit.getAnswer());
+        hit.setAnswer("changed after get");
+        Assertions.assertEquals("a", cache.get(key("a")).getAnswer());
+        Assertions.assertNotSame(hit, cache.get(key("a")));
+    }
+
+    private static AnswerCacheKey key(String question) {
+        return AnswerCacheKey.of(ACCOUNT, question, ConversationState.EMPTY);
+    }
+
+    private static Answer answer(String answer) {
+        return Answer.builder().answer(answer).build();
+    }
+}
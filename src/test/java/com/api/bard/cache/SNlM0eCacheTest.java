@@ -0,0 +1,92 @@
+package com.api.bard.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SNlM0eCacheTest {
+    private static final String URL = "https://bard.google.com";
+
+    @Test
+    public void testGet_concurrentMissesShareOneFetch() {
+        SNlM0eCache cache = SNlM0eCache.builder().build();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> fetch = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get(URL, "token.", () -> {
+            loads.incrementAndGet();
+            return fetch;
+        });
+        CompletableFuture<String> second = cache.get(URL, "token.", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        fetch.complete("value");
+
+        Assertions.assertEquals("value", first.join());
+        Assertions.assertEquals("value", second.join());
+        Assertions.assertEquals(1, loads.get());
+
+        // Cached from now on
+        Assertions.assertEquals("value", cache.get(URL, "token.", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        }).join());
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testGet_failedFetchIsNotCached() {
+        SNlM0eCache cache = SNlM0eCache.builder().build();
+
+        CompletableFuture<String> failed =
+            cache.get(URL, "token.", () -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+
+        Assertions.assertEquals("value",
+            cache.get(URL, "token.", () -> CompletableFuture.completedFuture("value")).join());
+    }
+
+    @Test
+    public void testInvalidate() {
+        SNlM0eCache cache = SNlM0eCache.builder().build();
+        cache.get(URL, "token.", () -> CompletableFuture.completedFuture("old")).join();
+
+        cache.invalidate(URL, "token.");
+
+        Assertions.assertEquals("new",
+            cache.get(URL, "token.", () -> CompletableFuture.completedFuture("new")).join());
+    }
+
+    @Test
+    public void testGet_keyedByBaseUrl() {
+        SNlM0eCache cache = SNlM0eCache.builder().build();
+        cache.get(URL, "token.", () -> CompletableFuture.completedFuture("bard")).join();
+
+        Assertions.assertEquals("stub",
+            cache.get("http://localhost:8080", "token.", () -> CompletableFuture.completedFuture("stub")).join());
+        Assertions.assertEquals("bard",
+            cache.get(URL, "token.", () -> CompletableFuture.completedFuture("other")).join());
+    }
+
+    @Test
+    public void testGet_dropsUnusedValuesOnceExpired() throws InterruptedException {
+        SNlM0eCache cache = SNlM0eCache.builder()
+            .ttl(Duration.ofMillis(50))
+            .refreshAhead(Duration.ZERO)
+            .build();
+        cache.get(URL, "token.", () -> CompletableFuture.completedFuture("value")).join();
+        cache.get(URL, "failing.", () -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+        Assertions.assertEquals(1, cache.size());
+
+        for (int i = 0; i < 200 && cache.size() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals("new",
+            cache.get(URL, "token.", () -> CompletableFuture.completedFuture("new")).join());
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.bard.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class MicrometerMetricsListenerTest {
+
+    @Test
+    public void testOnPhase_publishesMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BardMetricsListener listener = new MicrometerMetricsListener(registry);
+
+        listener.onPhase(BardPhaseEvent.builder()
+            .phase(BardPhase.SEND_REQUEST)
+            .durationNanos(TimeUnit.MILLISECONDS.toNanos(300))
+            .statusCode(200)
+            .requestBytes(120)
+            .responseBytes(4000)
+            .build());
+        listener.onPhase(BardPhaseEvent.builder()
+            .phase(BardPhase.SEND_REQUEST)
+            .durationNanos(TimeUnit.MILLISECONDS.toNanos(100))
+            .error(new IOException("reset"))
+            .build());
+        listener.onPhase(BardPhaseEvent.builder().phase(BardPhase.ANSWER).cacheHit(true).build());
+        listener.onPhase(BardPhaseEvent.builder().phase(BardPhase.RETRY).attempt(1).statusCode(429).build());
+
+        Assertions.assertEquals(300, registry.get("bard.phase")
+            .tags("phase", "send_request", "outcome", "success").timer().totalTime(TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(1, registry.get("bard.phase")
+            .tags("phase", "send_request", "outcome", "error", "exception", "IOException").timer().count());
+        Assertions.assertEquals(4000, registry.get("bard.response.bytes").summary().totalAmount());
+        Assertions.assertEquals(120, registry.get("bard.request.bytes").summary().totalAmount());
+        Assertions.assertEquals(1, registry.get("bard.cache").tags("phase", "answer", "result", "hit").counter().count());
+        Assertions.assertEquals(1, registry.get("bard.retries").tag("status", "429").counter().count());
+    }
+
+    @Test
+    public void testOnPhase_tagsIndependentOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            new MicrometerMetricsListener(registry).onPhase(BardPhaseEvent.builder().phase(BardPhase.TRANSLATE_QUESTION).build());
+
+            Assertions.assertEquals(1, registry.get("bard.phase").tags("phase", "translate_question").timer().count());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.api.bard.model;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class AnswerTest {
+
+    @Test
+    public void testGetMarkdownAnswer_decoratesEveryImage() {
+        Answer answer = Answer.builder()
+            .answer("Here: [Image of a $1 bill] and [Image of White House] [x] [[Image of a $1 bill]")
+            .images(Arrays.asList(
+                image("[Image of White House]", "https://img/wh.jpg", "https://wh"),
+                image("[Image of a $1 bill]", "https://img/$1.jpg", "https://bill"),
+                image("[Image of a $1 bill]", "https://img/$1-back.jpg", "https://bill-back")))
+            .build();
+
+        Assertions.assertEquals("Here: [![Image of a $1 bill](https://img/$1.jpg)](https://bill)"
+                + " and [![Image of White House](https://img/wh.jpg)](https://wh) [x]"
+                + " [[![Image of a $1 bill](https://img/$1-back.jpg)](https://bill-back)",
+            answer.getMarkdownAnswer());
+    }
+
+    @Test
+    public void testGetMarkdownAnswer_memoized() {
+        Answer answer = Answer.builder()
+            .answer("[Image of White House]")
+            .images(Collections.singletonList(image("[Image of White House]", "https://img/wh.jpg", "https://wh")))
+            .build();
+
+        String markdown = answer.getMarkdownAnswer();
+        Assertions.assertSame(markdown, answer.getMarkdownAnswer());
+
+        answer.setAnswer("See [Image of White House]");
+        Assertions.assertEquals("See [![Image of White House](https://img/wh.jpg)](https://wh)",
+            answer.getMarkdownAnswer());
+        answer.setImages(null);
+        Assertions.assertEquals("See [Image of White House]", answer.getMarkdownAnswer());
+    }
+
+    @Test
+    public void testWriteMarkdownAnswer() throws IOException {
+        Answer answer = Answer.builder()
+            .answer("A [Image of White House] B")
+            .images(Collections.singletonList(image("[Image of White House]", "https://img/wh.jpg", "https://wh")))
+            .build();
+
+        StringWriter writer = new StringWriter();
+        answer.writeMarkdownAnswer(writer);
+        Assertions.assertEquals(answer.getMarkdownAnswer(), writer.toString());
+
+        // Written from the memoized markdown
+        StringBuilder builder = new StringBuilder("> ");
+        answer.writeMarkdownAnswer(builder);
+        Assertions.assertEquals("> " + answer.getMarkdownAnswer(), builder.toString());
+
+        StringBuilder empty = new StringBuilder();
+        Answer.builder().build().writeMarkdownAnswer(empty);
+        Assertions.assertEquals("", empty.toString());
+    }
+
+    @Test
+    public void testGetMarkdownAnswer_afterGsonRoundTrip() {
+        Gson gson = new Gson();
+        Answer answer = gson.fromJson(gson.toJson(Answer.builder()
+            .answer("A [Image of White House] B")
+            .images(Collections.singletonList(image("[Image of White House]", "https://img/wh.jpg", "https://wh")))
+            .build()), Answer.class);
+
+        Assertions.assertEquals("A [![Image of White House](https://img/wh.jpg)](https://wh) B",
+            answer.getMarkdownAnswer());
+        answer.setAnswer("[Image of White House]");
+        Assertions.assertEquals("[![Image of White House](https://img/wh.jpg)](https://wh)", answer.getMarkdownAnswer());
+    }
+
+    @Test
+    public void testDecorateMarkdown_firstOccurrence() {
+        Answer.Image image = image("[Image of White House]", "https://img/wh.jpg", "https://wh");
+
+        Assertions.assertEquals("[![Image of White House](https://img/wh.jpg)](https://wh) [Image of White House]",
+            image.decorateMarkdown("[Image of White House] [Image of White House]"));
+    }
+
+    private static Answer.Image image(String marker, String url, String link) {
+        return Answer.Image.builder()
+            .imageMarker(marker)
+            .imageUrl(url)
+            .detailsLink(link)
+            .build();
+    }
+}
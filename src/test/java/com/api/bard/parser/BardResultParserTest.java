@@ -0,0 +1,76 @@
+package com.api.bard.parser;
+
+import com.api.bard.model.Answer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks the streaming parser gives the same answers as the tree parser.
+ */
+public class BardResultParserTest {
+    private final BardResultParser treeParser = new TreeBardResultParser();
+    private final BardResultParser streamingParser = new StreamingBardResultParser();
+
+    @Test
+    public void testRecordedResponses() throws IOException {
+        for (String name : new String[]{
+            "/bard_response_with_1_picture.json",
+            "/bard_response_without_image.json",
+            "/bard_response_multi_sources.json"}) {
+            String chunk = readResource(name).split("\n")[3];
+
+            String payload = treeParser.extractPayload(chunk);
+            Assertions.assertNotNull(payload, name);
+            Assertions.assertEquals(payload, streamingParser.extractPayload(chunk), name);
+
+            Answer expected = treeParser.parsePayload(payload);
+            Answer actual = streamingParser.parsePayload(payload);
+            Assertions.assertEquals(expected, actual, name);
+            Assertions.assertFalse(actual.getRelatedTopics().isEmpty(), name);
+        }
+    }
+
+    @Test
+    public void testRecordedPayloads() throws IOException {
+        for (String name : new String[]{"/pure_result_with_1_picture.json", "/pure_result_with_multi_sources.json"}) {
+            String payload = readResource(name);
+            Assertions.assertEquals(treeParser.parsePayload(payload), streamingParser.parsePayload(payload), name);
+        }
+    }
+
+    @Test
+    public void testNonAnswerChunk() {
+        String chunk = "[[\"di\",3656],[\"af.httprm\",3655,\"-6385541934479349426\",8]]";
+        Assertions.assertNull(treeParser.extractPayload(chunk));
+        Assertions.assertNull(streamingParser.extractPayload(chunk));
+        Assertions.assertNull(streamingParser.extractPayload(""));
+    }
+
+    @Test
+    public void testUnexpectedPositions() {
+        String[] payloads = {
+            // only content and ids
+            "[[\"answer\"],[\"c_1\",\"r_1\"]]",
+            // nulls everywhere
+            "[[\"answer\"],[\"c_1\",\"r_1\"],null,null,null]",
+            // factuality queries, broken related topic, choice without content
+            "[[\"answer\"],[\"c_1\",\"r_1\"],[[\"topic\",1],[\"other\",\"x\"],[\"last\",3]],[\"q1\",\"q2\"],[[\"rc_1\"]]]",
+            // source out of the answer, image without details link
+            "[[\"answer\"],[\"c_1\",\"r_1\"],[],[[[0,3,[\"https://a\"]],[2,100,[\"https://b\"]],[0,1,[\"https://c\"]]]],"
+                + "[[\"rc_1\",[\"answer\"],null,null,[[[[\"https://img\"]],[[\"https://link\"]],\"[Image]\"],[[[\"https://x\"]]]]]]]",
+        };
+        for (String payload : payloads) {
+            Assertions.assertEquals(treeParser.parsePayload(payload), streamingParser.parsePayload(payload), payload);
+        }
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream inputStream = BardResultParserTest.class.getResourceAsStream(name)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.bard.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<CircuitBreaker.StateChange> changes = new ArrayList<>();
+
+    @Test
+    public void testFailureRate_opensThenProbesAndCloses() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker();
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onSuccess(FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onFailure(FAST);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        // 5 failures out of 10 calls
+        circuitBreaker.onFailure(FAST);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        // Only 2 probe calls while half open
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        Assertions.assertEquals(3, changes.size());
+        Assertions.assertEquals(new CircuitBreaker.StateChange(CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN),
+            changes.get(0));
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, changes.get(1).getTo());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, changes.get(2).getTo());
+    }
+
+    @Test
+    public void testSlowCalls_openAndFailedProbeReopens() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker();
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onSuccess(i < 2 ? FAST : Duration.ofSeconds(6).toNanos());
+        }
+        // 8 slow calls out of 10
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure(FAST);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testMinimumCalls_andSlidingWindow() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker();
+
+        // Below minimumCalls, failures do not open the breaker
+        for (int i = 0; i < 9; i++) {
+            circuitBreaker.onFailure(FAST);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        CircuitBreaker windowed = newCircuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            windowed.onFailure(FAST);
+        }
+        // The old failures leave the window of 10 calls
+        for (int i = 0; i < 20; i++) {
+            windowed.onSuccess(FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            windowed.onFailure(FAST);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, windowed.getState());
+        Assertions.assertTrue(changes.isEmpty());
+    }
+
+    private CircuitBreaker newCircuitBreaker() {
+        return CircuitBreaker.builder()
+            .failureRateThreshold(0.5)
+            .slowCallRateThreshold(0.8)
+            .slowCallDuration(Duration.ofSeconds(5))
+            .slidingWindowSize(10)
+            .minimumCalls(10)
+            .openDuration(Duration.ofSeconds(10))
+            .halfOpenCalls(2)
+            .listener(changes::add)
+            .nanoClock(now::get)
+            .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.bard.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class HedgingPolicyTest {
+
+    @Test
+    public void testDelay_followsPercentile() {
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder()
+            .percentile(0.9)
+            .initialDelay(Duration.ofSeconds(3))
+            .minDelay(Duration.ofMillis(20))
+            .windowSize(100)
+            .minimumSamples(10)
+            .build();
+        Assertions.assertEquals(TimeUnit.SECONDS.toNanos(3), hedgingPolicy.onRequest(false));
+
+        // 1ms to 100ms
+        for (int i = 1; i <= 100; i++) {
+            hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i), false);
+        }
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(90), hedgingPolicy.getDelayNanos(false));
+
+        // Fast responses push the delay down to minDelay
+        for (int i = 0; i < 100; i++) {
+            hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1), false);
+        }
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(20), hedgingPolicy.onRequest(false));
+    }
+
+    @Test
+    public void testDelay_windowPerKindOfRequest() {
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder()
+            .initialDelay(Duration.ofSeconds(3))
+            .minDelay(Duration.ofMillis(1))
+            .windowSize(20)
+            .minimumSamples(10)
+            .build();
+
+        // Blocking requests are timed until the headers, async ones until the whole body
+        for (int i = 0; i < 20; i++) {
+            hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10), false);
+            hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500), true);
+        }
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), hedgingPolicy.onRequest(false));
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), hedgingPolicy.onRequest(true));
+    }
+
+    @Test
+    public void testTryAcquireHedge_boundedByBudget() {
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder().budget(0.1).maxBurst(2).build();
+
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            hedgingPolicy.onRequest(false);
+            if (hedgingPolicy.tryAcquireHedge()) {
+                hedges++;
+            }
+        }
+        Assertions.assertTrue(hedges >= 9 && hedges <= 10);
+        Assertions.assertEquals(hedges, hedgingPolicy.getHedgeCount());
+
+        // Saved up budget is capped by maxBurst
+        for (int i = 0; i < 100; i++) {
+            hedgingPolicy.onRequest(false);
+        }
+        Assertions.assertTrue(hedgingPolicy.tryAcquireHedge());
+        Assertions.assertTrue(hedgingPolicy.tryAcquireHedge());
+        Assertions.assertFalse(hedgingPolicy.tryAcquireHedge());
+    }
+}
@@ -0,0 +1,50 @@
+package com.api.bard.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testReserve_burstThenSteadyRate() {
+        RateLimiter rateLimiter = RateLimiter.builder().permitsPerSecond(10).burst(3).build();
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, rateLimiter.reserve());
+        }
+        // The following permits are spaced by 100ms
+        long first = rateLimiter.reserve();
+        long second = rateLimiter.reserve();
+        Assertions.assertTrue(first <= TimeUnit.MILLISECONDS.toNanos(100), String.valueOf(first));
+        Assertions.assertTrue(second - first > TimeUnit.MILLISECONDS.toNanos(90), String.valueOf(second - first));
+    }
+
+    @Test
+    public void testAdaptive_halvesOnThrottlingAndRecovers() {
+        RateLimiter rateLimiter = RateLimiter.builder()
+            .permitsPerSecond(10)
+            .adaptive(true)
+            .minPermitsPerSecond(4)
+            .build();
+
+        rateLimiter.onThrottled();
+        Assertions.assertEquals(5, rateLimiter.getRate());
+        // Throttled responses of the same burst lower the rate only once
+        rateLimiter.onThrottled();
+        Assertions.assertEquals(5, rateLimiter.getRate());
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onSuccess();
+        }
+        Assertions.assertEquals(10, rateLimiter.getRate());
+    }
+
+    @Test
+    public void testNotAdaptive_keepsRate() {
+        RateLimiter rateLimiter = RateLimiter.builder().permitsPerSecond(10).build();
+        rateLimiter.onThrottled();
+        Assertions.assertEquals(10, rateLimiter.getRate());
+    }
+}
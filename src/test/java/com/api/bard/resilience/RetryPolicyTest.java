@@ -0,0 +1,25 @@
+package com.api.bard.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testBackoffNanos_isCapped() {
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+            .initialBackoff(Duration.ofMillis(100))
+            .maxBackoff(Duration.ofMillis(300))
+            .build();
+        for (int attempt = 1; attempt < 10; attempt++) {
+            long backoff = retryPolicy.backoffNanos(attempt, 0);
+            Assertions.assertTrue(backoff >= 0 && backoff <= TimeUnit.MILLISECONDS.toNanos(300));
+        }
+        // Retry-After is respected, up to maxBackoff
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(300),
+            retryPolicy.backoffNanos(1, TimeUnit.SECONDS.toNanos(5)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.api.bard.store;
+
+import com.api.bard.model.ConversationState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedFileConversationStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSave_survivesReopen() {
+        Path file = directory.resolve("conversations.db");
+        try (MappedFileConversationStore store = MappedFileConversationStore.builder(file).build()) {
+            store.save("user-1", conversation("c_1", 1));
+            store.save("user-2", conversation("c_2", 1));
+            store.save("user-1", conversation("c_1", 2));
+            store.delete("user-2");
+        }
+
+        try (MappedFileConversationStore store = MappedFileConversationStore.builder(file).build()) {
+            Assertions.assertEquals(1, store.size());
+            Assertions.assertEquals(conversation("c_1", 2), store.load("user-1"));
+            Assertions.assertNull(store.load("user-2"));
+        }
+    }
+
+    @Test
+    public void testOpen_lockedByAnotherStore() {
+        Path file = directory.resolve("conversations.db");
+        try (MappedFileConversationStore ignored = MappedFileConversationStore.builder(file).build()) {
+            Assertions.assertThrows(UncheckedIOException.class,
+                () -> MappedFileConversationStore.builder(file).build());
+        }
+    }
+
+    @Test
+    public void testSave_growsAndCompacts() throws Exception {
+        Path file = directory.resolve("conversations.db");
+        try (MappedFileConversationStore store = MappedFileConversationStore.builder(file).initialSize(1024).build()) {
+            for (int turn = 1; turn <= 500; turn++) {
+                for (int user = 0; user < 5; user++) {
+                    store.save("user-" + user, conversation("c_" + user, turn));
+                }
+            }
+            Assertions.assertEquals(5, store.size());
+            // Replaced records were dropped, 2500 of them would take about 170KB
+            Assertions.assertTrue(store.fileBytes() < 4096);
+            Assertions.assertTrue(Files.size(file) < 8192);
+            Assertions.assertEquals(conversation("c_3", 500), store.load("user-3"));
+        }
+
+        try (MappedFileConversationStore store = MappedFileConversationStore.builder(file).build()) {
+            Assertions.assertEquals(conversation("c_4", 500), store.load("user-4"));
+        }
+    }
+
+    @Test
+    public void testLoad_closed() {
+        MappedFileConversationStore store = MappedFileConversationStore.builder(directory.resolve("c.db")).build();
+        store.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> store.load("user-1"));
+    }
+
+    @Test
+    public void testCodec() {
+        StoredConversation conversation = StoredConversation.builder()
+            .state(ConversationState.builder()
+                .conversationId("c_8300a5a03d34fb60")
+                .responseId("r_8300a5a03d34fa4a")
+                .choiceId("rc_ba4d7b4a2ae7aeb5")
+                .build())
+            .lastAnswerAt(1_700_000_000_000L)
+            .turns(3)
+            .usedTranslator(true)
+            .build();
+
+        byte[] encoded = ConversationCodec.encode(conversation);
+        Assertions.assertTrue(encoded.length < 80);
+        Assertions.assertEquals(conversation, ConversationCodec.decode(encoded));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConversationCodec.decode(new byte[]{1, 100}));
+    }
+
+    private static StoredConversation conversation(String conversationId, int turns) {
+        return StoredConversation.builder()
+            .state(ConversationState.builder()
+                .conversationId(conversationId)
+                .responseId("r_" + turns)
+                .choiceId("rc_" + turns)
+                .build())
+            .lastAnswerAt(1_700_000_000_000L + turns)
+            .turns(turns)
+            .build();
+    }
+}
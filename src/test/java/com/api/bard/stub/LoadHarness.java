@@ -0,0 +1,231 @@
+package com.api.bard.stub;
+
+import com.api.bard.BardClient;
+import com.api.bard.IBardClient;
+import com.api.bard.model.Answer;
+import com.api.bard.model.Question;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asks the same question many times, with a fixed number of questions in flight, and reports the latency
+ * percentiles and the throughput. Meant to run against a {@link StubBardServer}, see {@link #main(String[])}.
+ * <p>
+ * In sync mode every question in flight holds a thread calling getAnswer, in async mode getAnswerAsync is called
+ * again when an answer completes, without any thread of the harness waiting.
+ */
+public class LoadHarness {
+    private final IBardClient client;
+    private final Question question;
+    private final int concurrency;
+    private final int requests;
+    private final boolean async;
+
+    private LoadHarness(Builder builder) {
+        this.client = builder.client;
+        this.question = Question.builder().question(builder.question).build();
+        this.concurrency = builder.concurrency;
+        this.requests = builder.requests;
+        this.async = builder.async;
+    }
+
+    public static Builder builder(@NonNull IBardClient client) {
+        return new Builder(client);
+    }
+
+    public static class Builder {
+        private final IBardClient client;
+        private String question = "Give me a picture of White House";
+        private int concurrency = 16;
+        private int requests = 1000;
+        private boolean async;
+
+        private Builder(IBardClient client) {
+            this.client = client;
+        }
+
+        public Builder question(@NonNull String question) {
+            this.question = question;
+            return this;
+        }
+
+        /**
+         * Questions in flight at the same time, 16 by default.
+         */
+        public Builder concurrency(int concurrency) {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("concurrency must be positive");
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Number of questions asked, 1000 by default.
+         */
+        public Builder requests(int requests) {
+            if (requests <= 0) {
+                throw new IllegalArgumentException("requests must be positive");
+            }
+            this.requests = requests;
+            return this;
+        }
+
+        /**
+         * Whether questions are asked with getAnswerAsync instead of getAnswer, false by default.
+         */
+        public Builder async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        public LoadHarness build() {
+            return new LoadHarness(this);
+        }
+    }
+
+    @Value
+    public static class LoadReport {
+        int requests;
+        int failures;
+        Duration elapsed;
+        double requestsPerSecond;
+        // Latencies of the successful questions
+        Duration p50;
+        Duration p99;
+        Duration max;
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d failures in %dms: %.1f req/s, p50 %.1fms, p99 %.1fms, max %.1fms",
+                requests, failures, elapsed.toMillis(), requestsPerSecond, millis(p50), millis(p99), millis(max));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+
+    public LoadReport run() {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long startedAt = System.nanoTime();
+        if (async) {
+            List<CompletableFuture<Void>> lanes = new ArrayList<>();
+            for (int i = 0; i < Math.min(concurrency, requests); i++) {
+                CompletableFuture<Void> lane = new CompletableFuture<>();
+                askAsync(next, latencies, failures, lane);
+                lanes.add(lane);
+            }
+            CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0])).join();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            try {
+                List<CompletableFuture<Void>> lanes = new ArrayList<>();
+                for (int i = 0; i < Math.min(concurrency, requests); i++) {
+                    lanes.add(CompletableFuture.runAsync(() -> askSync(next, latencies, failures), executor));
+                }
+                CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0])).join();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        return report(latencies, failures.get(), elapsed);
+    }
+
+    private void askSync(AtomicInteger next, long[] latencies, AtomicInteger failures) {
+        int index;
+        while ((index = next.getAndIncrement()) < requests) {
+            long startedAt = System.nanoTime();
+            try {
+                client.getAnswer(question);
+                latencies[index] = System.nanoTime() - startedAt;
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                latencies[index] = -1;
+            }
+        }
+    }
+
+    private void askAsync(AtomicInteger next, long[] latencies, AtomicInteger failures, CompletableFuture<Void> lane) {
+        int index = next.getAndIncrement();
+        if (index >= requests) {
+            lane.complete(null);
+            return;
+        }
+        long startedAt = System.nanoTime();
+        CompletableFuture<Answer> answer;
+        try {
+            answer = client.getAnswerAsync(question);
+        } catch (RuntimeException e) {
+            answer = CompletableFuture.failedFuture(e);
+        }
+        answer.whenComplete((result, e) -> {
+            if (e == null) {
+                latencies[index] = System.nanoTime() - startedAt;
+            } else {
+                failures.incrementAndGet();
+                latencies[index] = -1;
+            }
+            // Cached answers complete at once, the recursion is then bounded by the number of requests
+            askAsync(next, latencies, failures, lane);
+        });
+    }
+
+    private LoadReport report(long[] latencies, int failures, long elapsedNanos) {
+        long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        return new LoadReport(requests, failures, Duration.ofNanos(elapsedNanos),
+            requests / (elapsedNanos / 1e9),
+            Duration.ofNanos(percentile(succeeded, 0.50)),
+            Duration.ofNanos(percentile(succeeded, 0.99)),
+            Duration.ofNanos(succeeded.length == 0 ? 0 : succeeded[succeeded.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Runs a load test against a local stub server.
+     * Arguments, all optional: concurrency (16), requests (1000), latency in ms (200), chunks (4), async (false).
+     */
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        int chunks = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        boolean async = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+        try (StubBardServer server = StubBardServer.builder()
+            .latency(Duration.ofMillis(latencyMillis))
+            .jitter(Duration.ofMillis(latencyMillis / 2))
+            .chunks(chunks, Duration.ofMillis(10))
+            .start()) {
+            BardClient client = BardClient.builder("stub_token.")
+                .baseUrl(server.getBaseUrl())
+                .build();
+            LoadReport report = LoadHarness.builder(client)
+                .concurrency(concurrency)
+                .requests(requests)
+                .async(async)
+                .build()
+                .run();
+            System.out.println(report);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.api.bard.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in of bard.google.com, to run BardClient end to end without a token or network,
+ * e.g. with {@code BardClient.builder(token).baseUrl(server.getBaseUrl())}.
+ * <p>
+ * The home page holds the {@link #SNLM0E} value. StreamGenerate requests sent with that value get the recorded
+ * responses in turn, after latency (plus up to jitter), written in chunks spaced by chunkDelay, gzip compressed
+ * when the client accepts it.
+ * A share of them can be answered with 500 (errorRate) or 429 (throttleRate) instead.
+ */
+public class StubBardServer implements Closeable {
+    public static final String SNLM0E = "stub_snlm0e";
+    public static final String DEFAULT_RESPONSE = "/bard_response_with_1_picture.json";
+
+    private static final String HOME_PAGE = "<script>WIZ_global_data = {\"SNlM0e\":\"" + SNLM0E + "\"};</script>";
+    private static final String STREAM_GENERATE_PATH =
+        "/_/BardChatUi/data/assistant.lamda.BardFrontendService/StreamGenerate";
+
+    private final List<byte[]> responses;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final int chunks;
+    private final long chunkDelayNanos;
+    private final double errorRate;
+    private final double throttleRate;
+    private final int retryAfterSeconds;
+    private final Random random;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong nextResponse = new AtomicLong();
+    private final AtomicInteger homePageCount = new AtomicInteger();
+    private final AtomicInteger streamGenerateCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger throttledCount = new AtomicInteger();
+
+    private StubBardServer(Builder builder) throws IOException {
+        this.responses = builder.responses.isEmpty() ? List.of(readResource(DEFAULT_RESPONSE)) : builder.responses;
+        this.latencyNanos = builder.latency.toNanos();
+        this.jitterNanos = builder.jitter.toNanos();
+        this.chunks = builder.chunks;
+        this.chunkDelayNanos = builder.chunkDelay.toNanos();
+        this.errorRate = builder.errorRate;
+        this.throttleRate = builder.throttleRate;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.random = new Random(builder.seed);
+
+        // One thread per request, so slow responses never queue behind each other
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-bard-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final List<byte[]> responses = new ArrayList<>();
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private int chunks = 1;
+        private Duration chunkDelay = Duration.ZERO;
+        private double errorRate;
+        private double throttleRate;
+        private int retryAfterSeconds;
+        private long seed = 42;
+        private int port;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a recorded StreamGenerate response from the test resources, e.g. "/bard_response_multi_sources.json".
+         * {@link #DEFAULT_RESPONSE} when none is added.
+         */
+        public Builder response(@NonNull String resource) throws IOException {
+            responses.add(readResource(resource));
+            return this;
+        }
+
+        /**
+         * Delay before the response headers are sent, none by default.
+         */
+        public Builder latency(@NonNull Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Random extra delay, up to jitter, added to the latency. None by default.
+         */
+        public Builder jitter(@NonNull Duration jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Number of writes of every StreamGenerate response, spaced by chunkDelay. 1 by default.
+         */
+        public Builder chunks(int chunks, @NonNull Duration chunkDelay) {
+            if (chunks <= 0) {
+                throw new IllegalArgumentException("chunks must be positive");
+            }
+            this.chunks = chunks;
+            this.chunkDelay = chunkDelay;
+            return this;
+        }
+
+        /**
+         * Share of StreamGenerate requests answered with 500, 0 by default.
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Share of StreamGenerate requests answered with 429, 0 by default.
+         *
+         * @param retryAfterSeconds Retry-After header of the 429 responses, none when 0
+         */
+        public Builder throttleRate(double throttleRate, int retryAfterSeconds) {
+            this.throttleRate = throttleRate;
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /**
+         * Seed of the latency jitter and of the injected errors.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Port to listen on, a free one by default.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public StubBardServer start() throws IOException {
+            return new StubBardServer(this);
+        }
+    }
+
+    /**
+     * @return url to pass to BardClient.Builder#baseUrl
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public int getHomePageCount() {
+        return homePageCount.get();
+    }
+
+    public int getStreamGenerateCount() {
+        return streamGenerateCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if ("GET".equals(exchange.getRequestMethod()) && ("/".equals(path) || path.isEmpty())) {
+                homePageCount.incrementAndGet();
+                byte[] homePage = HOME_PAGE.getBytes(StandardCharsets.UTF_8);
+                try (OutputStream outputStream = openResponse(exchange, homePage.length)) {
+                    outputStream.write(homePage);
+                }
+            } else if ("POST".equals(exchange.getRequestMethod()) && STREAM_GENERATE_PATH.equals(path)) {
+                streamGenerate(exchange);
+            } else {
+                send(exchange, 404, new byte[0]);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void streamGenerate(HttpExchange exchange) throws IOException {
+        streamGenerateCount.incrementAndGet();
+        String body;
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            body = URLDecoder.decode(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+        }
+
+        double draw;
+        long jitter;
+        synchronized (random) {
+            draw = random.nextDouble();
+            jitter = jitterNanos <= 0 ? 0 : (long) (random.nextDouble() * jitterNanos);
+        }
+        sleep(latencyNanos + jitter);
+
+        if (!body.contains("at=" + SNLM0E)) {
+            send(exchange, 400, new byte[0]);
+        } else if (draw < throttleRate) {
+            throttledCount.incrementAndGet();
+            if (retryAfterSeconds > 0) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            }
+            send(exchange, 429, new byte[0]);
+        } else if (draw < throttleRate + errorRate) {
+            errorCount.incrementAndGet();
+            send(exchange, 500, new byte[0]);
+        } else {
+            byte[] response = responses.get((int) (nextResponse.getAndIncrement() % responses.size()));
+            sendInChunks(exchange, response);
+        }
+    }
+
+    private void sendInChunks(HttpExchange exchange, byte[] response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // Chunked transfer encoding when the response is written in many parts
+        OutputStream outputStream = openResponse(exchange, chunks == 1 ? response.length : 0);
+        int chunkLength = (response.length + chunks - 1) / chunks;
+        for (int offset = 0; offset < response.length; offset += chunkLength) {
+            if (offset > 0) {
+                sleep(chunkDelayNanos);
+            }
+            outputStream.write(response, offset, Math.min(chunkLength, response.length - offset));
+            outputStream.flush();
+        }
+        outputStream.close();
+    }
+
+    /**
+     * Sends the headers of a 200 response, gzip compressed (with chunked transfer encoding) when the client
+     * accepts it, like bard does.
+     */
+    private static OutputStream openResponse(HttpExchange exchange, long length) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            // Sync flush, so every chunk reaches the client as soon as it is written
+            return new GZIPOutputStream(exchange.getResponseBody(), true);
+        }
+        exchange.sendResponseHeaders(200, length);
+        return exchange.getResponseBody();
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+
+    private static void sleep(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream inputStream = StubBardServer.class.getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new UncheckedIOException(new IOException("No resource " + name));
+            }
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.bard.stub;
+
+import com.api.bard.BardClient;
+import com.api.bard.IBardClient;
+import com.api.bard.cache.SNlM0eCache;
+import com.api.bard.exception.BardApiException;
+import com.api.bard.exception.BardHttpException;
+import com.api.bard.model.Answer;
+import com.api.bard.model.AnswerChunk;
+import com.api.bard.model.Question;
+import com.api.bard.resilience.RetryPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs BardClient with its default transport against the stub server, over real http.
+ */
+public class StubBardServerTest {
+
+    @Test
+    public void testGetAnswer_recordedResponse() throws IOException {
+        try (StubBardServer server = StubBardServer.builder().start()) {
+            IBardClient bardClient = newClient(server).build();
+
+            Answer answer = bardClient.getAnswer("Give me a picture of White House");
+            Assertions.assertEquals("c_8300a5a03d34fb60", answer.getConversationId());
+            Assertions.assertEquals(1, answer.getImages().size());
+
+            bardClient.getAnswerAsync("Who lives there?").join();
+            Assertions.assertEquals(1, server.getHomePageCount());
+            Assertions.assertEquals(2, server.getStreamGenerateCount());
+        }
+    }
+
+    @Test
+    public void testGetAnswer_chunkedStreaming() throws IOException {
+        try (StubBardServer server = StubBardServer.builder()
+            .response("/bard_response_multi_sources.json")
+            .chunks(8, Duration.ofMillis(5))
+            .start()) {
+            IBardClient bardClient = newClient(server).build();
+
+            List<AnswerChunk> chunks = new ArrayList<>();
+            Answer answer = bardClient.getAnswer(Question.builder().question("Tell me about Java").build(), chunks::add);
+            Assertions.assertFalse(answer.getSources().isEmpty());
+            Assertions.assertTrue(chunks.get(chunks.size() - 1).isLast());
+        }
+    }
+
+    @Test
+    public void testGetAnswer_injectedErrors() throws IOException {
+        try (StubBardServer server = StubBardServer.builder().throttleRate(1, 0).start()) {
+            IBardClient bardClient = newClient(server).build();
+
+            BardApiException e = Assertions.assertThrows(BardApiException.class,
+                () -> bardClient.getAnswer("Who are you?"));
+            Assertions.assertEquals(429, ((BardHttpException) e.getCause()).getStatusCode());
+        }
+
+        try (StubBardServer server = StubBardServer.builder().throttleRate(0.3, 0).errorRate(0.2).start()) {
+            IBardClient bardClient = newClient(server)
+                .retryPolicy(RetryPolicy.builder().maxAttempts(20).initialBackoff(Duration.ofMillis(1)).build())
+                .build();
+
+            for (int i = 0; i < 10; i++) {
+                bardClient.getAnswer("Who are you?");
+            }
+            Assertions.assertTrue(server.getThrottledCount() > 0);
+            Assertions.assertTrue(server.getErrorCount() > 0);
+            Assertions.assertEquals(10 + server.getThrottledCount() + server.getErrorCount(),
+                server.getStreamGenerateCount());
+        }
+    }
+
+    @Test
+    public void testLoadHarness() throws IOException {
+        try (StubBardServer server = StubBardServer.builder()
+            .latency(Duration.ofMillis(20))
+            .jitter(Duration.ofMillis(10))
+            .start()) {
+            IBardClient bardClient = newClient(server).build();
+
+            for (boolean async : new boolean[]{false, true}) {
+                LoadHarness.LoadReport report = LoadHarness.builder(bardClient)
+                    .concurrency(8)
+                    .requests(40)
+                    .async(async)
+                    .build()
+                    .run();
+                Assertions.assertEquals(0, report.getFailures());
+                Assertions.assertTrue(report.getP50().toMillis() >= 20, report.toString());
+                Assertions.assertTrue(report.getP99().compareTo(report.getP50()) >= 0, report.toString());
+                Assertions.assertTrue(report.getRequestsPerSecond() > 0, report.toString());
+            }
+            Assertions.assertEquals(80, server.getStreamGenerateCount());
+        }
+    }
+
+    private static BardClient.BardClientBuilder newClient(StubBardServer server) {
+        return BardClient.builder("stub_token.")
+            .baseUrl(server.getBaseUrl())
+            .snlm0eCache(SNlM0eCache.builder().build());
+    }
+}
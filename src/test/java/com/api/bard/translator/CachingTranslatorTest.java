@@ -0,0 +1,91 @@
+package com.api.bard.translator;
+
+import com.api.bard.exception.BardTranslateException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingTranslatorTest {
+    private final AtomicInteger detections = new AtomicInteger();
+    private final AtomicInteger translations = new AtomicInteger();
+
+    private final IBardTranslator counting = new IBardTranslator() {
+        @Override
+        public String middleLanguage() {
+            return "en";
+        }
+
+        @Override
+        public String detectLanguage(String rawText) {
+            detections.incrementAndGet();
+            if (rawText.isEmpty()) {
+                throw new BardTranslateException("empty text");
+            }
+            return "zh";
+        }
+
+        @Override
+        public String translate(String sourceLang, String targetLang, String rawText) {
+            translations.incrementAndGet();
+            return targetLang + ":" + rawText;
+        }
+    };
+
+    @Test
+    public void testRepeatedCallsAreCached() {
+        CachingTranslator translator = CachingTranslator.builder(counting).build();
+
+        Assertions.assertEquals("zh", translator.detectLanguage("你是谁"));
+        Assertions.assertEquals("zh", translator.detectLanguage("你是谁"));
+        Assertions.assertEquals(1, detections.get());
+
+        Assertions.assertEquals("en:你是谁", translator.translate("zh", "en", "你是谁"));
+        Assertions.assertEquals("en:你是谁", translator.translate("zh", "en", "你是谁"));
+        Assertions.assertEquals("ja:你是谁", translator.translate("zh", "ja", "你是谁"));
+        Assertions.assertEquals(2, translations.get());
+
+        CachingTranslator.Stats stats = translator.stats();
+        Assertions.assertEquals(1, stats.getDetectionHitCount());
+        Assertions.assertEquals(1, stats.getDetectionMissCount());
+        Assertions.assertEquals(1, stats.getTranslationHitCount());
+        Assertions.assertEquals(2, stats.getTranslationMissCount());
+    }
+
+    @Test
+    public void testTranslateAll_onlyMissesArePassedOn() {
+        CachingTranslator translator = CachingTranslator.builder(counting).build();
+        translator.translate("zh", "en", "b");
+
+        Assertions.assertEquals(Arrays.asList("en:a", "en:b", "en:c"),
+            translator.translateAll("zh", "en", Arrays.asList("a", "b", "c")));
+        Assertions.assertEquals(3, translations.get());
+        Assertions.assertEquals(Arrays.asList("en:c", "en:a"), translator.translateAll("zh", "en", Arrays.asList("c", "a")));
+        Assertions.assertEquals(3, translations.get());
+    }
+
+    @Test
+    public void testEvictionAndLimits() {
+        CachingTranslator translator = CachingTranslator.builder(counting)
+            .maximumTranslations(1)
+            .maxTextLength(5)
+            .build();
+
+        translator.translate("zh", "en", "a");
+        translator.translate("zh", "en", "b");
+        translator.translate("zh", "en", "a");
+        Assertions.assertEquals(3, translations.get());
+        Assertions.assertEquals(2, translator.stats().getEvictionCount());
+
+        // Long texts are not cached
+        translator.translate("zh", "en", "longer text");
+        translator.translate("zh", "en", "longer text");
+        Assertions.assertEquals(5, translations.get());
+
+        // Failures are not cached
+        Assertions.assertThrows(BardTranslateException.class, () -> translator.detectLanguage(""));
+        Assertions.assertThrows(BardTranslateException.class, () -> translator.detectLanguage(""));
+        Assertions.assertEquals(2, detections.get());
+    }
+}
@@ -0,0 +1,46 @@
+package com.api.bard.translator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GoogleTranslatorAdaptorTest {
+
+    @Test
+    public void testTranslateJoined_oneRequestPerBatch() {
+        AtomicInteger requests = new AtomicInteger();
+        List<String> translations = GoogleTranslatorAdaptor.translateJoined(
+            Arrays.asList("first sentence.", "second one", "third"),
+            rawText -> {
+                requests.incrementAndGet();
+                return rawText.toUpperCase(Locale.ROOT);
+            });
+
+        Assertions.assertEquals(Arrays.asList("FIRST SENTENCE.", "SECOND ONE", "THIRD"), translations);
+        Assertions.assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testTranslateJoined_fallsBackToOneRequestPerText() {
+        AtomicInteger requests = new AtomicInteger();
+        // The translation merged the lines
+        List<String> translations = GoogleTranslatorAdaptor.translateJoined(Arrays.asList("a", "b"), rawText -> {
+            requests.incrementAndGet();
+            return rawText.replace("\n", " ");
+        });
+        Assertions.assertEquals(Arrays.asList("a", "b"), translations);
+        Assertions.assertEquals(3, requests.get());
+
+        // Texts holding line breaks are sent one by one
+        requests.set(0);
+        GoogleTranslatorAdaptor.translateJoined(Arrays.asList("a\nb", "c"), rawText -> {
+            requests.incrementAndGet();
+            return rawText;
+        });
+        Assertions.assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,83 @@
+package com.api.bard.translator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LocalLanguageDetectorTest {
+    private static final double MIN_CONFIDENCE = 0.6;
+
+    private final LocalLanguageDetector detector = new LocalLanguageDetector();
+
+    @Test
+    public void testDetect_confidentLanguages() {
+        assertDetected("en", "Who are you?");
+        assertDetected("en", "Who is current president of USA?");
+        assertDetected("en", "Give me a picture of White House");
+        assertDetected("en", "How can I write a binary search in Java without recursion?");
+        assertDetected("en", "What is the weather like in Paris today?");
+        assertDetected("ko", "누구세요");
+        assertDetected("ko", "서울에서 가장 유명한 음식은 무엇인가요?");
+        assertDetected("ja", "あなたの名前は何ですか");
+        assertDetected("ja", "東京の天気はどうですか");
+        assertDetected("th", "คุณเป็นใคร");
+        assertDetected("el", "Ποιος είσαι;");
+    }
+
+    @Test
+    public void testDetect_leftToRemote() {
+        assertNotConfident("你是谁？");
+        assertNotConfident("Qui êtes-vous et que faites-vous ici ?");
+        assertNotConfident("Wer bist du und was machst du hier?");
+        assertNotConfident("¿Quién eres y qué haces aquí?");
+        assertNotConfident("Chi sei e cosa fai qui?");
+        assertNotConfident("Wie ben jij en wat doe je hier?");
+        assertNotConfident("Кто ты?");
+        assertNotConfident("12345");
+        assertNotConfident("Hi");
+    }
+
+    @Test
+    public void testLocalDetectingTranslator() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+        IBardTranslator remote = new IBardTranslator() {
+            @Override
+            public String middleLanguage() {
+                return "en";
+            }
+
+            @Override
+            public String detectLanguage(String rawText) {
+                remoteCalls.incrementAndGet();
+                return "zh-CN";
+            }
+
+            @Override
+            public String translate(String sourceLang, String targetLang, String rawText) {
+                return rawText;
+            }
+        };
+        LocalDetectingTranslator translator = LocalDetectingTranslator.builder(remote).build();
+
+        Assertions.assertEquals("en", translator.detectLanguage("Who is current president of USA?"));
+        Assertions.assertEquals("ko", translator.detectLanguage("누구세요"));
+        Assertions.assertEquals(0, remoteCalls.get());
+        Assertions.assertEquals("zh-CN", translator.detectLanguage("你是谁？"));
+        Assertions.assertEquals(1, remoteCalls.get());
+        Assertions.assertEquals(2, translator.getLocalCount());
+        Assertions.assertEquals(1, translator.getRemoteCount());
+    }
+
+    private void assertDetected(String language, String text) {
+        LocalLanguageDetector.Detection detection = detector.detect(text);
+        Assertions.assertEquals(language, detection.getLanguage(), text);
+        Assertions.assertTrue(detection.getConfidence() >= MIN_CONFIDENCE, text + ": " + detection.getConfidence());
+    }
+
+    private void assertNotConfident(String text) {
+        LocalLanguageDetector.Detection detection = detector.detect(text);
+        Assertions.assertTrue(detection.getLanguage() == null || detection.getConfidence() < MIN_CONFIDENCE,
+            text + ": " + detection);
+    }
+}
@@ -0,0 +1,102 @@
+package com.api.bard.translator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+public class ParallelAnswerTranslatorTest {
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private final IBardTranslator upperCase = new IBardTranslator() {
+        @Override
+        public String middleLanguage() {
+            return "en";
+        }
+
+        @Override
+        public String detectLanguage(String rawText) {
+            return "en";
+        }
+
+        @Override
+        public String translate(String sourceLang, String targetLang, String rawText) {
+            return rawText.toUpperCase(Locale.ROOT);
+        }
+
+        @Override
+        public List<String> translateAll(String sourceLang, String targetLang, List<String> rawTexts) {
+            batches.add(rawTexts);
+            return rawTexts.stream().map(text -> translate(sourceLang, targetLang, text)).collect(Collectors.toList());
+        }
+    };
+
+    @Test
+    public void testTranslate_keepsMarkdownAndMarkers() {
+        String answer = "## White house\n"
+            + "\n"
+            + "Sure, here is a picture. [Image of White House]\n"
+            + "\n"
+            + "* first item\n"
+            + "1. numbered item  \n"
+            + "> quoted\n"
+            + "| name | value |\n"
+            + "|---|---|\n"
+            + "```java\n"
+            + "int answer = 42;\n"
+            + "```\n"
+            + "The end.";
+        String expected = "## WHITE HOUSE\n"
+            + "\n"
+            + "SURE, HERE IS A PICTURE. [Image of White House]\n"
+            + "\n"
+            + "* FIRST ITEM\n"
+            + "1. NUMBERED ITEM  \n"
+            + "> QUOTED\n"
+            + "| NAME | VALUE |\n"
+            + "|---|---|\n"
+            + "```java\n"
+            + "int answer = 42;\n"
+            + "```\n"
+            + "THE END.";
+
+        String translated = ParallelAnswerTranslator.builder().executor(Runnable::run).build().translate(upperCase,
+            "en", "zh", answer, Collections.singletonList("[Image of White House]"));
+        Assertions.assertEquals(expected, translated);
+        // Short answers go in a single batch
+        Assertions.assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testTranslate_longAnswerInParallelChunks() {
+        StringBuilder answer = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            answer.append("Sentence number ").append(i).append(" of a long paragraph. ");
+        }
+        answer.append("\nSecond paragraph.");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String translated = ParallelAnswerTranslator.builder()
+                .maxChunkLength(100)
+                .maxParallelism(3)
+                .executor(executor)
+                .build()
+                .translate(upperCase, "en", "zh", answer.toString(), Collections.emptyList());
+            Assertions.assertEquals(answer.toString().toUpperCase(Locale.ROOT), translated);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(batches.size() > 1);
+        for (List<String> batch : batches) {
+            Assertions.assertTrue(batch.stream().mapToInt(String::length).sum() <= 100, batch.toString());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.api.bard.transport;
+
+import com.api.bard.exception.BardCircuitOpenException;
+import com.api.bard.resilience.CircuitBreaker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class CircuitBreakerBardTransportTest {
+    private static final String URL = "https://bard.google.com/_/BardChatUi";
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+        .slidingWindowSize(4)
+        .minimumCalls(4)
+        .openDuration(Duration.ofMinutes(1))
+        .build();
+
+    @Test
+    public void testExecute_failsFastOnceOpen() throws IOException {
+        InMemoryBardTransport inMemory = new InMemoryBardTransport().respond(URL, 503, "");
+        BardTransport transport = new CircuitBreakerBardTransport(inMemory, circuitBreaker);
+
+        for (int i = 0; i < 4; i++) {
+            try (BardHttpResponse response = transport.execute(request())) {
+                Assertions.assertEquals(503, response.getCode());
+            }
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Assertions.assertThrows(BardCircuitOpenException.class, () -> transport.execute(request()));
+        CompletableFuture<BardHttpResponse> response = transport.executeAsync(request());
+        CompletionException e = Assertions.assertThrows(CompletionException.class, response::join);
+        Assertions.assertTrue(e.getCause() instanceof BardCircuitOpenException);
+        // Refused requests never reach bard
+        Assertions.assertEquals(4, inMemory.getRequests().size());
+    }
+
+    @Test
+    public void testExecuteAsync_clientErrorsAreNotFailures() {
+        InMemoryBardTransport inMemory = new InMemoryBardTransport().respond(URL, 400, "");
+        BardTransport transport = new CircuitBreakerBardTransport(inMemory, circuitBreaker);
+
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(400, transport.executeAsync(request()).join().getCode());
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private static BardHttpRequest request() {
+        return BardHttpRequest.builder()
+            .method(BardHttpRequest.POST)
+            .url(URL)
+            .body(new byte[0])
+            .build();
+    }
+}
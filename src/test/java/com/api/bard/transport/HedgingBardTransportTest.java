@@ -0,0 +1,100 @@
+package com.api.bard.transport;
+
+import com.api.bard.metrics.BardPhase;
+import com.api.bard.metrics.BardPhaseEvent;
+import com.api.bard.resilience.HedgingPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HedgingBardTransportTest {
+    private static final String URL = "https://bard.google.com/_/BardChatUi";
+
+    private final HedgingPolicy hedgingPolicy = HedgingPolicy.builder()
+        .initialDelay(Duration.ofMillis(50))
+        .budget(1)
+        .build();
+
+    @Test
+    public void testExecute_hedgeAnswersFirst() throws IOException {
+        AtomicInteger sent = new AtomicInteger();
+        // The first request is stuck, the hedge answers at once
+        InMemoryBardTransport inMemory = new InMemoryBardTransport().handle(URL,
+            request -> respond(sent.incrementAndGet() == 1 ? 2000 : 0, "attempt " + sent.get()));
+        List<BardPhaseEvent> events = new CopyOnWriteArrayList<>();
+        BardTransport transport = HedgingBardTransport.builder(inMemory, hedgingPolicy)
+            .metricsListener(events::add)
+            .build();
+
+        long startedAt = System.nanoTime();
+        try (BardHttpResponse response = transport.execute(request())) {
+            Assertions.assertEquals("attempt 2", new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Assertions.assertTrue(System.nanoTime() - startedAt < Duration.ofMillis(1500).toNanos());
+        Assertions.assertEquals(2, inMemory.getRequests().size());
+        Assertions.assertEquals(1, hedgingPolicy.getHedgeWinCount());
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(BardPhase.HEDGE, events.get(0).getPhase());
+        Assertions.assertEquals(2, events.get(0).getAttempt());
+    }
+
+    @Test
+    public void testExecuteAsync_fastRequestIsNotHedged() {
+        InMemoryBardTransport inMemory = new InMemoryBardTransport().respond(URL, 200, "answer");
+        BardTransport transport = HedgingBardTransport.builder(inMemory, hedgingPolicy).build();
+
+        Assertions.assertEquals(200, transport.executeAsync(request()).join().getCode());
+        Assertions.assertEquals(1, inMemory.getRequests().size());
+        Assertions.assertEquals(0, hedgingPolicy.getHedgeCount());
+    }
+
+    @Test
+    public void testExecute_budgetSpent() throws IOException {
+        InMemoryBardTransport inMemory = new InMemoryBardTransport().handle(URL, request -> respond(150, "slow"));
+        HedgingPolicy noBudget = HedgingPolicy.builder().initialDelay(Duration.ofMillis(10)).budget(0).build();
+        BardTransport transport = HedgingBardTransport.builder(inMemory, noBudget).build();
+
+        try (BardHttpResponse response = transport.execute(request())) {
+            Assertions.assertEquals(200, response.getCode());
+        }
+        Assertions.assertEquals(1, inMemory.getRequests().size());
+    }
+
+    @Test
+    public void testExecute_failsWhenFirstAttemptFailsBeforeHedge() {
+        InMemoryBardTransport inMemory = new InMemoryBardTransport();
+        BardTransport transport = HedgingBardTransport.builder(inMemory, hedgingPolicy).build();
+
+        Assertions.assertThrows(IOException.class, () -> transport.execute(request()));
+        Assertions.assertEquals(1, inMemory.getRequests().size());
+    }
+
+    private static BardHttpResponse respond(long delayMillis, String body) {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("interrupted"));
+        }
+        return BardHttpResponse.builder()
+            .code(200)
+            .body(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+            .build();
+    }
+
+    private static BardHttpRequest request() {
+        return BardHttpRequest.builder()
+            .method(BardHttpRequest.POST)
+            .url(URL)
+            .body(new byte[0])
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.api.bard.transport;
+
+import com.api.bard.resilience.RateLimiter;
+import com.api.bard.resilience.RetryPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class ThrottlingBardTransportTest {
+    private static final String URL = "https://bard.google.com/_/BardChatUi";
+
+    private final RetryPolicy retryPolicy = RetryPolicy.builder()
+        .maxAttempts(3)
+        .initialBackoff(Duration.ofMillis(1))
+        .build();
+
+    @Test
+    public void testExecute_retriesThrottledAndFailedRequests() throws IOException {
+        InMemoryBardTransport inMemory = respondInOrder(429, 503, 200);
+        RateLimiter rateLimiter = RateLimiter.builder().permitsPerSecond(1000).burst(10).adaptive(true).build();
+        BardTransport transport = ThrottlingBardTransport.builder(inMemory)
+            .rateLimiter(rateLimiter)
+            .retryPolicy(retryPolicy)
+            .build();
+
+        try (BardHttpResponse response = transport.execute(request())) {
+            Assertions.assertEquals(200, response.getCode());
+        }
+        Assertions.assertEquals(3, inMemory.getRequests().size());
+        // Lowered by the 429, then raised a bit by the 200
+        Assertions.assertTrue(rateLimiter.getRate() < 1000);
+    }
+
+    @Test
+    public void testExecute_returnsLastResponseWhenAttemptsAreExhausted() throws IOException {
+        InMemoryBardTransport inMemory = respondInOrder(429, 429, 429, 200);
+        BardTransport transport = ThrottlingBardTransport.builder(inMemory).retryPolicy(retryPolicy).build();
+
+        try (BardHttpResponse response = transport.execute(request())) {
+            Assertions.assertEquals(429, response.getCode());
+        }
+        Assertions.assertEquals(3, inMemory.getRequests().size());
+    }
+
+    @Test
+    public void testExecute_clientErrorsAreNotRetried() throws IOException {
+        InMemoryBardTransport inMemory = respondInOrder(400, 200);
+        BardTransport transport = ThrottlingBardTransport.builder(inMemory).retryPolicy(retryPolicy).build();
+
+        try (BardHttpResponse response = transport.execute(request())) {
+            Assertions.assertEquals(400, response.getCode());
+        }
+        Assertions.assertEquals(1, inMemory.getRequests().size());
+    }
+
+    @Test
+    public void testExecuteAsync_retries() {
+        InMemoryBardTransport inMemory = respondInOrder(502, 200);
+        BardTransport transport = ThrottlingBardTransport.builder(inMemory).retryPolicy(retryPolicy).build();
+
+        Assertions.assertEquals(200, transport.executeAsync(request()).join().getCode());
+        Assertions.assertEquals(2, inMemory.getRequests().size());
+    }
+
+    private static InMemoryBardTransport respondInOrder(Integer... codes) {
+        List<Integer> list = Arrays.asList(codes);
+        Iterator<Integer> iterator = list.iterator();
+        return new InMemoryBardTransport().handle(URL, request -> BardHttpResponse.builder()
+            .code(iterator.next())
+            .build());
+    }
+
+    private static BardHttpRequest request() {
+        return BardHttpRequest.builder()
+            .method(BardHttpRequest.POST)
+            .url(URL)
+            .body(new byte[0])
+            .build();
+    }
+}